@@ -0,0 +1,56 @@
+package benchmark;
+
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.AccessPathFlowFunctions;
+import analysis.exercise.Exercise1FlowFunctions;
+import analysis.exercise.Exercise2FlowFunctions;
+import analysis.exercise.Exercise3FlowFunctions;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+
+/**
+ * Locates the programs and flow functions the benchmarks analyze.
+ */
+final class AnalysisTarget {
+
+    private AnalysisTarget() {
+    }
+
+    static View createView() {
+        String defaultTargets = System.getProperty("user.dir") + File.separator + ".." + File.separator + "target" + File.separator + "test-classes";
+        return new JavaView(new JavaClassPathAnalysisInputLocation(System.getProperty("benchmark.targets", defaultTargets)));
+    }
+
+    static MethodSignature findEntryPoint(View view, String className) {
+        SootClass sootClass = view.getClass(view.getIdentifierFactory().getClassType(className))
+                .orElseThrow(() -> new IllegalArgumentException("Entrypoint class '" + className + "' is not in the View."));
+        for (SootMethod method : sootClass.getMethods()) {
+            if (method.hasBody() && method.getName().equals("doGet")) {
+                return method.getSignature();
+            }
+        }
+        throw new IllegalArgumentException("Class '" + className + "' has no doGet method.");
+    }
+
+    static TaintAnalysisFlowFunctions createFlowFunctions(String exercise, VulnerabilityReporter reporter) {
+        switch (exercise) {
+            case "exercise1":
+                return new Exercise1FlowFunctions(reporter);
+            case "exercise2":
+                return new Exercise2FlowFunctions(reporter);
+            case "exercise3":
+                return new Exercise3FlowFunctions(reporter);
+            case "accesspath":
+                return new AccessPathFlowFunctions(reporter);
+            default:
+                throw new IllegalArgumentException("Unknown flow functions '" + exercise + "'.");
+        }
+    }
+}
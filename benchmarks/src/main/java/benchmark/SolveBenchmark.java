@@ -0,0 +1,77 @@
+package benchmark;
+
+import analysis.IFDSTaintAnalysisProblem;
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.VulnerabilityReporter;
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sootup.analysis.interprocedural.icfg.JimpleBasedInterproceduralCFG;
+import sootup.analysis.interprocedural.ifds.JimpleIFDSSolver;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the IFDS solve of a single entry point. The ICFG is built once per trial, so {@link #solve()} only measures
+ * the solver and the flow functions; {@link #buildICFG()} measures the ICFG construction on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+
+    @Param({"exercise1", "exercise2", "exercise3"})
+    public String flowFunctions;
+
+    @Param({"target.exercise1.DirectSQLInjection", "target.exercise1.InterproceduralSQLInjection",
+            "target.exercise2and3.FieldSQLInjection1", "target.exercise2and3.FieldSQLInjection2"})
+    public String targetClass;
+
+    private View view;
+    private MethodSignature entryPoint;
+    private List<MethodSignature> entryPoints;
+    private JimpleBasedInterproceduralCFG icfg;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        view = AnalysisTarget.createView();
+        entryPoint = AnalysisTarget.findEntryPoint(view, targetClass);
+        entryPoints = Collections.singletonList(entryPoint);
+        icfg = buildICFG();
+    }
+
+    @Benchmark
+    public JimpleBasedInterproceduralCFG buildICFG() {
+        return new JimpleBasedInterproceduralCFG(view, entryPoint, false, false);
+    }
+
+    @Benchmark
+    public int solve() {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        TaintAnalysisFlowFunctions functions = AnalysisTarget.createFlowFunctions(flowFunctions, reporter);
+        functions.setICFG(icfg);
+        IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, functions, entryPoints, view);
+        new JimpleIFDSSolver<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>>(problem).solve();
+        return reporter.getReportedVulnerabilities();
+    }
+}
@@ -0,0 +1,140 @@
+package benchmark;
+
+import analysis.BatchTaintAnalysis;
+import analysis.VulnerabilityReporter;
+import analysis.backward.BackwardTaintAnalysis;
+import analysis.icfg.CallGraphICFG;
+import analysis.icfg.CallGraphKind;
+import analysis.schedule.WorklistStrategy;
+import analysis.workload.ServletWorkloadGenerator;
+import analysis.workload.WorkloadConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+import sootup.jimple.parser.JimpleAnalysisInputLocation;
+import sootup.jimple.parser.JimpleView;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures the batch analysis of a generated servlet workload, so that solver costs can be observed as the program
+ * grows, for the forward analysis and for the demand-driven backward analysis. The call graph and ICFG are built once
+ * per trial, so {@link #solve()} only measures the solvers; {@link #buildICFG()} measures their construction on its
+ * own. Every solve checks the number of findings against the count the generator expects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkloadBenchmark {
+
+    @Param({"exercise3"})
+    public String flowFunctions;
+
+    @Param({"forward", "backward"})
+    public String direction;
+
+    /**
+     * Whether the forward analysis propagates sparsely; ignored by the backward analysis.
+     */
+    @Param({"false", "true"})
+    public boolean sparse;
+
+    /**
+     * The call-graph algorithm, one of {@link CallGraphKind}; compare them with
+     * {@code -p callGraph=CHA,RTA,TYPE_PROPAGATION}.
+     */
+    @Param({"CHA"})
+    public String callGraph;
+
+    /**
+     * The order the forward solvers process their path edges in, one of {@link WorklistStrategy} or DEFAULT for the
+     * solver's own queue; compare them with {@code -p worklist=DEFAULT,FIFO,LIFO,REVERSE_POSTORDER,METHOD_BATCHED}.
+     */
+    @Param({"DEFAULT"})
+    public String worklist;
+
+    @Param({"10", "100"})
+    public int servlets;
+
+    @Param({"2", "4"})
+    public int callDepth;
+
+    @Param({"2"})
+    public int fanOut;
+
+    @Param({"20"})
+    public int fillerStatements;
+
+    private WorkloadConfig config;
+    private Path directory;
+    private View view;
+    private List<MethodSignature> entryPoints;
+    private CallGraphICFG icfg;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        config = new WorkloadConfig().setServlets(servlets).setCallDepth(callDepth).setFanOut(fanOut)
+                .setFillerStatements(fillerStatements);
+        directory = Files.createTempDirectory("workload");
+        new ServletWorkloadGenerator(config).generate(directory);
+        view = new JimpleView(new JimpleAnalysisInputLocation(directory));
+        entryPoints = BatchTaintAnalysis.discoverEntryPoints(view);
+        icfg = buildICFG();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public CallGraphICFG buildICFG() {
+        return new CallGraphICFG(view, CallGraphKind.valueOf(callGraph).create(view).initialize(entryPoints));
+    }
+
+    @Benchmark
+    public int solve() {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        if (direction.equals("backward")) {
+            new BackwardTaintAnalysis(view, reporter).solve(entryPoints, icfg);
+        } else {
+            BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, AnalysisTarget.createFlowFunctions(flowFunctions, reporter));
+            analysis.setSparse(sparse);
+            if (!worklist.equals("DEFAULT")) {
+                analysis.setWorklistStrategy(WorklistStrategy.valueOf(worklist));
+            }
+            analysis.solve(entryPoints, icfg);
+        }
+        int findings = reporter.getFindings().size();
+        if (findings != config.getExpectedFindings()) {
+            throw new IllegalStateException("Expected " + config.getExpectedFindings() + " findings but found " + findings + ".");
+        }
+        return findings;
+    }
+}
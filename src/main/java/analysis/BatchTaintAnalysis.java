@@ -0,0 +1,254 @@
+package analysis;
+
+import analysis.budget.AnalysisBudget;
+import analysis.budget.SolveBudget;
+import analysis.fact.DataFlowFact;
+import analysis.fact.FactNumbering;
+import analysis.icfg.CallGraphCache;
+import analysis.icfg.CallGraphICFG;
+import analysis.icfg.CallGraphKind;
+import analysis.icfg.SnapshotICFG;
+import analysis.schedule.WorklistStrategy;
+import analysis.sparse.DefUseIndex;
+import analysis.sparse.SparseIFDSSolver;
+import analysis.stats.InstrumentedIFDSSolver;
+import analysis.stats.SolverStatistics;
+import analysis.summary.MethodSummaries;
+import heros.InterproceduralCFG;
+import sootup.callgraph.CallGraph;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Analyzes every servlet entry point of a {@link View}. All entry points share one view, one call graph and one set of
+ * flow functions; each entry point gets its own single-threaded IFDS solver, and the solvers run in parallel on a
+ * bounded worker pool. Findings of all solvers end up in the reporter of the flow functions, which is told when the
+ * analysis has completed and can cancel it early.
+ * <p>
+ * If the flow functions apply {@link MethodSummaries}, the analysis is incremental: entry points are summarized like
+ * callees, and only entry points whose reachable methods changed since the summaries were stored are solved again.
+ */
+public class BatchTaintAnalysis {
+
+    private final View view;
+
+    private final TaintAnalysisFlowFunctions flowFunctions;
+
+    private final int numWorkers;
+
+    private CallGraphCache callGraphs;
+
+    private CallGraphKind callGraphKind = CallGraphKind.CHA;
+
+    private boolean sparse;
+
+    private int entryPointBatchSize;
+
+    private final SolverFactory solvers = new SolverFactory();
+
+    public BatchTaintAnalysis(View view, TaintAnalysisFlowFunctions flowFunctions) {
+        this(view, flowFunctions, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchTaintAnalysis(View view, TaintAnalysisFlowFunctions flowFunctions, int numWorkers) {
+        this.view = view;
+        this.flowFunctions = flowFunctions;
+        this.numWorkers = numWorkers;
+        this.callGraphs = new CallGraphCache(view);
+        solvers.setCancellation(flowFunctions.getReporter()::isCancelled);
+    }
+
+    /**
+     * Selects the algorithm of the call graph the entry points are analyzed on; CHA by default.
+     */
+    public void setCallGraphKind(CallGraphKind callGraphKind) {
+        this.callGraphKind = callGraphKind;
+    }
+
+    /**
+     * Shares the call graphs of the given cache, e.g. with other analyses of the same view.
+     */
+    public void setCallGraphCache(CallGraphCache callGraphs) {
+        this.callGraphs = callGraphs;
+    }
+
+    /**
+     * Selects sparse propagation, which moves facts past statements that cannot change them; see
+     * {@link SparseIFDSSolver}.
+     */
+    public void setSparse(boolean sparse) {
+        this.sparse = sparse;
+    }
+
+    /**
+     * Solves the entry points in batches of the given size, each on its own ICFG over the shared call graph, so that
+     * only the method bodies of one batch are held at a time; see {@link analysis.view.BoundedJavaView}. By default,
+     * all entry points are solved at once.
+     */
+    public void setEntryPointBatchSize(int entryPointBatchSize) {
+        this.entryPointBatchSize = entryPointBatchSize;
+    }
+
+    /**
+     * Collects statistics of the solvers and their flow functions in the given statistics. In incremental mode, these
+     * are the solvers of the method summaries computed in this run; summaries loaded from the store are not counted.
+     */
+    public void setStatistics(SolverStatistics statistics) {
+        solvers.setStatistics(statistics);
+    }
+
+    /**
+     * Limits the solves by the given budget. Entry points whose solve hits a limit keep the findings found until then
+     * and are reported as incomplete to the reporter of the flow functions. The path edge limit applies to all solves
+     * of this analysis from now on. In incremental mode, it also limits the solves of method summaries, and summaries
+     * that hit a limit are not stored.
+     */
+    public void setBudget(AnalysisBudget budget) {
+        solvers.setBudget(budget);
+    }
+
+    /**
+     * Selects the order in which the solvers process their pending path edges. By default, they process them first
+     * in, first out, without the bookkeeping of a strategy.
+     */
+    public void setWorklistStrategy(WorklistStrategy worklistStrategy) {
+        solvers.setWorklistStrategy(worklistStrategy);
+    }
+
+    /**
+     * Returns all servlet entry points, i.e. the doGet and doPost methods with a body, of the classes in the view.
+     */
+    public static List<MethodSignature> discoverEntryPoints(View view) {
+        List<MethodSignature> entryPoints = new ArrayList<>();
+        for (SootClass sootClass : view.getClasses()) {
+            for (SootMethod method : sootClass.getMethods()) {
+                if (method.hasBody() && IFDSTaintAnalysisProblem.isEntryPoint(method)) {
+                    entryPoints.add(method.getSignature());
+                }
+            }
+        }
+        return entryPoints;
+    }
+
+    /**
+     * Analyzes all entry points discovered in the view.
+     */
+    public void solve() {
+        solve(discoverEntryPoints(view));
+    }
+
+    public void solve(List<MethodSignature> entryPoints) {
+        if (entryPoints.isEmpty()) {
+            flowFunctions.getReporter().complete();
+            return;
+        }
+        try {
+            CallGraph callGraph = callGraphs.get(callGraphKind, entryPoints);
+            int batchSize = entryPointBatchSize > 0 ? entryPointBatchSize : entryPoints.size();
+            for (int from = 0; from < entryPoints.size(); from += batchSize) {
+                List<MethodSignature> batch = entryPoints.subList(from, Math.min(from + batchSize, entryPoints.size()));
+                // A fresh ICFG per batch releases the method bodies the previous batch loaded.
+                solveBatch(batch, new CallGraphICFG(view, callGraph));
+            }
+        } finally {
+            complete();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the ICFG of the given entry points, so that later runs can solve on a {@link SnapshotICFG}
+     * instead of building the call graph again.
+     */
+    public void writeSnapshot(List<MethodSignature> entryPoints, Path file) {
+        CallGraphICFG icfg = new CallGraphICFG(view, callGraphs.get(callGraphKind, entryPoints));
+        SnapshotICFG.write(icfg, ReachableMethods.collect(icfg, view, entryPoints), entryPoints, file);
+    }
+
+    /**
+     * Analyzes the given entry points on an ICFG that covers all of them.
+     */
+    public void solve(List<MethodSignature> entryPoints, InterproceduralCFG<Stmt, SootMethod> icfg) {
+        try {
+            solveBatch(entryPoints, icfg);
+        } finally {
+            complete();
+        }
+    }
+
+    /**
+     * Stores the method summaries computed in this run, if any, and tells the reporter that the analysis completed.
+     */
+    private void complete() {
+        try {
+            if (flowFunctions.getSummaries() != null) {
+                flowFunctions.getSummaries().flush();
+            }
+        } finally {
+            flowFunctions.getReporter().complete();
+        }
+    }
+
+    private void solveBatch(List<MethodSignature> entryPoints, InterproceduralCFG<Stmt, SootMethod> icfg) {
+        flowFunctions.setICFG(icfg);
+        // The facts of a batch are numbered afresh, so those of earlier batches are released with their numbering.
+        flowFunctions.setFactNumbering(new FactNumbering());
+        if (flowFunctions.getSummaries() != null) {
+            flowFunctions.getSummaries().setSolverFactory(solvers);
+        }
+        DefUseIndex defUseIndex = sparse ? new DefUseIndex(icfg, flowFunctions) : null;
+        ExecutorService workers = Executors.newFixedThreadPool(numWorkers);
+        try {
+            List<Future<?>> solves = new ArrayList<>();
+            for (MethodSignature entryPoint : entryPoints) {
+                solves.add(workers.submit(() -> solveEntryPoint(entryPoint, icfg, defUseIndex)));
+            }
+            for (Future<?> solve : solves) {
+                solve.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the analysis.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Analysis of an entry point failed.", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void solveEntryPoint(MethodSignature entryPoint, InterproceduralCFG<Stmt, SootMethod> icfg, DefUseIndex defUseIndex) {
+        VulnerabilityReporter reporter = flowFunctions.getReporter();
+        if (reporter.isCancelled()) {
+            return;
+        }
+        MethodSummaries summaries = flowFunctions.getSummaries();
+        if (summaries != null) {
+            // Incremental mode: an entry point is summarized for the zero fact like any callee, so its findings are
+            // reused until it or a method reachable from it changes.
+            Optional<? extends SootMethod> method = view.getMethod(entryPoint);
+            if (method.isPresent() && method.get().hasBody()) {
+                summaries.replay(method.get(), DataFlowFact.getZeroInstance(), icfg, reporter);
+            }
+            return;
+        }
+        IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, flowFunctions, Collections.singletonList(entryPoint), view);
+        InstrumentedIFDSSolver solver = solvers.create(problem, defUseIndex);
+        solvers.solve(solver, entryPoint.toString());
+        SolveBudget solveBudget = solver.getBudget();
+        if (solveBudget != null && solveBudget.isExceeded()) {
+            reporter.reportIncomplete(entryPoint, solveBudget.getExceeded());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Objects;
+
+/**
+ * A tainted data flow into a sink. Two findings are equal if they have the same sink statement and source call, no
+ * matter which fact or calling context the leak was first discovered with.
+ */
+public final class Finding {
+
+    private final Stmt sink;
+    private final SootMethod method;
+    private final DataFlowFact fact;
+    private final Stmt source;
+
+    public Finding(Stmt sink, SootMethod method, DataFlowFact fact, Stmt source) {
+        this.sink = sink;
+        this.method = method;
+        this.fact = fact;
+        this.source = source;
+    }
+
+    public Stmt getSink() {
+        return sink;
+    }
+
+    /**
+     * Returns the method that contains the sink statement.
+     */
+    public SootMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the tainted fact that reached the sink.
+     */
+    public DataFlowFact getFact() {
+        return fact;
+    }
+
+    /**
+     * Returns the source call the tainted data originates from, or {@code null} if the analysis does not track the
+     * origin of its facts.
+     */
+    public Stmt getSource() {
+        return source;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(sink) + System.identityHashCode(source);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Finding))
+            return false;
+        Finding other = (Finding) obj;
+        return sink == other.sink && source == other.source;
+    }
+
+    @Override
+    public String toString() {
+        return "Method :" + method + ", Sink(line:" + sink.getPositionInfo().getStmtPosition().getFirstLine() + ") " + sink
+                + ", Fact: " + fact + (source == null ? "" : ", Source: " + source);
+    }
+}
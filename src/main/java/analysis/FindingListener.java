@@ -0,0 +1,19 @@
+package analysis;
+
+/**
+ * Receives the findings of a {@link VulnerabilityReporter} while the analysis is still running.
+ */
+public interface FindingListener {
+
+    /**
+     * Called once per distinct finding, on the solver thread that found it. Implementations must be thread-safe and
+     * should return quickly, since the solver waits for them.
+     */
+    void onFinding(Finding finding);
+
+    /**
+     * Called once the analysis has ended, after the last finding, also if it failed or was cancelled.
+     */
+    default void onComplete() {
+    }
+}
@@ -0,0 +1,93 @@
+package analysis;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The findings of a {@link VulnerabilityReporter} as a bounded stream, for consumers on threads of their own. The
+ * solvers add each distinct finding as soon as it is reported; while the buffer is full, they wait for the consumer,
+ * which bounds the findings in flight. The stream ends when the analysis completes, or when the consumer cancels it,
+ * which also cancels the analysis. Create one with {@link VulnerabilityReporter#stream}.
+ */
+public class FindingStream implements FindingListener {
+
+    /**
+     * How long a waiting solver or consumer sleeps before it checks again whether the stream has been cancelled.
+     */
+    private static final long WAIT_MILLIS = 10;
+
+    private final VulnerabilityReporter reporter;
+
+    private final BlockingQueue<Finding> buffer;
+
+    private volatile boolean completed;
+
+    private volatile boolean cancelled;
+
+    FindingStream(VulnerabilityReporter reporter, int capacity) {
+        this.reporter = reporter;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void onFinding(Finding finding) {
+        try {
+            while (!cancelled && !buffer.offer(finding, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // The consumer is behind; the solver waits for it.
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        completed = true;
+    }
+
+    /**
+     * Returns the next finding, waiting for it if necessary, or {@code null} if the stream has ended.
+     */
+    public Finding next() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the next finding, waiting up to the given time for it, or {@code null} if the stream has ended or the
+     * time has passed; see {@link #isEnded} to tell the two apart.
+     */
+    public Finding poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + Math.min(unit.toNanos(timeout), Long.MAX_VALUE / 2);
+        while (!cancelled) {
+            // Checked before polling: once completed, the buffer holds all findings there will be.
+            boolean last = completed;
+            long wait = Math.min(TimeUnit.MILLISECONDS.toNanos(WAIT_MILLIS), deadline - System.nanoTime());
+            Finding finding = buffer.poll(Math.max(wait, 0), TimeUnit.NANOSECONDS);
+            if (finding != null) {
+                return finding;
+            }
+            if (last || System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the stream will not return any more findings.
+     */
+    public boolean isEnded() {
+        return cancelled || completed && buffer.isEmpty();
+    }
+
+    /**
+     * Ends the stream and cancels the analysis; see {@link VulnerabilityReporter#cancel}. Findings that are still
+     * buffered are dropped.
+     */
+    public void cancel() {
+        cancelled = true;
+        reporter.cancel();
+        buffer.clear();
+    }
+}
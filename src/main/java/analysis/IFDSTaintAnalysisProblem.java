@@ -1,7 +1,11 @@
 package analysis;
 
 import analysis.fact.DataFlowFact;
+import analysis.jfr.FlightRecording;
+import analysis.stats.InstrumentedFlowFunctions;
+import analysis.stats.SolverStatistics;
 import com.google.common.collect.Maps;
+import heros.FlowFunctions;
 import heros.InterproceduralCFG;
 import sootup.analysis.interprocedural.ifds.DefaultJimpleIFDSTabulationProblem;
 import sootup.core.jimple.common.stmt.Stmt;
@@ -22,6 +26,10 @@ public class IFDSTaintAnalysisProblem extends DefaultJimpleIFDSTabulationProblem
 
     protected final View view;
 
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+
+    private SolverStatistics statistics;
+
     public IFDSTaintAnalysisProblem(InterproceduralCFG<Stmt, SootMethod> icfg, TaintAnalysisFlowFunctions flowFunctions, List<MethodSignature> entryPoints, View view) {
         super(icfg);
         this.flowFunctions = flowFunctions;
@@ -34,20 +42,55 @@ public class IFDSTaintAnalysisProblem extends DefaultJimpleIFDSTabulationProblem
         Map<Stmt, Set<DataFlowFact>> res = Maps.newHashMap();
 
         for (MethodSignature methodSignature : entryPoints) {
-            SootMethod m = view.getMethod(methodSignature).get();
+            SootMethod m = view.getMethod(methodSignature)
+                    .orElseThrow(() -> new IllegalArgumentException("The entry point " + methodSignature + " is not in the view."));
             if (!m.hasBody()) {
                 continue;
             }
-            if (m.getName().equals("doGet")) {
-                res.put(m.getBody().getStmtGraph().getStartingStmt(), Collections.singleton(zeroValue()));
+            if (isEntryPoint(m)) {
+                // Asked of the ICFG, which then knows the method; it only learns of methods as the solver reaches them.
+                for (Stmt start : interproceduralCFG().getStartPointsOf(m)) {
+                    res.put(start, Collections.singleton(zeroValue()));
+                }
             }
         }
         return res;
     }
 
+    /**
+     * Returns whether the analysis starts at the given method, i.e. whether it is a servlet request handler.
+     */
+    public static boolean isEntryPoint(SootMethod method) {
+        return method.getName().equals("doGet") || method.getName().equals("doPost");
+    }
+
+    /**
+     * Sets the number of threads the solver of this problem uses. Must be called before the solver is created.
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+    }
+
     @Override
-    protected TaintAnalysisFlowFunctions createFlowFunctionsFactory() {
-        return flowFunctions;
+    public int numThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Makes the flow functions of this problem count their applications in the given statistics. Must be called
+     * before the solver is created.
+     */
+    public void setStatistics(SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected FlowFunctions<Stmt, DataFlowFact, SootMethod> createFlowFunctionsFactory() {
+        FlowFunctions<Stmt, DataFlowFact, SootMethod> instrumented = flowFunctions;
+        if (statistics != null) {
+            instrumented = new InstrumentedFlowFunctions(instrumented, interproceduralCFG(), statistics);
+        }
+        return FlightRecording.wrap(instrumented, interproceduralCFG());
     }
 
     @Override
@@ -0,0 +1,66 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.fact.FactSet;
+import com.google.common.collect.ImmutableSet;
+import heros.FlowFunction;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoizes the results of a flow function by input fact, so that applying it to a fact it has seen before allocates
+ * nothing. The result is kept as the function returns it, typically a {@link FactSet}, which is frozen and then shared
+ * by all later applications; the solver only iterates over the sets it gets, so it takes them without copying. The
+ * memoized function must return a new or immutable set and must not have side effects such as reporting; flow
+ * functions apply those around it.
+ * <p>
+ * The memo is not bounded: it holds one result per input fact the function has seen. It lives as long as the flow
+ * function, i.e. until the flow functions of the run are dropped or reset for another ICFG.
+ */
+public final class MemoizingFlowFunction implements FlowFunction<DataFlowFact> {
+
+    private final FlowFunction<DataFlowFact> function;
+
+    private final Map<DataFlowFact, Set<DataFlowFact>> results = new ConcurrentHashMap<>();
+
+    public MemoizingFlowFunction(FlowFunction<DataFlowFact> function) {
+        this.function = function;
+    }
+
+    @Override
+    public Set<DataFlowFact> computeTargets(DataFlowFact fact) {
+        Set<DataFlowFact> out = results.get(fact);
+        if (out == null) {
+            out = function.computeTargets(fact);
+            if (out instanceof FactSet) {
+                ((FactSet) out).freeze();
+            }
+            Set<DataFlowFact> previous = results.putIfAbsent(fact, out);
+            if (previous != null) {
+                out = previous;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the flow function of an assignment {@code left = right} that kills the left side and copies a taint of
+     * the right side to it, from the same source. All its results are shared, so it allocates nothing once it has seen
+     * each source.
+     */
+    public static FlowFunction<DataFlowFact> assignment(DataFlowFact left, DataFlowFact right) {
+        final Set<DataFlowFact> generated = left == right ? left.asSet() : ImmutableSet.of(right, left);
+        final FlowFunction<DataFlowFact> generatedFromSource = new MemoizingFlowFunction(
+                fact -> ImmutableSet.of(fact, left.withSource(fact.getSource())));
+        return fact -> {
+            DataFlowFact taint = fact.withoutSource();
+            if (taint == right) {
+                return fact == right ? generated : generatedFromSource.computeTargets(fact);
+            }
+            return taint == left ? Collections.<DataFlowFact>emptySet() : fact.asSet();
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package analysis;
+
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Collects the methods with a body that are reachable from a set of entry points in an interprocedural CFG. Used by
+ * passes that must see every method the solver may visit, such as writing an ICFG snapshot.
+ */
+public final class ReachableMethods {
+
+    private ReachableMethods() {
+    }
+
+    public static Set<SootMethod> collect(InterproceduralCFG<Stmt, SootMethod> icfg, View view, Iterable<MethodSignature> entryPoints) {
+        Set<SootMethod> reachable = new LinkedHashSet<>();
+        Deque<SootMethod> worklist = new ArrayDeque<>();
+        for (MethodSignature entryPoint : entryPoints) {
+            Optional<? extends SootMethod> method = view.getMethod(entryPoint);
+            if (method.isPresent() && method.get().hasBody() && reachable.add(method.get())) {
+                worklist.add(method.get());
+            }
+        }
+        while (!worklist.isEmpty()) {
+            SootMethod method = worklist.poll();
+            for (Stmt callSite : icfg.getCallsFromWithin(method)) {
+                for (SootMethod callee : icfg.getCalleesOfCallAt(callSite)) {
+                    if (callee.hasBody() && reachable.add(callee)) {
+                        worklist.add(callee);
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+}
@@ -0,0 +1,29 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.stats.InstrumentedIFDSSolver;
+import heros.EdgeFunction;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+/**
+ * An IFDS solver that hands every propagated fact to a {@link ResultRecorder}.
+ */
+public class RecordingIFDSSolver extends InstrumentedIFDSSolver {
+
+    private final ResultRecorder recorder;
+
+    public RecordingIFDSSolver(IFDSTabulationProblem<Stmt, DataFlowFact, SootMethod, InterproceduralCFG<Stmt, SootMethod>> problem, ResultRecorder recorder) {
+        super(problem);
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected void propagate(DataFlowFact sourceFact, Stmt targetStmt, DataFlowFact targetFact,
+                             EdgeFunction<BinaryDomain> edgeFunc, Stmt relatedCallSite, boolean isUnbalancedReturn) {
+        recorder.record(targetStmt, targetFact);
+        super.propagate(sourceFact, targetStmt, targetFact, edgeFunc, relatedCallSite, isUnbalancedReturn);
+    }
+}
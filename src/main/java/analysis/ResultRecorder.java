@@ -0,0 +1,158 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.fact.FactNumbering;
+import analysis.fact.FactSet;
+import analysis.icfg.StmtNumbering;
+import sootup.core.jimple.common.stmt.Stmt;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records which data-flow facts the solver propagates to which statement. Statements are numbered densely and the
+ * facts of a statement are kept in a {@link FactSet} at its number, so recording is an array access and a bit test
+ * rather than two hash lookups. Recording does not take a global lock: solver threads only contend when they record
+ * at the same statement. The facts are numbered by a {@link FactNumbering} of the recorder, so they are released
+ * with it. A disabled recorder ignores all facts.
+ */
+public class ResultRecorder {
+
+    private final boolean enabled;
+
+    private final StmtNumbering stmts = new StmtNumbering();
+
+    private final FactNumbering numbering;
+
+    /**
+     * The facts by statement number. Sets are added and the array is grown by copying under the lock of this
+     * recorder; the atomic array publishes every set safely to threads that read it without that lock. Every set is
+     * only accessed under its own lock.
+     */
+    private volatile AtomicReferenceArray<FactSet> factsAtStmt = new AtomicReferenceArray<>(0);
+
+    /**
+     * Index from the Jimple string of a statement to the statements that print like it, built on first query.
+     */
+    private volatile Map<String, Set<Stmt>> stmtsByString;
+
+    public ResultRecorder() {
+        this(true);
+    }
+
+    public ResultRecorder(boolean enabled) {
+        this(enabled, new FactNumbering());
+    }
+
+    public ResultRecorder(boolean enabled, FactNumbering numbering) {
+        this.enabled = enabled;
+        this.numbering = numbering;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(Stmt stmt, DataFlowFact fact) {
+        if (!enabled) {
+            return;
+        }
+        FactSet facts = factsAt(stmts.idOf(stmt), true);
+        synchronized (facts) {
+            facts.add(fact);
+        }
+    }
+
+    private FactSet factsAt(int id, boolean create) {
+        AtomicReferenceArray<FactSet> sets = factsAtStmt;
+        FactSet facts = id >= 0 && id < sets.length() ? sets.get(id) : null;
+        if (facts != null || !create) {
+            return facts;
+        }
+        synchronized (this) {
+            sets = factsAtStmt;
+            if (id >= sets.length()) {
+                AtomicReferenceArray<FactSet> grown = new AtomicReferenceArray<>(Math.max(id + 1, 2 * sets.length()));
+                for (int i = 0; i < sets.length(); i++) {
+                    grown.set(i, sets.get(i));
+                }
+                sets = grown;
+                factsAtStmt = sets;
+            }
+            facts = sets.get(id);
+            if (facts == null) {
+                facts = new FactSet(numbering);
+                sets.set(id, facts);
+                stmtsByString = null;
+            }
+            return facts;
+        }
+    }
+
+    public Set<DataFlowFact> getFactsAt(Stmt stmt) {
+        FactSet facts = factsAt(stmts.find(stmt), false);
+        if (facts == null) {
+            return Collections.emptySet();
+        }
+        synchronized (facts) {
+            return Collections.unmodifiableSet(new FactSet(numbering, facts));
+        }
+    }
+
+    public boolean containsFactAt(Stmt stmt, DataFlowFact fact) {
+        FactSet facts = factsAt(stmts.find(stmt), false);
+        if (facts == null) {
+            return false;
+        }
+        synchronized (facts) {
+            return facts.contains(fact);
+        }
+    }
+
+    /**
+     * Returns whether a fact that prints as {@code fact} without its source was recorded at a statement that prints as
+     * {@code stmt}. Only the facts of the matching statements are rendered to strings.
+     */
+    public boolean containsFactAt(String stmt, String fact) {
+        Set<Stmt> stmts = indexByString().get(stmt);
+        if (stmts == null) {
+            return false;
+        }
+        for (Stmt candidate : stmts) {
+            for (DataFlowFact recorded : getFactsAt(candidate)) {
+                if (recorded.withoutSource().toString().equals(fact)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public Set<Stmt> getStmts() {
+        Set<Stmt> result = new LinkedHashSet<>();
+        AtomicReferenceArray<FactSet> sets = factsAtStmt;
+        for (int id = 0; id < sets.length(); id++) {
+            if (sets.get(id) != null) {
+                result.add(stmts.get(id));
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    private Map<String, Set<Stmt>> indexByString() {
+        Map<String, Set<Stmt>> index = stmtsByString;
+        if (index == null) {
+            index = new HashMap<>();
+            for (Stmt stmt : getStmts()) {
+                index.computeIfAbsent(stmt.toString(), k -> new HashSet<>()).add(stmt);
+            }
+            stmtsByString = index;
+        }
+        return index;
+    }
+}
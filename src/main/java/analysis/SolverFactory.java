@@ -0,0 +1,118 @@
+package analysis;
+
+import analysis.budget.AnalysisBudget;
+import analysis.fact.DataFlowFact;
+import analysis.jfr.FlightRecording;
+import analysis.schedule.WorklistStrategy;
+import analysis.sparse.DefUseIndex;
+import analysis.sparse.SparseIFDSSolver;
+import analysis.stats.InstrumentedIFDSSolver;
+import analysis.stats.SolverStatistics;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Creates the solvers of an analysis run with the run's statistics, budget, cancellation and worklist strategy, so that
+ * the solves of entry points and those of the {@link analysis.summary.MethodSummaries} they are replayed from count
+ * against the same limits, stop together and process their path edges in the same order. All solvers are
+ * single-threaded, since the run already solves one entry point per worker.
+ */
+public class SolverFactory {
+
+    private SolverStatistics statistics;
+
+    private AnalysisBudget budget;
+
+    private final AtomicLong pathEdges = new AtomicLong();
+
+    private BooleanSupplier cancelled = () -> false;
+
+    private WorklistStrategy worklistStrategy;
+
+    /**
+     * Collects statistics of the solvers and their flow functions in the given statistics.
+     */
+    public void setStatistics(SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Limits every solver by the given budget. The path edge limit applies to all solvers created from now on
+     * together.
+     */
+    public void setBudget(AnalysisBudget budget) {
+        this.budget = budget;
+        pathEdges.set(0);
+    }
+
+    /**
+     * Makes every solver stop early once the given condition holds, e.g. once the reporter of the run is cancelled.
+     */
+    public void setCancellation(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Returns whether the solvers have been cancelled; what they found may then be incomplete.
+     */
+    public boolean isCancelled() {
+        return cancelled.getAsBoolean();
+    }
+
+    /**
+     * Selects the order in which the solvers process their pending path edges; first in, first out without the
+     * bookkeeping of a strategy by default.
+     */
+    public void setWorklistStrategy(WorklistStrategy worklistStrategy) {
+        this.worklistStrategy = worklistStrategy;
+    }
+
+    /**
+     * Creates a solver for the given problem, a sparse one if a def-use index is given. The problem must not have been
+     * solved before.
+     */
+    public InstrumentedIFDSSolver create(IFDSTaintAnalysisProblem problem, DefUseIndex defUseIndex) {
+        problem.setNumThreads(1);
+        problem.setStatistics(statistics);
+        return configure(defUseIndex != null ? new SparseIFDSSolver(problem, defUseIndex) : new InstrumentedIFDSSolver(problem),
+                problem.interproceduralCFG());
+    }
+
+    /**
+     * Creates a solver for a problem other than the forward one, such as that of the backward analysis. The problem
+     * must solve on a single thread, and the applications of its flow functions are not counted. The problem must not
+     * have been solved before.
+     */
+    public InstrumentedIFDSSolver create(IFDSTabulationProblem<Stmt, DataFlowFact, SootMethod, InterproceduralCFG<Stmt, SootMethod>> problem) {
+        return configure(new InstrumentedIFDSSolver(problem), problem.interproceduralCFG());
+    }
+
+    private InstrumentedIFDSSolver configure(InstrumentedIFDSSolver solver, InterproceduralCFG<Stmt, SootMethod> icfg) {
+        solver.setStatistics(statistics);
+        solver.setCancellation(cancelled);
+        if (worklistStrategy != null) {
+            solver.setWorklistStrategy(worklistStrategy);
+        }
+        if (budget != null) {
+            solver.setBudget(budget.start(icfg, pathEdges));
+        }
+        return solver;
+    }
+
+    /**
+     * Runs the given solver, as a solve of the given name for the flight recorder.
+     */
+    public void solve(InstrumentedIFDSSolver solver, String name) {
+        LongConsumer solveEvent = FlightRecording.beginSolve(name);
+        solver.solve();
+        if (solveEvent != null) {
+            solveEvent.accept(solver.propagationCount);
+        }
+    }
+}
@@ -1,20 +1,203 @@
 package analysis;
 
 import analysis.fact.DataFlowFact;
+import analysis.fact.FactNumbering;
+import analysis.fact.FactSet;
+import analysis.spec.CallSiteClassifier;
+import analysis.summary.MethodSummaries;
+import analysis.spec.TaintSpecification;
+import analysis.trace.TraceLevel;
+import analysis.trace.Tracer;
+import analysis.transfer.CallEdgeDescriptor;
+import analysis.transfer.StmtDescriptor;
+import analysis.transfer.TransferDescriptors;
+import heros.FlowFunction;
 import heros.FlowFunctions;
 import heros.InterproceduralCFG;
+import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class of the taint analysis flow functions. Statements are compiled into {@link StmtDescriptor}s on first use,
+ * and the flow function built for a statement (or call edge) is memoized, so the solver gets the same
+ * {@link FlowFunction} instance every time it asks for it. Both are kept per ICFG; see {@link #setICFG}. Subclasses
+ * implement the {@code create...FlowFunction} methods.
+ */
 public abstract class TaintAnalysisFlowFunctions implements FlowFunctions<Stmt, DataFlowFact, SootMethod> {
     protected InterproceduralCFG<Stmt, SootMethod> icfg;
 
+    protected final VulnerabilityReporter reporter;
+
+    protected Tracer tracer = Tracer.disabled();
+
+    protected final CallSiteClassifier classifier;
+
+    protected final TransferDescriptors descriptors;
+
+    private final Map<Stmt, Map<Stmt, FlowFunction<DataFlowFact>>> normalFlowFunctions = new ConcurrentHashMap<>();
+    private final Map<Stmt, Map<SootMethod, FlowFunction<DataFlowFact>>> callFlowFunctions = new ConcurrentHashMap<>();
+    private final Map<Stmt, Map<Stmt, FlowFunction<DataFlowFact>>> callToReturnFlowFunctions = new ConcurrentHashMap<>();
+
+    private MethodSummaries summaries;
+
+    private FactNumbering factNumbering = new FactNumbering();
+
+    protected TaintAnalysisFlowFunctions(VulnerabilityReporter reporter) {
+        this(reporter, TaintSpecification.getDefault());
+    }
+
+    protected TaintAnalysisFlowFunctions(VulnerabilityReporter reporter, TaintSpecification specification) {
+        this.reporter = reporter;
+        this.classifier = new CallSiteClassifier(specification);
+        this.descriptors = new TransferDescriptors(classifier);
+    }
+
+    /**
+     * Applies the flow functions on the given ICFG from now on, e.g. that of the next batch of entry points. The flow
+     * functions, descriptors and call roles memoized for the statements of the previous ICFG are dropped, so that its
+     * method bodies can be collected.
+     */
     public void setICFG(InterproceduralCFG<Stmt, SootMethod> icfg) {
         this.icfg = icfg;
+        normalFlowFunctions.clear();
+        callFlowFunctions.clear();
+        callToReturnFlowFunctions.clear();
+        descriptors.clear();
+        classifier.clear();
+    }
+
+    /**
+     * Numbers the facts of the sets the flow functions build by the given numbering from now on, e.g. a fresh one for
+     * each solver run, so that the facts of earlier runs are released.
+     */
+    public void setFactNumbering(FactNumbering factNumbering) {
+        this.factNumbering = factNumbering;
+    }
+
+    public FactNumbering getFactNumbering() {
+        return factNumbering;
+    }
+
+    /**
+     * Returns an empty set for the outgoing facts of a flow function.
+     */
+    protected FactSet newFactSet() {
+        return new FactSet(factNumbering);
+    }
+
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Lets call flow functions apply method summaries instead of descending into callees. Must be called before the
+     * first flow function is requested.
+     */
+    public void setSummaries(MethodSummaries summaries) {
+        this.summaries = summaries;
+    }
+
+    /**
+     * Returns the method summaries the call flow functions apply, or {@code null} if they descend into callees.
+     */
+    public MethodSummaries getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * Returns a description of everything that decides what the flow functions find besides the program: their class
+     * and the taint specification. Subclasses with settings of their own, such as a limit, must add them.
+     */
+    public String getConfiguration() {
+        return getClass().getName() + "\n" + classifier.getSpecification().getContents();
+    }
+
+    public VulnerabilityReporter getReporter() {
+        return reporter;
+    }
+
+    /**
+     * Returns whether the normal flow function of the given statement may map the given fact to anything but itself.
+     * Sparse propagation moves facts past statements for which this is {@code false}. All flow functions in this
+     * project treat statements other than copies as the identity and only touch facts whose base or first field is
+     * the def or use of a copy; subclasses that do more must override this method.
+     */
+    public boolean mayAffect(Stmt stmt, DataFlowFact fact) {
+        StmtDescriptor descriptor = descriptors.of(stmt);
+        if (!descriptor.isCopy()) {
+            return false;
+        }
+        Local variable = fact.getVariable();
+        if (variable.equals(descriptor.getDefBase()) || variable.equals(descriptor.getUseBase())) {
+            return true;
+        }
+        FieldSignature field = fact.getFieldSignature();
+        return field != null && (field.equals(descriptor.getDefField()) || field.equals(descriptor.getUseField()));
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getNormalFlowFunction(Stmt curr, Stmt succ) {
+        Map<Stmt, FlowFunction<DataFlowFact>> bySucc = normalFlowFunctions.computeIfAbsent(curr, k -> new ConcurrentHashMap<>());
+        FlowFunction<DataFlowFact> flowFunction = bySucc.get(succ);
+        if (flowFunction == null) {
+            flowFunction = createNormalFlowFunction(descriptors.of(curr), succ);
+            bySucc.put(succ, flowFunction);
+        }
+        return flowFunction;
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callSite, SootMethod callee) {
+        Map<SootMethod, FlowFunction<DataFlowFact>> byCallee = callFlowFunctions.computeIfAbsent(callSite, k -> new ConcurrentHashMap<>());
+        FlowFunction<DataFlowFact> flowFunction = byCallee.get(callee);
+        if (flowFunction == null) {
+            flowFunction = createCallFlowFunction(descriptors.of(callSite), descriptors.of(callSite, callee), callee);
+            if (summaries != null) {
+                flowFunction = summaries.apply(flowFunction, callee, icfg, reporter, factNumbering);
+            }
+            byCallee.put(callee, flowFunction);
+        }
+        return flowFunction;
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+        Map<Stmt, FlowFunction<DataFlowFact>> byReturnSite = callToReturnFlowFunctions.computeIfAbsent(callSite, k -> new ConcurrentHashMap<>());
+        FlowFunction<DataFlowFact> flowFunction = byReturnSite.get(returnSite);
+        if (flowFunction == null) {
+            flowFunction = createCallToReturnFlowFunction(descriptors.of(callSite), returnSite);
+            byReturnSite.put(returnSite, flowFunction);
+        }
+        return flowFunction;
+    }
+
+    protected abstract FlowFunction<DataFlowFact> createNormalFlowFunction(StmtDescriptor curr, Stmt succ);
+
+    protected abstract FlowFunction<DataFlowFact> createCallFlowFunction(StmtDescriptor callSite, CallEdgeDescriptor callEdge, SootMethod callee);
+
+    protected abstract FlowFunction<DataFlowFact> createCallToReturnFlowFunction(StmtDescriptor callSite, Stmt returnSite);
+
+    /**
+     * Traces the application of a flow function at the given statement to the given fact.
+     */
+    protected void trace(Stmt stmt, DataFlowFact fact) {
+        if (tracer.isEnabled(TraceLevel.FLOW)) {
+            tracer.trace(TraceLevel.FLOW, icfg.getMethodOf(stmt), stmt, fact, null);
+        }
     }
 
-    protected void prettyPrint(Stmt stmt, DataFlowFact fact) {
-        // if(icfg.getMethodOf(stmt).toString().contains("doGet"))
-        System.out.println("Method :" + icfg.getMethodOf(stmt) + ", Stmt(line:" + stmt.getPositionInfo().getStmtPosition().getFirstLine() + ") " + stmt + ", Fact: " + fact);
+    /**
+     * Traces the outgoing facts of a flow function application.
+     */
+    protected void trace(Stmt stmt, DataFlowFact fact, Set<DataFlowFact> out) {
+        if (tracer.isEnabled(TraceLevel.DETAIL)) {
+            tracer.trace(TraceLevel.DETAIL, icfg.getMethodOf(stmt), stmt, fact, out);
+        }
     }
 }
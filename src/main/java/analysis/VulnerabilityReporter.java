@@ -1,14 +1,132 @@
 package analysis;
 
+import analysis.budget.BudgetKind;
+import analysis.fact.DataFlowFact;
+import analysis.jfr.FlightRecording;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the vulnerabilities found by the flow functions. The reporter is safe to use from all solver threads: the
+ * report count is a striped counter and findings are kept in a concurrent map, so reporting never takes a lock.
+ * A finding that is reached again, e.g. through another calling context, is counted but not recorded twice.
+ * <p>
+ * Findings can be consumed while the analysis runs, by a {@link FindingListener} or a bounded {@link FindingStream}.
+ * A consumer that has seen enough can {@link #cancel} the analysis; the solvers then stop early and the findings are
+ * incomplete.
+ */
 public class VulnerabilityReporter {
 
-    private int reporterVulnerabilities;
+    private final LongAdder reportedVulnerabilities = new LongAdder();
+
+    private final Map<Finding, Finding> findings = new ConcurrentHashMap<>();
+
+    private final Map<MethodSignature, Set<BudgetKind>> incomplete = new ConcurrentHashMap<>();
+
+    private final List<FindingListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean cancelled;
+
+    /**
+     * Passes every distinct finding reported from now on to the given listener, as soon as it is found, until the
+     * analysis is cancelled.
+     */
+    public void addListener(FindingListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns a stream of the distinct findings reported from now on that buffers up to the given number of them.
+     * While the buffer is full, the solver that reports the next finding waits for the consumer.
+     */
+    public FindingStream stream(int capacity) {
+        FindingStream stream = new FindingStream(this, capacity);
+        addListener(stream);
+        return stream;
+    }
+
+    /**
+     * Tells the listeners that the analysis has ended. Called by the analysis once all its solvers are done.
+     */
+    public void complete() {
+        for (FindingListener listener : listeners) {
+            listener.onComplete();
+        }
+    }
+
+    /**
+     * Asks the analysis to stop as soon as possible. Solvers that are running drop the path edges they have not
+     * processed yet, entry points that have not started are skipped, and the listeners are not told about findings
+     * reported from now on.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
 
-    public void reportVulnerability() {
-        reporterVulnerabilities++;
+    public void reportVulnerability(Stmt sink, SootMethod method, DataFlowFact fact, Stmt source) {
+        reportedVulnerabilities.increment();
+        Finding finding = new Finding(sink, method, fact, source);
+        if (findings.putIfAbsent(finding, finding) == null && !cancelled) {
+            for (FindingListener listener : listeners) {
+                listener.onFinding(finding);
+            }
+        }
+        FlightRecording.sinkHit(method, sink, fact, source);
     }
 
+    /**
+     * Returns how often a tainted fact reached a sink.
+     */
     public int getReportedVulnerabilities() {
-        return reporterVulnerabilities;
+        return reportedVulnerabilities.intValue();
+    }
+
+    /**
+     * Marks the findings of the given entry point as incomplete, because its solve hit the given limits.
+     */
+    public void reportIncomplete(MethodSignature entryPoint, Set<BudgetKind> exceeded) {
+        incomplete.merge(entryPoint, exceeded, (previous, more) -> {
+            Set<BudgetKind> all = EnumSet.copyOf(previous);
+            all.addAll(more);
+            return all;
+        });
+    }
+
+    /**
+     * Returns whether all entry points were solved completely, i.e. whether the findings are all there are. A
+     * cancelled analysis is never complete.
+     */
+    public boolean isComplete() {
+        return incomplete.isEmpty() && !cancelled;
+    }
+
+    /**
+     * Returns the entry points whose solves hit a limit, with the limits they hit.
+     */
+    public Map<MethodSignature, Set<BudgetKind>> getIncomplete() {
+        return Collections.unmodifiableMap(new HashMap<>(incomplete));
+    }
+
+    /**
+     * Returns a snapshot of the distinct findings reported so far.
+     */
+    public List<Finding> getFindings() {
+        return Collections.unmodifiableList(new ArrayList<>(findings.values()));
     }
 }
@@ -0,0 +1,179 @@
+package analysis.backward;
+
+import analysis.BatchTaintAnalysis;
+import analysis.ReachableMethods;
+import analysis.SolverFactory;
+import analysis.VulnerabilityReporter;
+import analysis.budget.AnalysisBudget;
+import analysis.budget.SolveBudget;
+import analysis.fact.DataFlowFact;
+import analysis.icfg.BackwardsICFG;
+import analysis.icfg.CallGraphCache;
+import analysis.icfg.CallGraphICFG;
+import analysis.icfg.CallGraphKind;
+import analysis.spec.CallRole;
+import analysis.spec.TaintSpecification;
+import analysis.stats.InstrumentedIFDSSolver;
+import analysis.transfer.StmtDescriptor;
+import heros.InterproceduralCFG;
+import sootup.analysis.interprocedural.icfg.BiDiInterproceduralCFG;
+import sootup.callgraph.CallGraph;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Demand-driven alternative to the forward {@link BatchTaintAnalysis}: instead of exploring everything reachable from
+ * the entry points, it starts at the sink calls reachable from them and searches backward for sources. Every sink is
+ * solved on its own, in parallel on a bounded worker pool, so the cost grows with the number of sinks and the code
+ * that flows into them rather than with the size of the program. Since each solve knows its sink, findings also
+ * record the source call the tainted data comes from.
+ */
+public class BackwardTaintAnalysis {
+
+    private final View view;
+
+    private final VulnerabilityReporter reporter;
+
+    private final TaintSpecification specification;
+
+    private final int numWorkers;
+
+    private CallGraphCache callGraphs;
+
+    private CallGraphKind callGraphKind = CallGraphKind.CHA;
+
+    private final SolverFactory solvers = new SolverFactory();
+
+    public BackwardTaintAnalysis(View view, VulnerabilityReporter reporter) {
+        this(view, reporter, TaintSpecification.getDefault(), Runtime.getRuntime().availableProcessors());
+    }
+
+    public BackwardTaintAnalysis(View view, VulnerabilityReporter reporter, TaintSpecification specification, int numWorkers) {
+        this.view = view;
+        this.reporter = reporter;
+        this.specification = specification;
+        this.numWorkers = numWorkers;
+        this.callGraphs = new CallGraphCache(view);
+        solvers.setCancellation(reporter::isCancelled);
+    }
+
+    /**
+     * Selects the algorithm of the call graph the entry points are analyzed on; CHA by default.
+     */
+    public void setCallGraphKind(CallGraphKind callGraphKind) {
+        this.callGraphKind = callGraphKind;
+    }
+
+    /**
+     * Shares the call graphs of the given cache, e.g. with other analyses of the same view.
+     */
+    public void setCallGraphCache(CallGraphCache callGraphs) {
+        this.callGraphs = callGraphs;
+    }
+
+    /**
+     * Limits the solves by the given budget. The methods of sinks whose solve hits a limit are reported as incomplete
+     * to the reporter. The path edge limit applies to all solves of this analysis from now on.
+     */
+    public void setBudget(AnalysisBudget budget) {
+        solvers.setBudget(budget);
+    }
+
+    /**
+     * Analyzes all sinks reachable from the entry points discovered in the view.
+     */
+    public void solve() {
+        solve(BatchTaintAnalysis.discoverEntryPoints(view));
+    }
+
+    public void solve(List<MethodSignature> entryPoints) {
+        if (entryPoints.isEmpty()) {
+            reporter.complete();
+            return;
+        }
+        try {
+            CallGraph callGraph = callGraphs.get(callGraphKind, entryPoints);
+            solveSinks(entryPoints, new CallGraphICFG(view, callGraph));
+        } finally {
+            reporter.complete();
+        }
+    }
+
+    /**
+     * Analyzes the sinks reachable from the given entry points on an ICFG that covers all of them.
+     */
+    public void solve(List<MethodSignature> entryPoints, BiDiInterproceduralCFG<Stmt, SootMethod> icfg) {
+        try {
+            solveSinks(entryPoints, icfg);
+        } finally {
+            reporter.complete();
+        }
+    }
+
+    private void solveSinks(List<MethodSignature> entryPoints, BiDiInterproceduralCFG<Stmt, SootMethod> icfg) {
+        BackwardsICFG backwardsICFG = new BackwardsICFG(icfg);
+        List<StmtDescriptor> sinks = findSinks(icfg, entryPoints);
+        ExecutorService workers = Executors.newFixedThreadPool(numWorkers);
+        try {
+            List<Future<?>> solves = new ArrayList<>();
+            for (StmtDescriptor sink : sinks) {
+                solves.add(workers.submit(() -> solveSink(sink, backwardsICFG)));
+            }
+            for (Future<?> solve : solves) {
+                solve.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the analysis.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Analysis of a sink failed.", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the sink calls with a local argument in the methods reachable from the given entry points.
+     */
+    public List<StmtDescriptor> findSinks(InterproceduralCFG<Stmt, SootMethod> icfg, List<MethodSignature> entryPoints) {
+        List<StmtDescriptor> sinks = new ArrayList<>();
+        for (SootMethod method : ReachableMethods.collect(icfg, view, entryPoints)) {
+            for (Stmt stmt : method.getBody().getStmts()) {
+                if (!stmt.containsInvokeExpr() || specification.roleOf(stmt) != CallRole.SINK) {
+                    continue;
+                }
+                StmtDescriptor sink = StmtDescriptor.compile(stmt, CallRole.SINK);
+                if (sink.getArgumentCount() > 0 && sink.getArgumentFact(0) != null) {
+                    sinks.add(sink);
+                }
+            }
+        }
+        return sinks;
+    }
+
+    private void solveSink(StmtDescriptor sink, BackwardsICFG backwardsICFG) {
+        if (reporter.isCancelled()) {
+            return;
+        }
+        DataFlowFact sinkFact = sink.getArgumentFact(0);
+        BackwardTaintFlowFunctions flowFunctions = new BackwardTaintFlowFunctions(reporter, specification, sink.getStmt(), sinkFact);
+        flowFunctions.setICFG(backwardsICFG);
+        BackwardTaintAnalysisProblem problem = new BackwardTaintAnalysisProblem(backwardsICFG, flowFunctions, sink.getStmt(), sinkFact);
+        InstrumentedIFDSSolver solver = solvers.create(problem);
+        SootMethod method = backwardsICFG.getMethodOf(sink.getStmt());
+        solvers.solve(solver, sink.getStmt() + " in " + method.getSignature());
+        SolveBudget solveBudget = solver.getBudget();
+        if (solveBudget != null && solveBudget.isExceeded()) {
+            reporter.reportIncomplete(method.getSignature(), solveBudget.getExceeded());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package analysis.backward;
+
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import sootup.analysis.interprocedural.ifds.DefaultJimpleIFDSTabulationProblem;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A backward IFDS problem seeded with the argument of one sink call. The demand leaves the method of the sink through
+ * all of its callers, since the sink is not reached from a particular calling context.
+ */
+public class BackwardTaintAnalysisProblem extends DefaultJimpleIFDSTabulationProblem<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>> {
+
+    private final BackwardTaintFlowFunctions flowFunctions;
+
+    private final Stmt sink;
+
+    private final DataFlowFact sinkFact;
+
+    public BackwardTaintAnalysisProblem(InterproceduralCFG<Stmt, SootMethod> backwardsICFG, BackwardTaintFlowFunctions flowFunctions, Stmt sink, DataFlowFact sinkFact) {
+        super(backwardsICFG);
+        this.flowFunctions = flowFunctions;
+        this.sink = sink;
+        this.sinkFact = sinkFact;
+    }
+
+    @Override
+    public Map<Stmt, Set<DataFlowFact>> initialSeeds() {
+        return Collections.singletonMap(sink, Collections.singleton(sinkFact));
+    }
+
+    /**
+     * Solves on a single thread, since the analysis already solves one sink per worker.
+     */
+    @Override
+    public int numThreads() {
+        return 1;
+    }
+
+    @Override
+    public boolean followReturnsPastSeeds() {
+        return true;
+    }
+
+    @Override
+    protected BackwardTaintFlowFunctions createFlowFunctionsFactory() {
+        return flowFunctions;
+    }
+
+    @Override
+    protected DataFlowFact createZeroValue() {
+        return DataFlowFact.getZeroInstance();
+    }
+
+    @Override
+    public boolean autoAddZero() {
+        return true;
+    }
+}
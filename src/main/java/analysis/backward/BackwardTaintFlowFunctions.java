@@ -0,0 +1,129 @@
+package analysis.backward;
+
+import analysis.MemoizingFlowFunction;
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.VulnerabilityReporter;
+import analysis.fact.DataFlowFact;
+import analysis.fact.FactSet;
+import analysis.spec.CallRole;
+import analysis.spec.TaintSpecification;
+import analysis.transfer.CallEdgeDescriptor;
+import analysis.transfer.StmtDescriptor;
+import heros.FlowFunction;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Flow functions that propagate the demand "this value reaches the sink" backward from one sink call, over a
+ * {@link analysis.icfg.BackwardsICFG}. Each flow function is the inverse of the field-sensitive forward flow function
+ * of Exercise 3: it maps a fact after a statement to the facts before it that the forward analysis would have turned
+ * into that fact. When the demand reaches the result of a source call, the flow from that source to the sink is
+ * reported.
+ */
+public class BackwardTaintFlowFunctions extends TaintAnalysisFlowFunctions {
+
+    private final Stmt sink;
+
+    private final DataFlowFact sinkFact;
+
+    /**
+     * @param sink     the sink call the demand starts at
+     * @param sinkFact the fact of the argument of the sink call
+     */
+    public BackwardTaintFlowFunctions(VulnerabilityReporter reporter, TaintSpecification specification, Stmt sink, DataFlowFact sinkFact) {
+        super(reporter, specification);
+        this.sink = sink;
+        this.sinkFact = sinkFact;
+    }
+
+    @Override
+    protected FlowFunction<DataFlowFact> createNormalFlowFunction(StmtDescriptor curr, Stmt succ) {
+        if (!curr.isCopy()) {
+            return DataFlowFact::asSet;
+        }
+        final DataFlowFact left = DataFlowFact.of(curr.getDefBase(), curr.getDefField());
+        final DataFlowFact right = DataFlowFact.of(curr.getUseBase(), curr.getUseField());
+        // The forward function kills the left side and generates it from the right side, so only the right side
+        // can have produced the left side.
+        return fact -> {
+            trace(curr.getStmt(), fact);
+            return fact == left ? right.asSet() : fact.asSet();
+        };
+    }
+
+    @Override
+    protected FlowFunction<DataFlowFact> createCallFlowFunction(StmtDescriptor callSite, CallEdgeDescriptor callEdge, SootMethod callee) {
+        // Forward, no fact returns from a callee, so the demand never enters one.
+        return fact -> Collections.emptySet();
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod callee, Stmt exitStmt, Stmt retSite) {
+        // Leaves the callee at its start and maps parameters back to the arguments they were passed from. The solver
+        // passes no call site when the demand leaves a method without callers, i.e. an entry point.
+        if (callSite == null) {
+            return fact -> Collections.emptySet();
+        }
+        final CallEdgeDescriptor callEdge = descriptors.of(callSite, callee);
+        final FlowFunction<DataFlowFact> targets = new MemoizingFlowFunction(fact -> {
+            Set<DataFlowFact> out = newFactSet();
+            for (int i = 0; i < callEdge.size(); i++) {
+                DataFlowFact parameter = callEdge.getParameterFact(i);
+                if (parameter != null && parameter == fact.getBaseFact()) {
+                    DataFlowFact argument = callEdge.getArgumentFact(i);
+                    out.add(DataFlowFact.of(argument.getVariable(), fact.getAccessPath()));
+                }
+            }
+            return out;
+        });
+        return fact -> {
+            trace(callSite, fact);
+            Set<DataFlowFact> out = targets.computeTargets(fact);
+            trace(callSite, fact, out);
+            return out;
+        };
+    }
+
+    @Override
+    protected FlowFunction<DataFlowFact> createCallToReturnFlowFunction(StmtDescriptor call, Stmt returnSite) {
+        final DataFlowFact result = call.getResultFact();
+        // Only the result of the call has other facts before it; they are the same every time.
+        final Set<DataFlowFact> generated;
+        if (result == null) {
+            generated = null;
+        } else if (call.getRole() == CallRole.APPEND_PROPAGATOR && call.getInvokeBaseFact() != null) {
+            FactSet out = newFactSet();
+            out.add(result);
+            if (call.getArgumentFact(0) != null) {
+                out.add(call.getArgumentFact(0));
+            }
+            out.add(call.getInvokeBaseFact());
+            generated = out.freeze();
+        } else if (call.getRole() == CallRole.TO_STRING_PROPAGATOR && call.getInvokeBaseFact() != null) {
+            FactSet out = newFactSet();
+            out.add(result);
+            out.add(call.getInvokeBaseFact());
+            generated = out.freeze();
+        } else {
+            generated = result.asSet();
+        }
+        return fact -> {
+            trace(call.getStmt(), fact);
+
+            // The forward function carries every fact over the call.
+            if (result == null || fact != result) {
+                return fact.asSet();
+            }
+
+            if (call.getRole() == CallRole.SOURCE) {
+                reporter.reportVulnerability(sink, icfg.getMethodOf(sink), sinkFact, call.getStmt());
+            }
+
+            trace(call.getStmt(), fact, generated);
+            return generated;
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package analysis.budget;
+
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits on the work of an analysis run, so that a pathological method cannot keep a solver busy for hours or exhaust
+ * the heap. All limits are off by default. A solver that hits a limit stops processing the path edges the limit
+ * applies to and finishes with what it has; see {@link SolveBudget}.
+ */
+public class AnalysisBudget {
+
+    private long solveTimeMillis = Long.MAX_VALUE;
+    private long maxPathEdges = Long.MAX_VALUE;
+    private int maxFactsPerMethod = Integer.MAX_VALUE;
+    private int maxFactsPerStmt = Integer.MAX_VALUE;
+
+    public long getSolveTimeMillis() {
+        return solveTimeMillis;
+    }
+
+    /**
+     * Sets the wall time the solve of one entry point may take. Once it is over, the solver processes no further path
+     * edges.
+     */
+    public AnalysisBudget setSolveTimeMillis(long solveTimeMillis) {
+        this.solveTimeMillis = solveTimeMillis;
+        return this;
+    }
+
+    public long getMaxPathEdges() {
+        return maxPathEdges;
+    }
+
+    /**
+     * Sets the number of path edges all solves of a run may process together. Once it is reached, no solver processes
+     * further path edges, and entry points solved after that yield nothing.
+     */
+    public AnalysisBudget setMaxPathEdges(long maxPathEdges) {
+        this.maxPathEdges = maxPathEdges;
+        return this;
+    }
+
+    public int getMaxFactsPerMethod() {
+        return maxFactsPerMethod;
+    }
+
+    /**
+     * Sets the number of distinct facts that may hold at the statements of one method within one solve. Facts beyond
+     * it are not propagated within that method, while the facts it already has still are.
+     */
+    public AnalysisBudget setMaxFactsPerMethod(int maxFactsPerMethod) {
+        this.maxFactsPerMethod = maxFactsPerMethod;
+        return this;
+    }
+
+    public int getMaxFactsPerStmt() {
+        return maxFactsPerStmt;
+    }
+
+    /**
+     * Sets the number of distinct facts that may hold at one statement within one solve.
+     */
+    public AnalysisBudget setMaxFactsPerStmt(int maxFactsPerStmt) {
+        this.maxFactsPerStmt = maxFactsPerStmt;
+        return this;
+    }
+
+    /**
+     * Starts the budget of one solve, which shares the given path edge count with the other solves of the run.
+     */
+    public SolveBudget start(InterproceduralCFG<Stmt, SootMethod> icfg, AtomicLong pathEdges) {
+        return new SolveBudget(this, icfg, pathEdges);
+    }
+}
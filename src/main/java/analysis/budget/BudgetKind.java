@@ -0,0 +1,23 @@
+package analysis.budget;
+
+/**
+ * The limits of an {@link AnalysisBudget}.
+ */
+public enum BudgetKind {
+    /**
+     * The wall time of the solve of one entry point.
+     */
+    SOLVE_TIME,
+    /**
+     * The path edges of all solves of a run.
+     */
+    PATH_EDGES,
+    /**
+     * The distinct facts at the statements of one method.
+     */
+    FACTS_PER_METHOD,
+    /**
+     * The distinct facts at one statement.
+     */
+    FACTS_PER_STMT
+}
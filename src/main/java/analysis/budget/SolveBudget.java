@@ -0,0 +1,119 @@
+package analysis.budget;
+
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The budget of one solve. The solver asks it to {@link #admit} every new path edge before processing it; an edge
+ * that would exceed a limit is dropped and the limit is recorded as exceeded. Since the solver only runs out of work
+ * faster, it finishes normally and the findings reported so far stay valid, but the solve is incomplete.
+ */
+public class SolveBudget {
+
+    /**
+     * The distinct facts at a statement, and those of its method.
+     */
+    private static final class StmtFacts {
+
+        final Set<DataFlowFact> facts = ConcurrentHashMap.newKeySet();
+
+        final Set<DataFlowFact> methodFacts;
+
+        StmtFacts(Set<DataFlowFact> methodFacts) {
+            this.methodFacts = methodFacts;
+        }
+    }
+
+    private final AnalysisBudget budget;
+
+    private final InterproceduralCFG<Stmt, SootMethod> icfg;
+
+    private final AtomicLong pathEdges;
+
+    private final long deadline;
+
+    private final boolean countsFacts;
+
+    private final Map<Stmt, StmtFacts> factsByStmt = new ConcurrentHashMap<>();
+
+    private final Map<SootMethod, Set<DataFlowFact>> factsByMethod = new ConcurrentHashMap<>();
+
+    private final Set<BudgetKind> exceeded = Collections.synchronizedSet(EnumSet.noneOf(BudgetKind.class));
+
+    SolveBudget(AnalysisBudget budget, InterproceduralCFG<Stmt, SootMethod> icfg, AtomicLong pathEdges) {
+        this.budget = budget;
+        this.icfg = icfg;
+        this.pathEdges = pathEdges;
+        long now = System.nanoTime();
+        long solveTimeNanos = budget.getSolveTimeMillis() >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE
+                : budget.getSolveTimeMillis() * 1_000_000;
+        this.deadline = solveTimeNanos >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + solveTimeNanos;
+        this.countsFacts = budget.getMaxFactsPerMethod() < Integer.MAX_VALUE || budget.getMaxFactsPerStmt() < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns whether the solver may process a new path edge to the given fact at the given statement, and counts it
+     * if so.
+     */
+    public boolean admit(Stmt target, DataFlowFact fact) {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() > deadline) {
+            return exceed(BudgetKind.SOLVE_TIME);
+        }
+        if (countsFacts && !admitFact(target, fact)) {
+            return false;
+        }
+        if (pathEdges.incrementAndGet() > budget.getMaxPathEdges()) {
+            return exceed(BudgetKind.PATH_EDGES);
+        }
+        return true;
+    }
+
+    private boolean admitFact(Stmt target, DataFlowFact fact) {
+        StmtFacts stmtFacts = factsByStmt.get(target);
+        if (stmtFacts == null) {
+            Set<DataFlowFact> methodFacts = factsByMethod.computeIfAbsent(icfg.getMethodOf(target), method -> ConcurrentHashMap.newKeySet());
+            stmtFacts = factsByStmt.computeIfAbsent(target, stmt -> new StmtFacts(methodFacts));
+        }
+        if (stmtFacts.facts.contains(fact)) {
+            return true;
+        }
+        if (stmtFacts.facts.size() >= budget.getMaxFactsPerStmt()) {
+            return exceed(BudgetKind.FACTS_PER_STMT);
+        }
+        if (!stmtFacts.methodFacts.contains(fact) && stmtFacts.methodFacts.size() >= budget.getMaxFactsPerMethod()) {
+            return exceed(BudgetKind.FACTS_PER_METHOD);
+        }
+        stmtFacts.facts.add(fact);
+        stmtFacts.methodFacts.add(fact);
+        return true;
+    }
+
+    private boolean exceed(BudgetKind kind) {
+        exceeded.add(kind);
+        return false;
+    }
+
+    public boolean isExceeded() {
+        return !exceeded.isEmpty();
+    }
+
+    /**
+     * Returns the limits the solve hit.
+     */
+    public Set<BudgetKind> getExceeded() {
+        Set<BudgetKind> copy = EnumSet.noneOf(BudgetKind.class);
+        synchronized (exceeded) {
+            copy.addAll(exceeded);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,311 @@
+package analysis.cli;
+
+import analysis.BatchTaintAnalysis;
+import analysis.FindingListener;
+import analysis.IFDSTaintAnalysisProblem;
+import analysis.VulnerabilityReporter;
+import analysis.budget.AnalysisBudget;
+import analysis.exercise.AccessPathFlowFunctions;
+import analysis.icfg.CallGraphKind;
+import analysis.report.FindingWriter;
+import analysis.report.JsonLinesFindingWriter;
+import analysis.report.SarifFindingWriter;
+import analysis.schedule.WorklistStrategy;
+import analysis.spec.TaintSpecification;
+import analysis.stats.SolverStatistics;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.views.JavaView;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the access-path taint analysis on a class path from the command line and streams the findings as SARIF or as
+ * JSON lines while the entry points are still being solved. The exit code makes it usable as a pre-commit gate:
+ * {@value #NO_FINDINGS} if there are no findings, {@value #FINDINGS} if there are, {@value #INCOMPLETE} if there are
+ * none but a budget cut the analysis short, and {@value #USAGE_ERROR} if the arguments are wrong.
+ * <p>
+ * The shaded jar ({@code mvn package}, classifier {@code cli}) can be started with an AppCDS archive to skip most of
+ * the class loading of SootUp: run it once with {@code -XX:ArchiveClassesAtExit=taint.jsa} and from then on with
+ * {@code -XX:SharedArchiveFile=taint.jsa}.
+ */
+public class TaintAnalysisCli {
+
+    public static final int NO_FINDINGS = 0;
+
+    public static final int FINDINGS = 1;
+
+    public static final int USAGE_ERROR = 2;
+
+    public static final int INCOMPLETE = 3;
+
+    private static final String USAGE = "Usage: java -jar <analysis-cli.jar> --classpath <jars and directories> [options]\n"
+            + "  --classpath <path>        the classes to analyze, separated by '" + File.pathSeparator + "'\n"
+            + "  --spec <file>             the taint specification, one '<ROLE> <signature>' per line; the built-in one by default\n"
+            + "  --entry-point <signature> an entry point to analyze, may be repeated; all servlet entry points by default\n"
+            + "  --threads <n>             the entry points solved in parallel; the number of cores by default\n"
+            + "  --call-graph <kind>       CHA, RTA or TYPE_PROPAGATION; CHA by default\n"
+            + "  --worklist <strategy>     FIFO, LIFO, REVERSE_POSTORDER or METHOD_BATCHED; FIFO by default\n"
+            + "  --k <n>                   the maximum access path length; " + AccessPathFlowFunctions.DEFAULT_K + " by default\n"
+            + "  --solve-time <millis>     the time budget of each entry point\n"
+            + "  --max-path-edges <n>      the path edge budget of the whole analysis\n"
+            + "  --max-findings <n>        stop the analysis after this many findings\n"
+            + "  --format <sarif|jsonl>    the output format; sarif by default\n"
+            + "  --output <file>           the file to write the findings to; standard output by default\n"
+            + "  --statistics <file>       the file to write solver statistics to as JSON\n";
+
+    /**
+     * The parsed command line.
+     */
+    static final class Options {
+
+        String classPath;
+
+        String spec;
+
+        final List<MethodSignature> entryPoints = new ArrayList<>();
+
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        CallGraphKind callGraphKind = CallGraphKind.CHA;
+
+        WorklistStrategy worklistStrategy;
+
+        int k = AccessPathFlowFunctions.DEFAULT_K;
+
+        AnalysisBudget budget;
+
+        int maxFindings = Integer.MAX_VALUE;
+
+        boolean sarif = true;
+
+        String output;
+
+        String statistics;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--help") || option.equals("-h")) {
+                    return null;
+                }
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value of " + option + ".");
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--classpath":
+                    case "-cp":
+                        options.classPath = value;
+                        break;
+                    case "--spec":
+                        options.spec = value;
+                        break;
+                    case "--entry-point":
+                        options.entryPoints.add(methodSignature(option, value));
+                        break;
+                    case "--threads":
+                        options.threads = positive(option, value);
+                        break;
+                    case "--call-graph":
+                        options.callGraphKind = CallGraphKind.valueOf(value.toUpperCase());
+                        break;
+                    case "--worklist":
+                        options.worklistStrategy = WorklistStrategy.valueOf(value.toUpperCase());
+                        break;
+                    case "--k":
+                        options.k = positive(option, value);
+                        break;
+                    case "--solve-time":
+                        options.budget().setSolveTimeMillis(positiveLong(option, value));
+                        break;
+                    case "--max-path-edges":
+                        options.budget().setMaxPathEdges(positiveLong(option, value));
+                        break;
+                    case "--max-findings":
+                        options.maxFindings = positive(option, value);
+                        break;
+                    case "--format":
+                        if (!value.equals("sarif") && !value.equals("jsonl")) {
+                            throw new IllegalArgumentException("Unknown format '" + value + "'.");
+                        }
+                        options.sarif = value.equals("sarif");
+                        break;
+                    case "--output":
+                        options.output = value;
+                        break;
+                    case "--statistics":
+                        options.statistics = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option + ".");
+                }
+            }
+            if (options.classPath == null) {
+                throw new IllegalArgumentException("Missing --classpath.");
+            }
+            return options;
+        }
+
+        private AnalysisBudget budget() {
+            if (budget == null) {
+                budget = new AnalysisBudget();
+            }
+            return budget;
+        }
+
+        private static int positive(String option, String value) {
+            long number = positiveLong(option, value);
+            if (number > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The value of " + option + " must be at most " + Integer.MAX_VALUE + ", not '" + value + "'.");
+            }
+            return (int) number;
+        }
+
+        private static long positiveLong(String option, String value) {
+            long number;
+            try {
+                number = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                number = 0;
+            }
+            if (number <= 0) {
+                throw new IllegalArgumentException("The value of " + option + " must be a positive number, not '" + value + "'.");
+            }
+            return number;
+        }
+
+        private static MethodSignature methodSignature(String option, String value) {
+            try {
+                return JavaIdentifierFactory.getInstance().parseMethodSignature(value);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("The value of " + option + " must be a method signature like "
+                        + "'<pkg.Class: void doGet(pkg.Request)>', not '" + value + "'.", e);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the analysis as {@link #main} does, but writes to the given streams and returns the exit code.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        TaintSpecification spec;
+        try {
+            options = Options.parse(args);
+            if (options == null) {
+                out.print(USAGE);
+                return NO_FINDINGS;
+            }
+            spec = options.spec != null ? TaintSpecification.load(Paths.get(options.spec)) : TaintSpecification.getDefault();
+        } catch (IllegalArgumentException | IOException e) {
+            err.println(e.getMessage());
+            err.print(USAGE);
+            return USAGE_ERROR;
+        }
+
+        JavaView view;
+        try {
+            view = new JavaView(new JavaClassPathAnalysisInputLocation(options.classPath));
+            for (MethodSignature entryPoint : options.entryPoints) {
+                checkEntryPoint(view, entryPoint);
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.print(USAGE);
+            return USAGE_ERROR;
+        }
+        List<MethodSignature> entryPoints = options.entryPoints.isEmpty() ? BatchTaintAnalysis.discoverEntryPoints(view) : options.entryPoints;
+
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        try (FindingWriter writer = open(options, out)) {
+            reporter.addListener(options.maxFindings < Integer.MAX_VALUE ? limit(writer, options.maxFindings, reporter) : writer);
+            BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, new AccessPathFlowFunctions(reporter, spec, options.k), options.threads);
+            analysis.setCallGraphKind(options.callGraphKind);
+            analysis.setWorklistStrategy(options.worklistStrategy);
+            SolverStatistics statistics = options.statistics != null ? new SolverStatistics() : null;
+            analysis.setStatistics(statistics);
+            if (options.budget != null) {
+                analysis.setBudget(options.budget);
+            }
+            analysis.solve(entryPoints);
+            writer.finish(reporter.getIncomplete());
+            if (statistics != null) {
+                statistics.writeJson(Paths.get(options.statistics));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the findings.", e);
+        }
+        if (!reporter.getFindings().isEmpty()) {
+            return FINDINGS;
+        }
+        return reporter.isComplete() ? NO_FINDINGS : INCOMPLETE;
+    }
+
+    /**
+     * Throws an {@link IllegalArgumentException} unless the given signature names a method of the view with a body that
+     * the analysis starts at, since the analysis would otherwise fail on it or silently skip it.
+     */
+    private static void checkEntryPoint(JavaView view, MethodSignature entryPoint) {
+        Optional<JavaSootMethod> method = view.getMethod(entryPoint);
+        if (!method.isPresent()) {
+            throw new IllegalArgumentException("The entry point " + entryPoint + " is not on the class path.");
+        }
+        if (!method.get().hasBody() || !IFDSTaintAnalysisProblem.isEntryPoint(method.get())) {
+            throw new IllegalArgumentException("The entry point " + entryPoint + " is not a doGet or doPost method with a body.");
+        }
+    }
+
+    /**
+     * Returns a listener that passes the first given number of findings on and then cancels the analysis. Solvers
+     * that are still running may report a few more findings before they notice.
+     */
+    private static FindingListener limit(FindingListener listener, int maxFindings, VulnerabilityReporter reporter) {
+        AtomicInteger findings = new AtomicInteger();
+        return finding -> {
+            int count = findings.incrementAndGet();
+            if (count <= maxFindings) {
+                listener.onFinding(finding);
+            }
+            if (count == maxFindings) {
+                reporter.cancel();
+            }
+        };
+    }
+
+    private static FindingWriter open(Options options, PrintStream out) throws IOException {
+        Writer writer;
+        if (options.output != null) {
+            writer = Files.newBufferedWriter(Paths.get(options.output), StandardCharsets.UTF_8);
+        } else {
+            // Standard output stays open; only the writer around it is closed.
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        return options.sarif ? new SarifFindingWriter(writer) : new JsonLinesFindingWriter(writer);
+    }
+}
@@ -0,0 +1,154 @@
+package analysis.exercise;
+
+import analysis.MemoizingFlowFunction;
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.VulnerabilityReporter;
+import analysis.fact.AccessPath;
+import analysis.fact.DataFlowFact;
+import analysis.spec.CallRole;
+import analysis.spec.TaintSpecification;
+import analysis.transfer.CallEdgeDescriptor;
+import analysis.transfer.StmtDescriptor;
+import heros.FlowFunction;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The field-sensitive analysis of Exercise 3 generalized from one field to access paths of up to k fields, so that a
+ * taint stored in {@code a.b.c} is tracked through every copy of {@code a} and {@code a.b}. Paths longer than k are
+ * truncated, which over-approximates but keeps the fact domain finite.
+ */
+public class AccessPathFlowFunctions extends TaintAnalysisFlowFunctions {
+
+    public static final int DEFAULT_K = 3;
+
+    private final int k;
+
+    public AccessPathFlowFunctions(VulnerabilityReporter reporter) {
+        this(reporter, DEFAULT_K);
+    }
+
+    public AccessPathFlowFunctions(VulnerabilityReporter reporter, int k) {
+        this(reporter, TaintSpecification.getDefault(), k);
+    }
+
+    public AccessPathFlowFunctions(VulnerabilityReporter reporter, TaintSpecification specification, int k) {
+        super(reporter, specification);
+        if (k < 1) {
+            throw new IllegalArgumentException("The access path limit must be at least 1, but was " + k + ".");
+        }
+        this.k = k;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return super.getConfiguration() + "k " + k + "\n";
+    }
+
+    @Override
+    protected FlowFunction<DataFlowFact> createCallFlowFunction(StmtDescriptor callSite, CallEdgeDescriptor callEdge, SootMethod callee) {
+        final FlowFunction<DataFlowFact> targets = new MemoizingFlowFunction(fact -> {
+            Set<DataFlowFact> out = newFactSet();
+            // The parameter receives the whole access path of the argument.
+            for (int i = 0; i < callEdge.size(); i++) {
+                if (callEdge.passes(i, fact)) {
+                    out.add(fact.derive(callEdge.getParameterFact(i).getVariable(), fact.getAccessPath()));
+                }
+            }
+            return out;
+        });
+        return fact -> {
+            trace(callSite.getStmt(), fact);
+
+            Set<DataFlowFact> out = targets.computeTargets(fact);
+
+            trace(callSite.getStmt(), fact, out);
+            return out;
+        };
+    }
+
+    @Override
+    protected FlowFunction<DataFlowFact> createCallToReturnFlowFunction(final StmtDescriptor call, Stmt returnSite) {
+        final FlowFunction<DataFlowFact> targets = new MemoizingFlowFunction(fact -> {
+            // Always carry over facts.
+            Set<DataFlowFact> out = newFactSet();
+            out.add(fact);
+
+            if (call.getRole() == CallRole.SOURCE && call.getResultFact() != null) {
+                out.add(call.getResultFact().withSource(call.getStmt()));
+            }
+
+            Exercise3FlowFunctions.handleCallSite(fact, out, call);
+            if (call.getRole() == CallRole.TO_STRING_PROPAGATOR && call.getResultFact() != null
+                    && fact.getBaseFact() == call.getInvokeBaseFact()) {
+                out.add(call.getResultFact().withSource(fact.getSource()));
+            }
+            return out;
+        });
+        return fact -> {
+            trace(call.getStmt(), fact);
+
+            Set<DataFlowFact> out = targets.computeTargets(fact);
+
+            if (call.getRole() == CallRole.SINK && fact.getBaseFact() == call.getArgumentFact(0)) {
+                reporter.reportVulnerability(call.getStmt(), icfg.getMethodOf(call.getStmt()), fact, fact.getSource());
+            }
+
+            trace(call.getStmt(), fact, out);
+            return out;
+        };
+    }
+
+    @Override
+    protected FlowFunction<DataFlowFact> createNormalFlowFunction(final StmtDescriptor curr, Stmt succ) {
+        if (!curr.isCopy()) {
+            return fact -> {
+                trace(curr.getStmt(), fact);
+                return fact.asSet();
+            };
+        }
+        final Local defBase = curr.getDefBase();
+        final FieldSignature defField = curr.getDefField();
+        final DataFlowFact useBase = DataFlowFact.of(curr.getUseBase());
+        final FieldSignature useField = curr.getUseField();
+        final FlowFunction<DataFlowFact> targets = new MemoizingFlowFunction(fact -> {
+            Set<DataFlowFact> out = newFactSet();
+            AccessPath path = fact.getAccessPath();
+
+            // The assignment overwrites the left side and everything reachable through it.
+            boolean overwritten = fact.getVariable().equals(defBase) && (defField == null || path.startsWith(defField));
+            if (!overwritten) {
+                out.add(fact);
+            }
+
+            // If the fact reaches through the right side, the left side now reaches the rest of its path.
+            if (fact.getBaseFact() == useBase && (useField == null || path.startsWith(useField))) {
+                AccessPath rest = useField == null ? path : path.dropFirst();
+                out.add(fact.derive(defBase, defField == null ? rest.limit(k) : rest.prepend(defField, k)));
+            }
+            return out;
+        });
+        return fact -> {
+            trace(curr.getStmt(), fact);
+
+            Set<DataFlowFact> out = targets.computeTargets(fact);
+
+            trace(curr.getStmt(), fact, out);
+            return out;
+        };
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod callee, Stmt exitStmt,
+            Stmt retSite) {
+        return fact -> {
+            trace(callSite, fact);
+            return Collections.emptySet();
+        };
+    }
+}
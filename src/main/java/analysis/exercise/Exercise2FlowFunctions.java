@@ -1,178 +1,142 @@
 package analysis.exercise;
 
+import analysis.MemoizingFlowFunction;
 import analysis.TaintAnalysisFlowFunctions;
 import analysis.VulnerabilityReporter;
 import analysis.fact.DataFlowFact;
-import com.google.common.collect.Sets;
+import analysis.spec.CallRole;
+import analysis.spec.TaintSpecification;
+import analysis.transfer.CallEdgeDescriptor;
+import analysis.transfer.StmtDescriptor;
 import heros.FlowFunction;
-import sootup.core.jimple.basic.Immediate;
-import sootup.core.jimple.basic.LValue;
 import sootup.core.jimple.basic.Local;
-import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
-import sootup.core.jimple.common.expr.AbstractInvokeExpr;
-import sootup.core.jimple.common.ref.JInstanceFieldRef;
-import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
 
 public class Exercise2FlowFunctions extends TaintAnalysisFlowFunctions {
 
-    private final VulnerabilityReporter reporter;
-
     public Exercise2FlowFunctions(VulnerabilityReporter reporter) {
-        this.reporter = reporter;
+        super(reporter);
     }
 
-    @Override
-    public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callSite, SootMethod callee) {
-        return fact -> {
-            prettyPrint(callSite, fact);
+    public Exercise2FlowFunctions(VulnerabilityReporter reporter, TaintSpecification specification) {
+        super(reporter, specification);
+    }
 
-            // Always carry over facts.
-            Set<DataFlowFact> out = Sets.newHashSet();
+    @Override
+    protected FlowFunction<DataFlowFact> createCallFlowFunction(StmtDescriptor callSite, CallEdgeDescriptor callEdge, SootMethod callee) {
+        final FlowFunction<DataFlowFact> targets = new MemoizingFlowFunction(fact -> {
+            Set<DataFlowFact> out = newFactSet();
             out.add(fact);
 
-            if (callSite.containsInvokeExpr()) {
-                AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
-
-                // Find all arguments in the invoke expression that are equal to the fact.
-                List<Integer> taintedArgumentIndicies = new ArrayList<Integer>();
-                for (int i = 0; i < invokeExpr.getArgCount(); i++) {
-                    Immediate localOrConstant = invokeExpr.getArg(i);
-
-                    // We only care about locals.
-                    if (!(localOrConstant instanceof Local))
-                        continue;
-
-                    // If it's tainted, we mark the index.
-                    Local local = (Local) localOrConstant;
-                    if (fact.getVariable().equals(local))
-                        taintedArgumentIndicies.add(i);
-                }
-
-                for (int i : taintedArgumentIndicies) {
-                    out.add(new DataFlowFact(callee.getBody().getParameterLocal(i)));
+            // Find all arguments in the invoke expression that are equal to the fact.
+            for (int i = 0; i < callEdge.size(); i++) {
+                if (callEdge.passes(i, fact)) {
+                    out.add(callEdge.getParameterFact(i).withSource(fact.getSource()));
                 }
             }
 
-            System.out.println(out);
+            return out;
+        });
+        return fact -> {
+            trace(callSite.getStmt(), fact);
+
+            Set<DataFlowFact> out = targets.computeTargets(fact);
+
+            trace(callSite.getStmt(), fact, out);
             return out;
         };
     }
 
-    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(final Stmt callSiteStmt, Stmt returnSite) {
-        return fact -> {
-            prettyPrint(callSiteStmt, fact);
-
+    @Override
+    protected FlowFunction<DataFlowFact> createCallToReturnFlowFunction(final StmtDescriptor callSite, Stmt returnSite) {
+        final FlowFunction<DataFlowFact> targets = new MemoizingFlowFunction(fact -> {
             // Our set of dataflow facts.
             // Always carry over facts.
-            Set<DataFlowFact> out = Sets.newHashSet();
+            Set<DataFlowFact> out = newFactSet();
             out.add(fact);
 
             // Here we want to cover the case of calling *getParameter*. In this case, the
             // caller context should add the variable on the left.
-            if (callSiteStmt.toString().contains("getParameter")) {
+            if (callSite.getRole() == CallRole.SOURCE) {
                 // First check that there is an LValue.
-                if (callSiteStmt.getDef().isPresent()) {
-                    Local leftVar = (Local) callSiteStmt.getDef().get();
-                    System.out.println("VARIABLE " + leftVar.toString());
-                    out.add(new DataFlowFact(leftVar));
+                if (callSite.getResultFact() != null) {
+                    out.add(callSite.getResultFact().withSource(callSite.getStmt()));
                 }
             }
 
             // *toString* is like direct assignment.
-            modelStringOperations(fact, out, callSiteStmt);
+            modelStringOperations(fact, out, callSite);
+
+            return out;
+        });
+        return fact -> {
+            trace(callSite.getStmt(), fact);
+
+            Set<DataFlowFact> out = targets.computeTargets(fact);
 
             // Here we catch any errors.
-            if (callSiteStmt.toString().contains("executeQuery")) {
-                Value arg = callSiteStmt.getInvokeExpr().getArg(0);
-                if (fact.getVariable().equals(arg)) {
-                    reporter.reportVulnerability();
+            if (callSite.getRole() == CallRole.SINK) {
+                if (fact.getBaseFact() == callSite.getArgumentFact(0)) {
+                    reporter.reportVulnerability(callSite.getStmt(), icfg.getMethodOf(callSite.getStmt()), fact, fact.getSource());
                 }
             }
 
-            System.out.println(out);
+            trace(callSite.getStmt(), fact, out);
             return out;
         };
     }
 
-    private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out,
-            Stmt callSiteStmt) {
-        Exercise3FlowFunctions.handleCallSite(fact, out, callSiteStmt);
+    private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out, StmtDescriptor callSite) {
+        Exercise3FlowFunctions.handleCallSite(fact, out, callSite);
 
         /*
          * For any call x = var.toString(), if the base variable var is tainted, then x
          * is tainted.
          */
-        if (callSiteStmt instanceof JAssignStmt && callSiteStmt.toString().contains("toString()")) {
-            if (callSiteStmt.getInvokeExpr() instanceof AbstractInstanceInvokeExpr) {
-                AbstractInstanceInvokeExpr instanceInvokeExpr = (AbstractInstanceInvokeExpr) callSiteStmt
-                        .getInvokeExpr();
-
-                if (fact.getVariable().equals(instanceInvokeExpr.getBase())) {
-                    Value leftOp = ((JAssignStmt) callSiteStmt).getLeftOp();
-                    if (leftOp instanceof Local) {
-                        out.add(new DataFlowFact((Local) leftOp));
-                    }
-                }
-
+        if (callSite.getRole() == CallRole.TO_STRING_PROPAGATOR && callSite.getResultFact() != null) {
+            if (fact.getBaseFact() == callSite.getInvokeBaseFact()) {
+                out.add(callSite.getResultFact().withSource(fact.getSource()));
             }
         }
     }
 
     @Override
-    public FlowFunction<DataFlowFact> getNormalFlowFunction(final Stmt curr, Stmt succ) {
+    protected FlowFunction<DataFlowFact> createNormalFlowFunction(final StmtDescriptor curr, Stmt succ) {
+        // Is this an assignment statement?
+        if (!curr.isCopy()) {
+            return fact -> {
+                trace(curr.getStmt(), fact);
+                return fact.asSet();
+            };
+        }
+        final DataFlowFact left = toFieldBasedFact(curr.getDefBase(), curr.getDefField());
+        final DataFlowFact right = toFieldBasedFact(curr.getUseBase(), curr.getUseField());
+        // Kills the left side, and taints it again if the right side is tainted.
+        final FlowFunction<DataFlowFact> assignment = MemoizingFlowFunction.assignment(left, right);
         return fact -> {
-            prettyPrint(curr, fact);
+            trace(curr.getStmt(), fact);
 
-            Set<DataFlowFact> out = Sets.newHashSet();
-            out.add(fact);
+            Set<DataFlowFact> out = assignment.computeTargets(fact);
 
-            // Is this an assignment statement?
-            if (curr instanceof JAssignStmt) {
-                JAssignStmt assignStmt = (JAssignStmt) curr;
-
-                if ((assignStmt.getLeftOp() instanceof Local || assignStmt.getLeftOp() instanceof JInstanceFieldRef)
-                        && (assignStmt.getRightOp() instanceof Local
-                                || assignStmt.getRightOp() instanceof JInstanceFieldRef)) {
-
-                    DataFlowFact left;
-                    if (assignStmt.getLeftOp() instanceof Local)
-                        left = new DataFlowFact((Local) (assignStmt.getLeftOp()));
-                    else
-                        left = new DataFlowFact(((JInstanceFieldRef) (assignStmt.getLeftOp())).getFieldSignature());
-
-                    DataFlowFact right;
-                    if (assignStmt.getRightOp() instanceof Local)
-                        right = new DataFlowFact((Local) (assignStmt.getRightOp()));
-                    else
-                        right = new DataFlowFact(((JInstanceFieldRef) (assignStmt.getRightOp())).getFieldSignature());
-
-                    // Assignment should destroy any taint.
-                    out.remove(left);
-                    // But if the right value is tainted, then we can add the left back to the set.
-                    if (fact.equals(right)) {
-                        out.add(left);
-                    }
-                }
-            }
-
-            System.out.println(out);
+            trace(curr.getStmt(), fact, out);
             return out;
         };
     }
 
+    private static DataFlowFact toFieldBasedFact(Local base, FieldSignature field) {
+        return field == null ? DataFlowFact.of(base) : DataFlowFact.of(field);
+    }
+
     @Override
     public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod callee, Stmt exitStmt,
             Stmt retSite) {
         return fact -> {
-            prettyPrint(callSite, fact);
+            trace(callSite, fact);
             return Collections.emptySet();
         };
     }
@@ -1,199 +1,148 @@
 package analysis.exercise;
 
+import analysis.MemoizingFlowFunction;
 import analysis.TaintAnalysisFlowFunctions;
 import analysis.VulnerabilityReporter;
 import analysis.fact.DataFlowFact;
-import com.google.common.collect.Sets;
+import analysis.spec.CallRole;
+import analysis.spec.TaintSpecification;
+import analysis.transfer.CallEdgeDescriptor;
+import analysis.transfer.StmtDescriptor;
 import heros.FlowFunction;
-import sootup.core.jimple.basic.Immediate;
-import sootup.core.jimple.basic.Local;
-import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
-import sootup.core.jimple.common.expr.AbstractInvokeExpr;
-import sootup.core.jimple.common.ref.JInstanceFieldRef;
-import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
-import sootup.core.signatures.FieldSignature;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
 
 public class Exercise3FlowFunctions extends TaintAnalysisFlowFunctions {
 
-    private final VulnerabilityReporter reporter;
-
     public Exercise3FlowFunctions(VulnerabilityReporter reporter) {
-        this.reporter = reporter;
+        super(reporter);
     }
 
-    @Override
-    public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callSite, SootMethod callee) {
-        return fact -> {
-            prettyPrint(callSite, fact);
-
-            Set<DataFlowFact> out = Sets.newHashSet();
-
-            if (callSite.containsInvokeExpr()) {
-                AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
-
-                // Find all arguments in the invoke expression that are equal to the fact.
-                List<Integer> taintedArgumentIndicies = new ArrayList<Integer>();
-                for (int i = 0; i < invokeExpr.getArgCount(); i++) {
-                    Immediate localOrConstant = invokeExpr.getArg(i);
-
-                    // We only care about locals.
-                    if (!(localOrConstant instanceof Local)) {
-                        continue;
-                    }
+    public Exercise3FlowFunctions(VulnerabilityReporter reporter, TaintSpecification specification) {
+        super(reporter, specification);
+    }
 
-                    // If it's tainted, we mark the index.
-                    Local local = (Local) localOrConstant;
-                    if (fact.getVariable().equals(local))
-                        taintedArgumentIndicies.add(i);
+    @Override
+    protected FlowFunction<DataFlowFact> createCallFlowFunction(StmtDescriptor callSite, CallEdgeDescriptor callEdge, SootMethod callee) {
+        final FlowFunction<DataFlowFact> targets = new MemoizingFlowFunction(fact -> {
+            Set<DataFlowFact> out = newFactSet();
+
+            // Find all arguments in the invoke expression that are equal to the fact.
+            for (int i = 0; i < callEdge.size(); i++) {
+                if (!callEdge.passes(i, fact)) {
+                    continue;
                 }
-
-                for (int i : taintedArgumentIndicies) {
-                    // Does the fact have a field?
-                    if (fact.getFieldSignature() == null) {
-                        out.add(new DataFlowFact(callee.getBody().getParameterLocal(i)));
-                        // If so, then we need to make sure the analysis knows the the parameter has a
-                        // tainted field.
-                    } else {
-                        out.add(new DataFlowFact(callee.getBody().getParameterLocal(i), fact.getFieldSignature()));
-                    }
+                // Does the fact have a field?
+                if (fact.getFieldSignature() == null) {
+                    out.add(callEdge.getParameterFact(i).withSource(fact.getSource()));
+                    // If so, then we need to make sure the analysis knows the the parameter has a
+                    // tainted field.
+                } else {
+                    out.add(fact.derive(callEdge.getParameterFact(i).getVariable(), fact.getAccessPath()));
                 }
             }
 
-            System.out.println(out);
+            return out;
+        });
+        return fact -> {
+            trace(callSite.getStmt(), fact);
+
+            Set<DataFlowFact> out = targets.computeTargets(fact);
+
+            trace(callSite.getStmt(), fact, out);
             return out;
         };
     }
 
-    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(final Stmt call, Stmt returnSite) {
-        return fact -> {
-            prettyPrint(call, fact);
-
+    @Override
+    protected FlowFunction<DataFlowFact> createCallToReturnFlowFunction(final StmtDescriptor call, Stmt returnSite) {
+        final FlowFunction<DataFlowFact> targets = new MemoizingFlowFunction(fact -> {
             // Our set of dataflow facts.
             // Always carry over facts.
-            Set<DataFlowFact> out = Sets.newHashSet();
+            Set<DataFlowFact> out = newFactSet();
             out.add(fact);
 
             // Here we want to cover the case of calling *getParameter*. In this case, the
             // caller context should add the variable on the left.
-            if (call.toString().contains("getParameter")) {
+            if (call.getRole() == CallRole.SOURCE) {
                 // First check that there is an LValue.
-                if (call.getDef().isPresent()) {
-                    Local leftVar = (Local) call.getDef().get();
-                    System.out.println("VARIABLE " + leftVar.toString());
-                    out.add(new DataFlowFact(leftVar));
+                if (call.getResultFact() != null) {
+                    out.add(call.getResultFact().withSource(call.getStmt()));
                 }
             }
 
             // *toString* is like direct assignment.
             modelStringOperations(fact, out, call);
 
+            return out;
+        });
+        return fact -> {
+            trace(call.getStmt(), fact);
+
+            Set<DataFlowFact> out = targets.computeTargets(fact);
+
             // Here we catch any errors.
-            if (call.toString().contains("executeQuery")) {
-                Value arg = call.getInvokeExpr().getArg(0);
-                if (fact.getVariable().equals(arg)) {
-                    reporter.reportVulnerability();
+            if (call.getRole() == CallRole.SINK) {
+                if (fact.getBaseFact() == call.getArgumentFact(0)) {
+                    reporter.reportVulnerability(call.getStmt(), icfg.getMethodOf(call.getStmt()), fact, fact.getSource());
                 }
             }
 
-            System.out.println(out);
+            trace(call.getStmt(), fact, out);
             return out;
         };
     }
 
-    private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out, Stmt callSiteStmt) {
-        handleCallSite(fact, out, callSiteStmt);
+    private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out, StmtDescriptor callSite) {
+        handleCallSite(fact, out, callSite);
 
         /*
          * For any call x = var.toString(), if the base variable var is tainted, then x
          * is tainted.
          */
-        if (callSiteStmt instanceof JAssignStmt && callSiteStmt.toString().contains("toString()")) {
-            if (callSiteStmt.getInvokeExpr() instanceof AbstractInstanceInvokeExpr) {
-                AbstractInstanceInvokeExpr instanceInvokeExpr = (AbstractInstanceInvokeExpr) callSiteStmt
-                        .getInvokeExpr();
-                if (fact.getVariable().equals(instanceInvokeExpr.getBase())) {
-                    Value leftOp = ((JAssignStmt) callSiteStmt).getLeftOp();
-                    if (leftOp instanceof Local) {
-                        out.add(new DataFlowFact((Local) leftOp));
-                    }
-                }
+        if (callSite.getRole() == CallRole.TO_STRING_PROPAGATOR && callSite.getResultFact() != null) {
+            if (fact.getBaseFact() == callSite.getInvokeBaseFact()) {
+                out.add(callSite.getResultFact().withSource(fact.getSource()));
             }
         }
     }
 
-    static void handleCallSite(DataFlowFact fact, Set<DataFlowFact> out, Stmt callSiteStmt) {
-        if (callSiteStmt instanceof JAssignStmt && callSiteStmt.toString().contains("java.lang.StringBuilder append(")
-                && callSiteStmt.getInvokeExpr() instanceof AbstractInstanceInvokeExpr) {
-            Value arg0 = callSiteStmt.getInvokeExpr().getArg(0);
-            Value base = ((AbstractInstanceInvokeExpr) callSiteStmt.getInvokeExpr()).getBase();
+    static void handleCallSite(DataFlowFact fact, Set<DataFlowFact> out, StmtDescriptor callSite) {
+        if (callSite.getRole() == CallRole.APPEND_PROPAGATOR && callSite.getResultFact() != null
+                && callSite.getInvokeBaseFact() != null) {
             /*
              * Does the propagated value match the first parameter of the append call or the
              * base variable
              */
-            if (fact.getVariable().equals(arg0) || fact.getVariable().equals(base)) {
+            if (fact.getBaseFact() == callSite.getArgumentFact(0) || fact.getBaseFact() == callSite.getInvokeBaseFact()) {
                 /* Yes, then taint the left side of the assignment */
-                Value leftOp = ((JAssignStmt) callSiteStmt).getLeftOp();
-                if (leftOp instanceof Local) {
-                    out.add(new DataFlowFact((Local) leftOp));
-                }
+                out.add(callSite.getResultFact().withSource(fact.getSource()));
             }
         }
     }
 
     @Override
-    public FlowFunction<DataFlowFact> getNormalFlowFunction(final Stmt curr, Stmt succ) {
+    protected FlowFunction<DataFlowFact> createNormalFlowFunction(final StmtDescriptor curr, Stmt succ) {
+        // Is this an assignment statement?
+        if (!curr.isCopy()) {
+            return fact -> {
+                trace(curr.getStmt(), fact);
+                return fact.asSet();
+            };
+        }
+        final DataFlowFact left = DataFlowFact.of(curr.getDefBase(), curr.getDefField());
+        final DataFlowFact right = DataFlowFact.of(curr.getUseBase(), curr.getUseField());
+        // Kills the left side, and taints it again if the right side is tainted.
+        final FlowFunction<DataFlowFact> assignment = MemoizingFlowFunction.assignment(left, right);
         return fact -> {
-            prettyPrint(curr, fact);
+            trace(curr.getStmt(), fact);
 
-            Set<DataFlowFact> out = Sets.newHashSet();
-            out.add(fact);
-
-            // Is this an assignment statement?
-            if (curr instanceof JAssignStmt) {
-                JAssignStmt assignStmt = (JAssignStmt) curr;
-
-                if ((assignStmt.getLeftOp() instanceof Local || assignStmt.getLeftOp() instanceof JInstanceFieldRef)
-                        && (assignStmt.getRightOp() instanceof Local
-                                || assignStmt.getRightOp() instanceof JInstanceFieldRef)) {
-
-                    DataFlowFact left;
-                    if (assignStmt.getLeftOp() instanceof Local)
-                        left = new DataFlowFact((Local) (assignStmt.getLeftOp()));
-                    else {
-                        Local base = ((JInstanceFieldRef) assignStmt.getLeftOp()).getBase();
-                        FieldSignature field = ((JInstanceFieldRef) (assignStmt.getLeftOp())).getFieldSignature();
-
-                        left = new DataFlowFact(base, field);
-                    }
-
-                    DataFlowFact right;
-                    if (assignStmt.getRightOp() instanceof Local)
-                        right = new DataFlowFact((Local) (assignStmt.getRightOp()));
-                    else {
-                        Local base = ((JInstanceFieldRef) assignStmt.getRightOp()).getBase();
-                        FieldSignature field = ((JInstanceFieldRef) (assignStmt.getRightOp())).getFieldSignature();
-
-                        right = new DataFlowFact(base, field);
-                    }
-
-                    // Assignment should destroy any taint.
-                    out.remove(left);
-                    // But if the right value is tainted, then we can add the left back to the set.
-                    if (fact.equals(right)) {
-                        out.add(left);
-                    }
-                }
-            }
+            Set<DataFlowFact> out = assignment.computeTargets(fact);
 
-            System.out.println(out);
+            trace(curr.getStmt(), fact, out);
             return out;
         };
     }
@@ -202,7 +151,7 @@ public class Exercise3FlowFunctions extends TaintAnalysisFlowFunctions {
     public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod callee, Stmt exitStmt,
             Stmt retSite) {
         return fact -> {
-            prettyPrint(callSite, fact);
+            trace(callSite, fact);
             return Collections.emptySet();
         };
     }
@@ -0,0 +1,177 @@
+package analysis.fact;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import sootup.core.signatures.FieldSignature;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The sequence of fields a {@link DataFlowFact} dereferences from its base variable, e.g. {@code .next.value} in
+ * {@code h.next.value}. Fields are stored as dense ids in an int array instead of a chain of objects, and paths are
+ * hash-consed like facts, so equal paths are the same instance.
+ * <p>
+ * Paths are k-limited by the operations that extend them: a path that would grow beyond k fields keeps its first k
+ * fields and is marked as truncated, written {@code .*}, standing for the path and every extension of it. With a
+ * fixed k the number of distinct paths, and therefore facts, is bounded.
+ */
+public final class AccessPath {
+
+    private static final Interner<AccessPath> POOL = Interners.newWeakInterner();
+
+    private static final Map<FieldSignature, Integer> FIELD_IDS = new ConcurrentHashMap<>();
+
+    /**
+     * The fields by id. Grown by copying under the lock of {@link #FIELD_IDS}, so it can be read without locking.
+     */
+    private static volatile FieldSignature[] fields = new FieldSignature[0];
+
+    private static final AccessPath EMPTY = POOL.intern(new AccessPath(new int[0], false));
+
+    private final int[] fieldIds;
+    private final boolean truncated;
+    private final int hashCode;
+
+    private AccessPath(int[] fieldIds, boolean truncated) {
+        this.fieldIds = fieldIds;
+        this.truncated = truncated;
+        this.hashCode = 31 * Arrays.hashCode(fieldIds) + (truncated ? 1 : 0);
+    }
+
+    public static AccessPath empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the path of the given fields, which is never truncated.
+     */
+    public static AccessPath of(FieldSignature... path) {
+        int[] fieldIds = new int[path.length];
+        for (int i = 0; i < path.length; i++) {
+            fieldIds[i] = idOf(path[i]);
+        }
+        return of(fieldIds, false);
+    }
+
+    private static AccessPath of(int[] fieldIds, boolean truncated) {
+        return POOL.intern(new AccessPath(fieldIds, truncated));
+    }
+
+    private static int idOf(FieldSignature field) {
+        Integer id = FIELD_IDS.get(field);
+        if (id != null) {
+            return id;
+        }
+        synchronized (FIELD_IDS) {
+            id = FIELD_IDS.get(field);
+            if (id == null) {
+                id = fields.length;
+                FieldSignature[] grown = Arrays.copyOf(fields, id + 1);
+                grown[id] = field;
+                fields = grown;
+                FIELD_IDS.put(field, id);
+            }
+            return id;
+        }
+    }
+
+    public int length() {
+        return fieldIds.length;
+    }
+
+    /**
+     * Returns whether the path has no fields. A truncated empty path stands for all paths and is not empty.
+     */
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public FieldSignature getField(int i) {
+        return fields[fieldIds[i]];
+    }
+
+    /**
+     * Returns whether the path may start with the given field, i.e. whether the first field is the given field or the
+     * path is a truncated empty path, which stands for every path.
+     */
+    public boolean startsWith(FieldSignature field) {
+        return fieldIds.length > 0 ? fieldIds[0] == idOf(field) : truncated;
+    }
+
+    /**
+     * Returns this path without its first field. The result of a truncated path stays truncated, and a truncated
+     * empty path is returned as is.
+     */
+    public AccessPath dropFirst() {
+        return fieldIds.length == 0 ? this : of(Arrays.copyOfRange(fieldIds, 1, fieldIds.length), truncated);
+    }
+
+    /**
+     * Returns the path of the given field followed by this path, limited to k fields.
+     */
+    public AccessPath prepend(FieldSignature field, int k) {
+        int[] prepended = new int[fieldIds.length + 1];
+        prepended[0] = idOf(field);
+        System.arraycopy(fieldIds, 0, prepended, 1, fieldIds.length);
+        return limit(prepended, truncated, k);
+    }
+
+    /**
+     * Returns this path marked as truncated, i.e. standing for itself and all its extensions.
+     */
+    public AccessPath truncate() {
+        return truncated ? this : of(fieldIds, true);
+    }
+
+    /**
+     * Returns this path limited to k fields.
+     */
+    public AccessPath limit(int k) {
+        return fieldIds.length <= k ? this : limit(fieldIds, truncated, k);
+    }
+
+    private static AccessPath limit(int[] fieldIds, boolean truncated, int k) {
+        if (fieldIds.length <= k) {
+            return of(fieldIds, truncated);
+        }
+        return of(Arrays.copyOf(fieldIds, k), true);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        // Interned paths are equal iff they are the same instance; see DataFlowFact#equals.
+        if (this == obj)
+            return true;
+        if (!(obj instanceof AccessPath))
+            return false;
+        AccessPath other = (AccessPath) obj;
+        return hashCode == other.hashCode && truncated == other.truncated && Arrays.equals(fieldIds, other.fieldIds);
+    }
+
+    /**
+     * Returns the field signatures separated by dots, e.g. {@code <A: B next>.<B: C value>}, followed by {@code .*} if
+     * the path is truncated. The truncated empty path is {@code *}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < fieldIds.length; i++) {
+            text.append(i == 0 ? "" : ".").append(getField(i));
+        }
+        if (truncated) {
+            text.append(fieldIds.length == 0 ? "*" : ".*");
+        }
+        return text.toString();
+    }
+}
@@ -1,42 +1,116 @@
 package analysis.fact;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.types.NullType;
 
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A data-flow fact of the taint analysis: a base variable and the {@link AccessPath} of fields dereferenced from it,
+ * tainted by the source call the fact {@linkplain #getSource() originates from}. Facts of the same variable and path
+ * but different sources are different facts, so that a sink reports every source that reaches it; facts built from
+ * statements, such as those of the transfer descriptors, have no source and are matched against tainted facts through
+ * {@link #getBaseFact()} and {@link #withoutSource()}. Facts are hash-consed: obtain them through the {@code of(...)}
+ * factories, which return the same instance for equal facts. This lets the IFDS solver compare facts by reference and
+ * reuse the precomputed hash code on every lookup in its jump-function tables.
+ */
 public class DataFlowFact {
-    private static final DataFlowFact ZERO = new DataFlowFact(new Local("<ZERO>", NullType.getInstance()), null);
+    /**
+     * Pool of all live facts. Values are held weakly, so facts that are no longer referenced by any solver can be
+     * collected.
+     */
+    private static final Interner<DataFlowFact> POOL = Interners.newWeakInterner();
+
+    private static final DataFlowFact ZERO = POOL.intern(new DataFlowFact(new Local("<ZERO>", NullType.getInstance()), AccessPath.empty(), null));
     private final Local variable;
+    private final AccessPath path;
+    /**
+     * The source call the taint originates from, or {@code null}. Compared by identity, as statements are.
+     */
+    private final Stmt source;
+    /**
+     * The first field of {@link #path}, or {@code null} if the path is empty.
+     */
     private final FieldSignature field;
+    private final int hashCode;
+    /**
+     * The interned fact for {@link #variable} alone without a source, so that facts can be matched against a local by
+     * reference. Created on first use rather than by the constructor, so that a candidate that loses against an
+     * interned fact does not intern others; racing threads get the same interned fact.
+     */
+    private DataFlowFact baseFact;
+    /**
+     * The interned fact for {@link #variable} and {@link #path} without a source, created on first use like
+     * {@link #baseFact}.
+     */
+    private DataFlowFact withoutSource;
+    /**
+     * The immutable set of this fact alone, created on first use. Racing threads may each create one, which is
+     * harmless.
+     */
+    private Set<DataFlowFact> singleton;
+
+    private DataFlowFact(Local variable, AccessPath path, Stmt source) {
+        this.variable = variable;
+        this.path = path;
+        this.source = source;
+        this.field = path.length() == 0 ? null : path.getField(0);
+        this.hashCode = computeHashCode(variable, path, source);
+    }
 
     /**
-     * Use this constructor for the dataflow analysis in Exercise 1.
+     * Use this factory for the dataflow analysis in Exercise 1.
      *
      * @param variable the Jimple local that contains tainted information
      */
-    public DataFlowFact(Local variable) {
-        this(variable, null);
+    public static DataFlowFact of(Local variable) {
+        return of(variable, AccessPath.empty());
     }
 
     /**
-     * Use this constructor for the fieldSignature-based dataflow analysis in Exercise 2.
+     * Use this factory for the fieldSignature-based dataflow analysis in Exercise 2.
      *
      * @param fieldSignature the soot fieldSignature that receives a tainted data-flow.
      */
-    public DataFlowFact(FieldSignature fieldSignature) {
+    public static DataFlowFact of(FieldSignature fieldSignature) {
         //A fieldSignature-based data flow fact has a local variable "FIELDBASED" as base. This is a dummy local variable that we construct here.
-        this(new Local("FIELDBASED", fieldSignature.getType()), fieldSignature);
+        return of(new Local("FIELDBASED", fieldSignature.getType()), fieldSignature);
     }
 
     /**
-     * Use this constructor for the field-sensitive dataflow analysis of Exercise 3.
+     * Use this factory for the field-sensitive dataflow analysis of Exercise 3.
      *
      * @param variable       the base variable at a field write statement that receives the taint.
      * @param fieldSignature the soot field that receives a tainted data-flow.
      */
-    public DataFlowFact(Local variable, FieldSignature fieldSignature) {
-        this.variable = variable;
-        this.field = fieldSignature;
+    public static DataFlowFact of(Local variable, FieldSignature fieldSignature) {
+        return of(variable, fieldSignature == null ? AccessPath.empty() : AccessPath.of(fieldSignature));
+    }
+
+    /**
+     * Use this factory for access paths of more than one field.
+     *
+     * @param variable the base variable of the access path.
+     * @param path     the fields dereferenced from the base variable.
+     */
+    public static DataFlowFact of(Local variable, AccessPath path) {
+        return of(variable, path, null);
+    }
+
+    /**
+     * Use this factory for a taint that originates from a source call.
+     *
+     * @param variable the base variable of the access path.
+     * @param path     the fields dereferenced from the base variable.
+     * @param source   the source call the taint originates from, or {@code null} if it is not known.
+     */
+    public static DataFlowFact of(Local variable, AccessPath path, Stmt source) {
+        return POOL.intern(new DataFlowFact(variable, path, source));
     }
 
     public static DataFlowFact getZeroInstance() {
@@ -47,41 +121,116 @@ public class DataFlowFact {
         return variable;
     }
 
+    /**
+     * Returns the first field of the access path, or {@code null} if the fact is the base variable itself.
+     */
     public FieldSignature getFieldSignature() {
         return field;
     }
 
-    @Override
-    public int hashCode() {
+    public AccessPath getAccessPath() {
+        return path;
+    }
+
+    /**
+     * Returns the source call the taint of this fact originates from, or {@code null} if it is not known.
+     */
+    public Stmt getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the fact for the base variable of this fact without its field and source, i.e. this fact itself if it has
+     * neither.
+     */
+    public DataFlowFact getBaseFact() {
+        DataFlowFact baseFact = this.baseFact;
+        if (baseFact == null) {
+            baseFact = path.isEmpty() ? withoutSource() : of(variable);
+            this.baseFact = baseFact;
+        }
+        return baseFact;
+    }
+
+    /**
+     * Returns the fact for the variable and access path of this fact without its source, i.e. this fact itself if it
+     * has none.
+     */
+    public DataFlowFact withoutSource() {
+        DataFlowFact withoutSource = this.withoutSource;
+        if (withoutSource == null) {
+            withoutSource = source == null ? this : of(variable, path);
+            this.withoutSource = withoutSource;
+        }
+        return withoutSource;
+    }
+
+    /**
+     * Returns the fact for the variable and access path of this fact, originating from the given source call.
+     */
+    public DataFlowFact withSource(Stmt source) {
+        return source == this.source ? this : of(variable, path, source);
+    }
+
+    /**
+     * Returns the fact for the given variable and access path that originates from the same source call as this fact,
+     * i.e. the fact this one taints through an assignment or a call.
+     */
+    public DataFlowFact derive(Local variable, AccessPath path) {
+        return of(variable, path, source);
+    }
+
+    /**
+     * Returns the immutable set of just this fact, the result of a flow function that passes the fact on unchanged.
+     * The set is shared, so identity flow functions allocate nothing.
+     */
+    public Set<DataFlowFact> asSet() {
+        Set<DataFlowFact> singleton = this.singleton;
+        if (singleton == null) {
+            singleton = Collections.singleton(this);
+            this.singleton = singleton;
+        }
+        return singleton;
+    }
+
+    private static int computeHashCode(Local variable, AccessPath path, Stmt source) {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((field == null) ? 0 : field.hashCode());
+        result = prime * result + path.hashCode();
         result = prime * result + ((variable == null) ? 0 : variable.hashCode());
+        result = prime * result + System.identityHashCode(source);
         return result;
     }
 
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
     @Override
     public boolean equals(Object obj) {
+        // Interned facts are equal iff they are the same instance. The structural comparison below is only reached
+        // by the pool itself while interning a freshly built candidate.
         if (this == obj)
             return true;
-        if (obj == null)
-            return false;
-        if (getClass() != obj.getClass())
+        if (!(obj instanceof DataFlowFact))
             return false;
         DataFlowFact other = (DataFlowFact) obj;
-        if (field == null) {
-            if (other.field != null)
-                return false;
-        } else if (!field.equals(other.field))
+        if (hashCode != other.hashCode)
+            return false;
+        if (path != other.path || source != other.source)
             return false;
         if (variable == null) {
             return other.variable == null;
         } else return variable.equals(other.variable);
     }
 
+    /**
+     * Returns the variable and access path of this fact, followed by its source call if it has one.
+     */
     @Override
     public String toString() {
-        return variable + (field == null ? "" : " " + field);
+        return variable + (path.isEmpty() ? "" : " " + path) + (source == null ? "" : " from " + source);
     }
 
 }
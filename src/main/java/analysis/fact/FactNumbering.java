@@ -0,0 +1,68 @@
+package analysis.fact;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Numbers the facts of one analysis densely, in the order they are first asked for, so that a {@link FactSet} can
+ * store them as small ints over a range no larger than the facts the analysis actually uses. The numbered facts stay
+ * referenced from here, since a set only holds their numbers, so a numbering belongs to a solver run and is dropped
+ * with it. Thread-safe: looking up a number does not lock.
+ */
+public final class FactNumbering {
+
+    private final Map<DataFlowFact, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * The numbered facts by number. Grown by copying under the lock of this numbering, so it can be read without
+     * locking.
+     */
+    private volatile DataFlowFact[] facts = new DataFlowFact[0];
+
+    private int count;
+
+    /**
+     * Returns the number of the given fact, numbering it if it has none yet.
+     */
+    public int idOf(DataFlowFact fact) {
+        Integer id = ids.get(fact);
+        return id != null ? id : assignId(fact);
+    }
+
+    /**
+     * Returns the number of the given fact, or -1 if it has none, e.g. to look it up without numbering it.
+     */
+    public int find(DataFlowFact fact) {
+        Integer id = ids.get(fact);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the fact with the given number.
+     */
+    public DataFlowFact factOf(int id) {
+        return facts[id];
+    }
+
+    /**
+     * Returns how many facts have been numbered.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int assignId(DataFlowFact fact) {
+        Integer id = ids.get(fact);
+        if (id != null) {
+            return id;
+        }
+        if (count == facts.length) {
+            facts = Arrays.copyOf(facts, Math.max(64, 2 * count));
+        }
+        facts[count] = fact;
+        // Published last, so a thread that finds the number also sees the fact at that index.
+        ids.put(fact, count);
+        return count++;
+    }
+}
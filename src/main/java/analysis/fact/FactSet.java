@@ -0,0 +1,270 @@
+package analysis.fact;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of facts stored by their dense numbers in a {@link FactNumbering} instead of as hashed objects. Small
+ * sets, such as the output of a flow function, are a sorted int array; once a set grows beyond
+ * {@value #SMALL_LIMIT} facts it switches to a bitset over the range of numbers it holds, so membership is a word test
+ * and union of two such sets of the same numbering is a word-wise or. Not thread-safe, but a {@linkplain #freeze()
+ * frozen} set can be shared once it is safely published.
+ */
+public final class FactSet extends AbstractSet<DataFlowFact> {
+
+    private static final int SMALL_LIMIT = 16;
+
+    private final FactNumbering numbering;
+
+    /**
+     * The sorted numbers of the facts while the set is small, otherwise {@code null}.
+     */
+    private int[] ids;
+
+    /**
+     * The bitset of the set once it is large, otherwise {@code null}. Bit i of word w stands for fact number
+     * {@code (firstWord + w) * 64 + i}.
+     */
+    private long[] words;
+
+    private int firstWord;
+
+    private int size;
+
+    private boolean frozen;
+
+    public FactSet(FactNumbering numbering) {
+        this.numbering = numbering;
+        ids = new int[2];
+    }
+
+    public FactSet(FactNumbering numbering, DataFlowFact fact) {
+        this(numbering);
+        add(fact);
+    }
+
+    public FactSet(FactNumbering numbering, Collection<? extends DataFlowFact> facts) {
+        this(numbering);
+        addAll(facts);
+    }
+
+    /**
+     * Returns the numbering the facts of this set are stored by.
+     */
+    public FactNumbering getNumbering() {
+        return numbering;
+    }
+
+    /**
+     * Makes this set read-only, so that it can be returned as a shared result, and returns it.
+     */
+    public FactSet freeze() {
+        frozen = true;
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof DataFlowFact && containsId(numbering.find((DataFlowFact) o));
+    }
+
+    @Override
+    public boolean add(DataFlowFact fact) {
+        return addId(numbering.idOf(fact));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof DataFlowFact && removeId(numbering.find((DataFlowFact) o));
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends DataFlowFact> facts) {
+        if (!(facts instanceof FactSet) || ((FactSet) facts).words == null || ((FactSet) facts).numbering != numbering) {
+            return super.addAll(facts);
+        }
+        checkMutable();
+        FactSet other = (FactSet) facts;
+        if (words == null) {
+            toBitSet(other.firstWord);
+        }
+        ensureWord(other.firstWord);
+        ensureWord(other.firstWord + other.words.length - 1);
+        int before = size;
+        int offset = other.firstWord - firstWord;
+        for (int w = 0; w < other.words.length; w++) {
+            long word = words[offset + w];
+            long merged = word | other.words[w];
+            size += Long.bitCount(merged) - Long.bitCount(word);
+            words[offset + w] = merged;
+        }
+        return size != before;
+    }
+
+    @Override
+    public void clear() {
+        checkMutable();
+        ids = new int[2];
+        words = null;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<DataFlowFact> iterator() {
+        return new Iterator<DataFlowFact>() {
+
+            private int next = nextId(0);
+
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public DataFlowFact next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = nextId(next + 1);
+                return numbering.factOf(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeId(last);
+                last = -1;
+            }
+        };
+    }
+
+    private boolean containsId(int id) {
+        if (words == null) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+        int w = (id >>> 6) - firstWord;
+        return w >= 0 && w < words.length && (words[w] & (1L << id)) != 0;
+    }
+
+    private boolean addId(int id) {
+        checkMutable();
+        if (words == null) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return false;
+            }
+            if (size == SMALL_LIMIT) {
+                toBitSet(id >>> 6);
+                return addId(id);
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * size);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+            return true;
+        }
+        ensureWord(id >>> 6);
+        int w = (id >>> 6) - firstWord;
+        long bit = 1L << id;
+        if ((words[w] & bit) != 0) {
+            return false;
+        }
+        words[w] |= bit;
+        size++;
+        return true;
+    }
+
+    private boolean removeId(int id) {
+        checkMutable();
+        if (words == null) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+        if (!containsId(id)) {
+            return false;
+        }
+        words[(id >>> 6) - firstWord] &= ~(1L << id);
+        size--;
+        return true;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("The set is frozen.");
+        }
+    }
+
+    /**
+     * Returns the smallest number in the set that is at least {@code from}, or -1 if there is none.
+     */
+    private int nextId(int from) {
+        if (words == null) {
+            int pos = Arrays.binarySearch(ids, 0, size, from);
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            return pos < size ? ids[pos] : -1;
+        }
+        int w = Math.max((from >>> 6) - firstWord, 0);
+        if (w >= words.length) {
+            return -1;
+        }
+        long word = (from >>> 6) - firstWord == w ? words[w] & (-1L << from) : words[w];
+        while (true) {
+            if (word != 0) {
+                return (firstWord + w) * 64 + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * Switches a small set to the bitset representation, which must cover the given word.
+     */
+    private void toBitSet(int word) {
+        int low = size == 0 ? word : Math.min(word, ids[0] >>> 6);
+        int high = size == 0 ? word : Math.max(word, ids[size - 1] >>> 6);
+        long[] bits = new long[high - low + 1];
+        for (int i = 0; i < size; i++) {
+            bits[(ids[i] >>> 6) - low] |= 1L << ids[i];
+        }
+        firstWord = low;
+        words = bits;
+        ids = null;
+    }
+
+    private void ensureWord(int word) {
+        if (word < firstWord) {
+            long[] grown = new long[words.length + firstWord - word];
+            System.arraycopy(words, 0, grown, firstWord - word, words.length);
+            words = grown;
+            firstWord = word;
+        } else if (word - firstWord >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word - firstWord + 1, 2 * words.length));
+        }
+    }
+}
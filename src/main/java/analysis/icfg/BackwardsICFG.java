@@ -0,0 +1,109 @@
+package analysis.icfg;
+
+import heros.InterproceduralCFG;
+import sootup.analysis.interprocedural.icfg.BiDiInterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A view of an interprocedural CFG with all edges reversed, for backward IFDS problems. The start points of a method
+ * are the exit statements of the underlying CFG and the return sites of a call are its predecessors. Calls and
+ * callers are unchanged.
+ */
+public class BackwardsICFG implements InterproceduralCFG<Stmt, SootMethod> {
+
+    private final BiDiInterproceduralCFG<Stmt, SootMethod> delegate;
+
+    public BackwardsICFG(BiDiInterproceduralCFG<Stmt, SootMethod> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Returns the forward CFG this view reverses.
+     */
+    public BiDiInterproceduralCFG<Stmt, SootMethod> getForwardICFG() {
+        return delegate;
+    }
+
+    @Override
+    public SootMethod getMethodOf(Stmt stmt) {
+        return delegate.getMethodOf(stmt);
+    }
+
+    @Override
+    public List<Stmt> getPredsOf(Stmt stmt) {
+        return delegate.getSuccsOf(stmt);
+    }
+
+    @Override
+    public List<Stmt> getSuccsOf(Stmt stmt) {
+        return delegate.getPredsOf(stmt);
+    }
+
+    @Override
+    public Collection<SootMethod> getCalleesOfCallAt(Stmt callSite) {
+        return delegate.getCalleesOfCallAt(callSite);
+    }
+
+    @Override
+    public Collection<Stmt> getCallersOf(SootMethod method) {
+        return delegate.getCallersOf(method);
+    }
+
+    @Override
+    public Set<Stmt> getCallsFromWithin(SootMethod method) {
+        return delegate.getCallsFromWithin(method);
+    }
+
+    @Override
+    public Collection<Stmt> getStartPointsOf(SootMethod method) {
+        return delegate.getEndPointsOf(method);
+    }
+
+    @Override
+    public Collection<Stmt> getReturnSitesOfCallAt(Stmt callSite) {
+        return delegate.getPredsOf(callSite);
+    }
+
+    @Override
+    public boolean isCallStmt(Stmt stmt) {
+        return delegate.isCallStmt(stmt);
+    }
+
+    @Override
+    public boolean isExitStmt(Stmt stmt) {
+        return delegate.isStartPoint(stmt);
+    }
+
+    @Override
+    public boolean isStartPoint(Stmt stmt) {
+        return delegate.isExitStmt(stmt);
+    }
+
+    @Override
+    public Set<Stmt> allNonCallStartNodes() {
+        return delegate.allNonCallEndNodes();
+    }
+
+    /**
+     * Returns whether the given statement is the fall-through successor of the given successor, i.e. its predecessor,
+     * in the forward CFG.
+     */
+    @Override
+    public boolean isFallThroughSuccessor(Stmt stmt, Stmt succ) {
+        return delegate.isFallThroughSuccessor(succ, stmt);
+    }
+
+    /**
+     * Returns whether the given statement is a branch target of the given successor, i.e. its predecessor, in the
+     * forward CFG.
+     */
+    @Override
+    public boolean isBranchTarget(Stmt stmt, Stmt succ) {
+        return delegate.isBranchTarget(succ, stmt);
+    }
+}
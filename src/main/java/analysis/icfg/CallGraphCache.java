@@ -0,0 +1,197 @@
+package analysis.icfg;
+
+import analysis.summary.SummaryStore;
+import sootup.callgraph.CallGraph;
+import sootup.callgraph.GraphBasedCallGraph;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds call graphs of a {@link View} and keeps them, keyed by algorithm and entry points, so that analyses of the
+ * same program share one graph instead of building it again. With a directory, graphs are also persisted and reused
+ * across runs: a stored graph carries a hash of the classes of the view and the bodies of its methods, and is built
+ * again if any of them changed. Files are replaced atomically, like summaries in {@link SummaryStore}.
+ */
+public class CallGraphCache {
+
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private final View view;
+
+    private final Path directory;
+
+    private final Map<String, CallGraph> callGraphs = new ConcurrentHashMap<>();
+
+    private final AtomicInteger builtGraphs = new AtomicInteger();
+
+    private final AtomicInteger loadedGraphs = new AtomicInteger();
+
+    public CallGraphCache(View view) {
+        this(view, null);
+    }
+
+    public CallGraphCache(View view, Path directory) {
+        this.view = view;
+        this.directory = directory;
+    }
+
+    public View getView() {
+        return view;
+    }
+
+    /**
+     * Returns the call graph of the given algorithm from the given entry points, building it on first use.
+     */
+    public CallGraph get(CallGraphKind kind, List<MethodSignature> entryPoints) {
+        return callGraphs.computeIfAbsent(keyOf(kind, entryPoints), key -> loadOrBuild(kind, entryPoints, key));
+    }
+
+    /**
+     * Returns the number of call graphs built by this cache.
+     */
+    public int getBuiltGraphs() {
+        return builtGraphs.get();
+    }
+
+    /**
+     * Returns the number of call graphs this cache loaded from its directory instead of building them.
+     */
+    public int getLoadedGraphs() {
+        return loadedGraphs.get();
+    }
+
+    private CallGraph loadOrBuild(CallGraphKind kind, List<MethodSignature> entryPoints, String key) {
+        Path file = directory == null ? null : directory.resolve(SummaryStore.sha256(key) + ".callgraph");
+        if (file != null) {
+            CallGraph callGraph = load(file, key);
+            if (callGraph != null) {
+                loadedGraphs.incrementAndGet();
+                return callGraph;
+            }
+        }
+        CallGraph callGraph = kind.create(view).initialize(entryPoints);
+        builtGraphs.incrementAndGet();
+        if (file != null) {
+            store(file, key, callGraph);
+        }
+        return callGraph;
+    }
+
+    private CallGraph load(Path file, String key) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String[] header = split(reader.readLine());
+            if (header.length != 2 || !header[0].equals(key)) {
+                return null;
+            }
+            GraphBasedCallGraph callGraph = new GraphBasedCallGraph();
+            List<String[]> calls = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = split(line);
+                if (fields[0].equals("method")) {
+                    callGraph.addMethod(parse(fields[1]));
+                } else if (fields[0].equals("call")) {
+                    calls.add(fields);
+                } else {
+                    throw new IllegalStateException("Malformed call graph file '" + file + "'.");
+                }
+            }
+            if (!header[1].equals(hashOf(callGraph.getMethodSignatures()))) {
+                return null;
+            }
+            for (String[] call : calls) {
+                callGraph.addCall(parse(call[1]), parse(call[2]));
+            }
+            return callGraph;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void store(Path file, String key, CallGraph callGraph) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "callgraph", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(key + FIELD_SEPARATOR + hashOf(callGraph.getMethodSignatures()));
+                writer.newLine();
+                for (MethodSignature method : callGraph.getMethodSignatures()) {
+                    writer.write("method" + FIELD_SEPARATOR + method);
+                    writer.newLine();
+                }
+                for (MethodSignature method : callGraph.getMethodSignatures()) {
+                    for (MethodSignature target : callGraph.callsFrom(method)) {
+                        writer.write("call" + FIELD_SEPARATOR + method + FIELD_SEPARATOR + target);
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hashes the classes of the view, since new subtypes add targets to virtual calls, and the bodies of the methods
+     * of the graph, since they determine the calls.
+     */
+    private String hashOf(Collection<MethodSignature> methods) {
+        StringBuilder text = new StringBuilder();
+        TreeSet<String> classes = new TreeSet<>();
+        for (SootClass sootClass : view.getClasses()) {
+            classes.add(sootClass.getType().toString());
+        }
+        for (String sootClass : classes) {
+            text.append(sootClass).append('\n');
+        }
+        TreeSet<String> bodies = new TreeSet<>();
+        for (MethodSignature method : methods) {
+            Optional<? extends SootMethod> sootMethod = view.getMethod(method);
+            String body = sootMethod.isPresent() && sootMethod.get().hasBody() ? sootMethod.get().getBody().toString() : "";
+            bodies.add(SummaryStore.sha256(method + "\n" + body));
+        }
+        for (String body : bodies) {
+            text.append(body).append('\n');
+        }
+        return SummaryStore.sha256(text.toString());
+    }
+
+    private MethodSignature parse(String signature) {
+        return view.getIdentifierFactory().parseMethodSignature(signature);
+    }
+
+    private static String keyOf(CallGraphKind kind, List<MethodSignature> entryPoints) {
+        TreeSet<String> sorted = new TreeSet<>();
+        for (MethodSignature entryPoint : entryPoints) {
+            sorted.add(entryPoint.toString());
+        }
+        return kind + " " + String.join(" ", sorted);
+    }
+
+    private static String[] split(String line) {
+        return line == null ? new String[0] : line.split(FIELD_SEPARATOR);
+    }
+}
@@ -0,0 +1,180 @@
+package analysis.icfg;
+
+import sootup.analysis.interprocedural.icfg.AbstractJimpleBasedICFG;
+import sootup.callgraph.CallGraph;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.views.View;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An interprocedural CFG over a call graph that was built beforehand, so that one call graph can be shared by the
+ * solvers of many entry points. The callees of a call site are the targets of its method in the call graph whose
+ * sub-signature matches the invoked method, or just the invoked method for calls without dynamic dispatch. Method
+ * bodies are loaded when the solver first reaches a method. The ICFG is safe to query from several solver threads at
+ * once.
+ */
+public class CallGraphICFG extends AbstractJimpleBasedICFG {
+
+    private final CallGraph callGraph;
+
+    private final Map<Stmt, Collection<SootMethod>> stmtToCallees = new ConcurrentHashMap<>();
+
+    private final Map<SootMethod, Collection<Stmt>> methodToCallers = new ConcurrentHashMap<>();
+
+    private final Map<MethodSignature, SootMethod> ownedMethods = new ConcurrentHashMap<>();
+
+    private final AtomicLong resolvedCallSites = new AtomicLong();
+
+    private final AtomicLong resolvedCallees = new AtomicLong();
+
+    public CallGraphICFG(View view, CallGraph callGraph) {
+        this(view, callGraph, false);
+    }
+
+    public CallGraphICFG(View view, CallGraph callGraph, boolean enableExceptions) {
+        super(enableExceptions);
+        this.view = view;
+        this.callGraph = callGraph;
+    }
+
+    @Override
+    protected Map<Stmt, Body> createStmtToOwnerMap() {
+        return new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers the statements of the given method on first use, so that only the bodies of methods the solver reaches
+     * are loaded. Every query that hands out statements of a method goes through here. Registered methods stay
+     * referenced for the lifetime of the ICFG, which keeps a {@link analysis.view.BoundedJavaView} from rebuilding them.
+     */
+    private void own(SootMethod method) {
+        if (method.hasBody()) {
+            ownedMethods.computeIfAbsent(method.getSignature(), signature -> {
+                initializeStmtToOwner(method);
+                return method;
+            });
+        }
+    }
+
+    @Override
+    public Collection<Stmt> getStartPointsOf(SootMethod method) {
+        own(method);
+        return super.getStartPointsOf(method);
+    }
+
+    @Override
+    public Collection<Stmt> getEndPointsOf(SootMethod method) {
+        own(method);
+        return super.getEndPointsOf(method);
+    }
+
+    @Override
+    public Set<Stmt> getCallsFromWithin(SootMethod method) {
+        own(method);
+        return super.getCallsFromWithin(method);
+    }
+
+    public CallGraph getCallGraph() {
+        return callGraph;
+    }
+
+    /**
+     * Returns the number of call sites whose callees were resolved so far.
+     */
+    public long getResolvedCallSites() {
+        return resolvedCallSites.get();
+    }
+
+    /**
+     * Returns the average number of callees with a body over the call sites resolved so far. This is the fan-out of
+     * the call flow function, so it shows how much a more precise call graph saves.
+     */
+    public double getAverageCalleesPerCallSite() {
+        long callSites = resolvedCallSites.get();
+        return callSites == 0 ? 0 : (double) resolvedCallees.get() / callSites;
+    }
+
+    @Override
+    public Collection<SootMethod> getCalleesOfCallAt(Stmt callSite) {
+        Collection<SootMethod> callees = stmtToCallees.get(callSite);
+        if (callees == null) {
+            callees = resolveCallees(callSite);
+            Collection<SootMethod> resolved = stmtToCallees.putIfAbsent(callSite, callees);
+            if (resolved != null) {
+                return resolved;
+            }
+            if (callSite.containsInvokeExpr()) {
+                resolvedCallSites.incrementAndGet();
+                resolvedCallees.addAndGet(callees.size());
+            }
+        }
+        return callees;
+    }
+
+    private Collection<SootMethod> resolveCallees(Stmt callSite) {
+        if (!callSite.containsInvokeExpr()) {
+            return Collections.emptyList();
+        }
+        AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
+        MethodSubSignature invoked = invokeExpr.getMethodSignature().getSubSignature();
+        MethodSignature caller = getMethodOf(callSite).getSignature();
+        Set<MethodSignature> targets = callGraph.callsFrom(caller);
+        // The call graph only records which methods a caller calls, not from which call site. A call without
+        // dynamic dispatch targets exactly the invoked method, if the call graph contains it.
+        boolean exact = (invokeExpr instanceof JSpecialInvokeExpr || invokeExpr instanceof JStaticInvokeExpr)
+                && targets.contains(invokeExpr.getMethodSignature());
+        List<SootMethod> callees = new ArrayList<>();
+        for (MethodSignature target : targets) {
+            if (exact ? !target.equals(invokeExpr.getMethodSignature()) : !target.getSubSignature().equals(invoked)) {
+                continue;
+            }
+            Optional<? extends SootMethod> callee = view.getMethod(target);
+            if (callee.isPresent() && callee.get().hasBody()) {
+                callees.add(callee.get());
+            }
+        }
+        return callees;
+    }
+
+    @Override
+    public Collection<Stmt> getCallersOf(SootMethod callee) {
+        Collection<Stmt> callers = methodToCallers.get(callee);
+        if (callers == null) {
+            callers = resolveCallers(callee);
+            methodToCallers.put(callee, callers);
+        }
+        return callers;
+    }
+
+    private Collection<Stmt> resolveCallers(SootMethod callee) {
+        List<Stmt> callers = new ArrayList<>();
+        for (MethodSignature callerSignature : callGraph.callsTo(callee.getSignature())) {
+            Optional<? extends SootMethod> caller = view.getMethod(callerSignature);
+            if (!caller.isPresent() || !caller.get().hasBody()) {
+                continue;
+            }
+            for (Stmt callSite : getCallsFromWithin(caller.get())) {
+                if (getCalleesOfCallAt(callSite).contains(callee)) {
+                    callers.add(callSite);
+                }
+            }
+        }
+        return callers;
+    }
+}
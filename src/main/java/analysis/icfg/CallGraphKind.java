@@ -0,0 +1,37 @@
+package analysis.icfg;
+
+import sootup.callgraph.CallGraphAlgorithm;
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.callgraph.RapidTypeAnalysisAlgorithm;
+import sootup.core.views.View;
+
+/**
+ * The call-graph algorithms the analyses can be run with. RTA and type propagation both refine CHA, but neither is
+ * more precise than the other in general.
+ */
+public enum CallGraphKind {
+    /**
+     * Class hierarchy analysis: a virtual call targets every implementation in the subtypes of the declared receiver.
+     */
+    CHA,
+    /**
+     * Rapid type analysis: like CHA, restricted to the classes instantiated in the reachable methods.
+     */
+    RTA,
+    /**
+     * CHA, restricted to the types allocated into the receiver within the calling method when they are all known; see
+     * {@link TypePropagationAlgorithm}.
+     */
+    TYPE_PROPAGATION;
+
+    public CallGraphAlgorithm create(View view) {
+        switch (this) {
+            case RTA:
+                return new RapidTypeAnalysisAlgorithm(view);
+            case TYPE_PROPAGATION:
+                return new TypePropagationAlgorithm(view);
+            default:
+                return new ClassHierarchyAnalysisAlgorithm(view);
+        }
+    }
+}
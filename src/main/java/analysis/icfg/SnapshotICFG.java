@@ -0,0 +1,540 @@
+package analysis.icfg;
+
+import analysis.summary.SummaryStore;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An interprocedural CFG read from a binary snapshot of another ICFG, so that later runs skip call-graph construction
+ * and CFG building. The snapshot numbers the statements of its methods densely, method by method in body order, and
+ * stores the successor, predecessor and callee lists of every statement, the callers and start points of every method
+ * and the method boundaries as int arrays. The file is memory-mapped and queried in place.
+ * <p>
+ * The flow functions still need the Jimple statements, so the statements of a method are taken from its body in the
+ * view the first time the solver reaches the method; methods the solver never reaches are never converted. The
+ * snapshot stores a hash of the signature and body of every method and rejects a method whose body changed since, so a
+ * snapshot must be written again whenever the program changes.
+ */
+public class SnapshotICFG implements InterproceduralCFG<Stmt, SootMethod> {
+
+    private static final int MAGIC = 0x49434647;
+
+    private static final int VERSION = 2;
+
+    private static final int CALL = 1;
+
+    private static final int EXIT = 2;
+
+    private static final int START = 4;
+
+    private final View view;
+
+    private final int methodCount;
+
+    private final IntBuffer methodFirstStmt;
+
+    private final IntBuffer entryPoints;
+
+    private final IntBuffer startOffsets;
+
+    private final IntBuffer starts;
+
+    private final IntBuffer callerOffsets;
+
+    private final IntBuffer callers;
+
+    private final IntBuffer flags;
+
+    private final IntBuffer succOffsets;
+
+    private final IntBuffer succs;
+
+    private final IntBuffer predOffsets;
+
+    private final IntBuffer preds;
+
+    private final IntBuffer calleeOffsets;
+
+    private final IntBuffer callees;
+
+    private final List<String> signatures;
+
+    private final List<String> bodyHashes;
+
+    private final Map<String, Integer> methodIds = new HashMap<>();
+
+    private final AtomicReferenceArray<SootMethod> methods;
+
+    private final AtomicReferenceArray<Stmt[]> methodStmts;
+
+    private final Map<Stmt, Integer> stmtIds = new ConcurrentHashMap<>();
+
+    public SnapshotICFG(View view, Path file) {
+        this.view = view;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalStateException("'" + file + "' is not an ICFG snapshot.");
+        }
+        methodCount = buffer.getInt();
+        int stmtCount = buffer.getInt();
+        methodFirstStmt = section(buffer, methodCount + 1);
+        entryPoints = section(buffer, buffer.getInt());
+        startOffsets = section(buffer, methodCount + 1);
+        starts = section(buffer, startOffsets.get(methodCount));
+        callerOffsets = section(buffer, methodCount + 1);
+        callers = section(buffer, callerOffsets.get(methodCount));
+        flags = section(buffer, stmtCount);
+        succOffsets = section(buffer, stmtCount + 1);
+        succs = section(buffer, succOffsets.get(stmtCount));
+        predOffsets = section(buffer, stmtCount + 1);
+        preds = section(buffer, predOffsets.get(stmtCount));
+        calleeOffsets = section(buffer, stmtCount + 1);
+        callees = section(buffer, calleeOffsets.get(stmtCount));
+        signatures = new ArrayList<>(methodCount);
+        for (int m = 0; m < methodCount; m++) {
+            signatures.add(string(buffer));
+            methodIds.put(signatures.get(m), m);
+        }
+        bodyHashes = new ArrayList<>(methodCount);
+        for (int m = 0; m < methodCount; m++) {
+            bodyHashes.add(string(buffer));
+        }
+        methods = new AtomicReferenceArray<>(methodCount);
+        methodStmts = new AtomicReferenceArray<>(methodCount);
+    }
+
+    private static IntBuffer section(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length * Integer.BYTES);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return slice.asIntBuffer();
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a snapshot of the given methods of an ICFG. Calls to and from methods outside of the given ones are
+     * dropped, so the methods should be closed under calls, e.g. the {@link analysis.ReachableMethods} of the entry
+     * points, which are stored with the snapshot.
+     */
+    public static void write(InterproceduralCFG<Stmt, SootMethod> icfg, Collection<SootMethod> methods,
+            List<MethodSignature> entryPoints, Path file) {
+        List<SootMethod> methodList = new ArrayList<>(methods);
+        Map<SootMethod, Integer> methodIds = new IdentityHashMap<>();
+        Map<Stmt, Integer> stmtIds = new IdentityHashMap<>();
+        List<Stmt> stmts = new ArrayList<>();
+        int[] methodFirstStmt = new int[methodList.size() + 1];
+        for (int m = 0; m < methodList.size(); m++) {
+            methodIds.put(methodList.get(m), m);
+            methodFirstStmt[m] = stmts.size();
+            for (Stmt stmt : methodList.get(m).getBody().getStmts()) {
+                stmtIds.put(stmt, stmts.size());
+                stmts.add(stmt);
+            }
+        }
+        methodFirstStmt[methodList.size()] = stmts.size();
+
+        List<Integer> entryPointIds = new ArrayList<>();
+        for (int m = 0; m < methodList.size(); m++) {
+            if (entryPoints.contains(methodList.get(m).getSignature())) {
+                entryPointIds.add(m);
+            }
+        }
+        CompressedLists startLists = new CompressedLists();
+        CompressedLists callerLists = new CompressedLists();
+        for (SootMethod method : methodList) {
+            startLists.add(icfg.getStartPointsOf(method), stmtIds);
+            callerLists.add(icfg.getCallersOf(method), stmtIds);
+        }
+        int[] stmtFlags = new int[stmts.size()];
+        CompressedLists succLists = new CompressedLists();
+        CompressedLists predLists = new CompressedLists();
+        CompressedLists calleeLists = new CompressedLists();
+        for (int s = 0; s < stmts.size(); s++) {
+            Stmt stmt = stmts.get(s);
+            stmtFlags[s] = (icfg.isCallStmt(stmt) ? CALL : 0) | (icfg.isExitStmt(stmt) ? EXIT : 0)
+                    | (icfg.isStartPoint(stmt) ? START : 0);
+            succLists.add(icfg.getSuccsOf(stmt), stmtIds);
+            predLists.add(icfg.getPredsOf(stmt), stmtIds);
+            calleeLists.add(icfg.isCallStmt(stmt) ? icfg.getCalleesOfCallAt(stmt) : Collections.<SootMethod>emptyList(), methodIds);
+        }
+
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "icfg", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(methodList.size());
+                out.writeInt(stmts.size());
+                writeInts(out, methodFirstStmt);
+                out.writeInt(entryPointIds.size());
+                for (int entryPoint : entryPointIds) {
+                    out.writeInt(entryPoint);
+                }
+                startLists.write(out);
+                callerLists.write(out);
+                writeInts(out, stmtFlags);
+                succLists.write(out);
+                predLists.write(out);
+                calleeLists.write(out);
+                for (SootMethod method : methodList) {
+                    writeString(out, method.getSignature().toString());
+                }
+                for (SootMethod method : methodList) {
+                    writeString(out, bodyHash(method));
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Returns the hash of the signature and body of the given method, as {@link analysis.summary.ReachableHashes}
+     * computes it for a method summary.
+     */
+    private static String bodyHash(SootMethod method) {
+        return SummaryStore.sha256(method.getSignature() + "\n" + method.getBody());
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Lists of ids in compressed sparse row form: the offsets of every list, followed by all lists back to back.
+     */
+    private static class CompressedLists {
+
+        private final List<Integer> offsets = new ArrayList<>(Collections.singletonList(0));
+
+        private final List<Integer> values = new ArrayList<>();
+
+        <T> void add(Collection<? extends T> elements, Map<T, Integer> ids) {
+            for (T element : elements) {
+                Integer id = ids.get(element);
+                if (id != null) {
+                    values.add(id);
+                }
+            }
+            offsets.add(values.size());
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    /**
+     * Returns the entry points the snapshot was written for.
+     */
+    public List<MethodSignature> getEntryPoints() {
+        List<MethodSignature> result = new ArrayList<>();
+        for (int i = 0; i < entryPoints.limit(); i++) {
+            result.add(view.getIdentifierFactory().parseMethodSignature(signatures.get(entryPoints.get(i))));
+        }
+        return result;
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public int getStmtCount() {
+        return flags.limit();
+    }
+
+    /**
+     * Returns the number of methods whose statements were taken from the view so far.
+     */
+    public int getMaterializedMethods() {
+        int materialized = 0;
+        for (int m = 0; m < methodCount; m++) {
+            if (methodStmts.get(m) != null) {
+                materialized++;
+            }
+        }
+        return materialized;
+    }
+
+    private SootMethod methodAt(int m) {
+        SootMethod method = methods.get(m);
+        if (method == null) {
+            MethodSignature signature = view.getIdentifierFactory().parseMethodSignature(signatures.get(m));
+            method = view.getMethod(signature).orElseThrow(() -> new IllegalStateException(
+                    "Method " + signatures.get(m) + " of the snapshot is not in the view."));
+            methods.compareAndSet(m, null, method);
+            method = methods.get(m);
+        }
+        return method;
+    }
+
+    /**
+     * Returns the statements of the given method, taking them from its body the first time and checking that the body
+     * is the one the snapshot was written for. Threads that convert the same method at once map its statements to the
+     * same ids, and the first array stored wins.
+     */
+    private Stmt[] stmtsOf(int m) {
+        Stmt[] stmts = methodStmts.get(m);
+        if (stmts != null) {
+            return stmts;
+        }
+        SootMethod method = methodAt(m);
+        if (!bodyHash(method).equals(bodyHashes.get(m))) {
+            throw new IllegalStateException("The body of " + signatures.get(m) + " changed since the snapshot was written.");
+        }
+        int first = methodFirstStmt.get(m);
+        stmts = method.getBody().getStmts().toArray(new Stmt[0]);
+        for (int i = 0; i < stmts.length; i++) {
+            stmtIds.put(stmts[i], first + i);
+        }
+        methodStmts.compareAndSet(m, null, stmts);
+        return methodStmts.get(m);
+    }
+
+    private Stmt stmtAt(int id) {
+        int m = methodIdOfStmt(id);
+        return stmtsOf(m)[id - methodFirstStmt.get(m)];
+    }
+
+    private int methodIdOfStmt(int id) {
+        int low = 0;
+        int high = methodCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (methodFirstStmt.get(mid) <= id) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private int methodIdOf(SootMethod method) {
+        Integer m = methodIds.get(method.getSignature().toString());
+        return m == null ? -1 : m;
+    }
+
+    /**
+     * Returns the id of the given statement. A statement the solver did not get from this ICFG, such as the start
+     * point of a seed method, belongs to a method it got from this ICFG or to an entry point, so only the owning one
+     * among those is converted.
+     */
+    private int idOf(Stmt stmt) {
+        Integer id = stmtIds.get(stmt);
+        if (id == null) {
+            int m = ownerOf(stmt);
+            if (m >= 0) {
+                stmtsOf(m);
+                id = stmtIds.get(stmt);
+            }
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("Statement " + stmt + " is not in the snapshot.");
+        }
+        return id;
+    }
+
+    /**
+     * Returns the unconverted method whose body holds the given statement, looking at the methods resolved so far and
+     * then at the entry points, or -1 if none does.
+     */
+    private int ownerOf(Stmt stmt) {
+        for (int m = 0; m < methodCount; m++) {
+            if (methods.get(m) != null && methodStmts.get(m) == null && holds(methods.get(m), stmt)) {
+                return m;
+            }
+        }
+        for (int i = 0; i < entryPoints.limit(); i++) {
+            int m = entryPoints.get(i);
+            if (methodStmts.get(m) == null && holds(methodAt(m), stmt)) {
+                return m;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean holds(SootMethod method, Stmt stmt) {
+        if (!method.hasBody()) {
+            return false;
+        }
+        for (Stmt candidate : method.getBody().getStmts()) {
+            if (candidate == stmt) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Stmt> stmtList(IntBuffer offsets, IntBuffer values, int id) {
+        final int from = offsets.get(id);
+        final int to = offsets.get(id + 1);
+        if (from == to) {
+            return Collections.emptyList();
+        }
+        return new AbstractList<Stmt>() {
+            @Override
+            public Stmt get(int index) {
+                return stmtAt(values.get(from + index));
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    @Override
+    public SootMethod getMethodOf(Stmt stmt) {
+        return methodAt(methodIdOfStmt(idOf(stmt)));
+    }
+
+    @Override
+    public List<Stmt> getPredsOf(Stmt stmt) {
+        return stmtList(predOffsets, preds, idOf(stmt));
+    }
+
+    @Override
+    public List<Stmt> getSuccsOf(Stmt stmt) {
+        return stmtList(succOffsets, succs, idOf(stmt));
+    }
+
+    @Override
+    public Collection<SootMethod> getCalleesOfCallAt(Stmt callSite) {
+        int id = idOf(callSite);
+        List<SootMethod> result = new ArrayList<>();
+        for (int i = calleeOffsets.get(id); i < calleeOffsets.get(id + 1); i++) {
+            result.add(methodAt(callees.get(i)));
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Stmt> getCallersOf(SootMethod method) {
+        int m = methodIdOf(method);
+        return m < 0 ? Collections.emptyList() : stmtList(callerOffsets, callers, m);
+    }
+
+    @Override
+    public Set<Stmt> getCallsFromWithin(SootMethod method) {
+        int m = methodIdOf(method);
+        if (m < 0) {
+            return Collections.emptySet();
+        }
+        Set<Stmt> calls = new LinkedHashSet<>();
+        for (int id = methodFirstStmt.get(m); id < methodFirstStmt.get(m + 1); id++) {
+            if ((flags.get(id) & CALL) != 0) {
+                calls.add(stmtAt(id));
+            }
+        }
+        return calls;
+    }
+
+    @Override
+    public Collection<Stmt> getStartPointsOf(SootMethod method) {
+        int m = methodIdOf(method);
+        return m < 0 ? Collections.emptyList() : stmtList(startOffsets, starts, m);
+    }
+
+    @Override
+    public Collection<Stmt> getReturnSitesOfCallAt(Stmt callSite) {
+        return getSuccsOf(callSite);
+    }
+
+    @Override
+    public boolean isCallStmt(Stmt stmt) {
+        return (flags.get(idOf(stmt)) & CALL) != 0;
+    }
+
+    @Override
+    public boolean isExitStmt(Stmt stmt) {
+        return (flags.get(idOf(stmt)) & EXIT) != 0;
+    }
+
+    @Override
+    public boolean isStartPoint(Stmt stmt) {
+        return (flags.get(idOf(stmt)) & START) != 0;
+    }
+
+    /**
+     * Converts every method of the snapshot, since the answer covers all of them.
+     */
+    @Override
+    public Set<Stmt> allNonCallStartNodes() {
+        Set<Stmt> result = new LinkedHashSet<>();
+        for (int id = 0; id < flags.limit(); id++) {
+            if ((flags.get(id) & (CALL | START)) == 0) {
+                result.add(stmtAt(id));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isFallThroughSuccessor(Stmt stmt, Stmt succ) {
+        int id = idOf(stmt);
+        int first = succOffsets.get(id);
+        return stmt.fallsThrough() && first < succOffsets.get(id + 1) && stmtAt(succs.get(first)) == succ;
+    }
+
+    @Override
+    public boolean isBranchTarget(Stmt stmt, Stmt succ) {
+        return stmt.branches() && getSuccsOf(stmt).contains(succ);
+    }
+}
@@ -0,0 +1,59 @@
+package analysis.icfg;
+
+import sootup.core.jimple.common.stmt.Stmt;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense int numbers to statements in the order they are first seen, so that per-statement data can live in
+ * arrays indexed by number instead of in maps keyed by statement. Statements compare by identity, so equal-looking
+ * statements of different places get different numbers. Safe to use from several threads.
+ */
+public class StmtNumbering {
+
+    private final Map<Stmt, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * The statements by number. Grown by copying under the lock of this numbering, so it can be read without locking.
+     */
+    private volatile Stmt[] stmts = new Stmt[0];
+
+    private int count;
+
+    public int idOf(Stmt stmt) {
+        Integer id = ids.get(stmt);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(stmt);
+            if (id == null) {
+                if (count == stmts.length) {
+                    stmts = Arrays.copyOf(stmts, Math.max(64, 2 * count));
+                }
+                stmts[count] = stmt;
+                id = count++;
+                ids.put(stmt, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the number of the given statement, or -1 if it has none yet.
+     */
+    public int find(Stmt stmt) {
+        Integer id = ids.get(stmt);
+        return id == null ? -1 : id;
+    }
+
+    public Stmt get(int id) {
+        return stmts[id];
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+}
@@ -0,0 +1,102 @@
+package analysis.icfg;
+
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JCastExpr;
+import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
+import sootup.core.jimple.common.expr.JNewExpr;
+import sootup.core.jimple.common.expr.JVirtualInvokeExpr;
+import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A cheap, intraprocedural type propagation on top of CHA. For a virtual or interface call, the allocation types of
+ * the receiver are propagated through local copies and casts within the calling method; if every definition of the
+ * receiver traces back to a {@code new} expression, the call dispatches only on the allocated types. Receivers that
+ * come from parameters, fields or call results fall back to the CHA targets.
+ */
+public class TypePropagationAlgorithm extends ClassHierarchyAnalysisAlgorithm {
+
+    public TypePropagationAlgorithm(View view) {
+        super(view);
+    }
+
+    @Override
+    protected Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr) {
+        if (!(invokeExpr instanceof JVirtualInvokeExpr) && !(invokeExpr instanceof JInterfaceInvokeExpr) || !method.hasBody()) {
+            return super.resolveCall(method, invokeExpr);
+        }
+        Set<ClassType> types = allocatedTypes(method, ((AbstractInstanceInvokeExpr) invokeExpr).getBase());
+        if (types == null) {
+            return super.resolveCall(method, invokeExpr);
+        }
+        List<MethodSignature> targets = new ArrayList<>();
+        for (ClassType type : types) {
+            MethodSignature dispatched = view.getIdentifierFactory().getMethodSignature(type, invokeExpr.getMethodSignature().getSubSignature());
+            Optional<MethodSignature> target = resolveConcreteDispatch(view, dispatched);
+            target.ifPresent(targets::add);
+        }
+        return targets.stream();
+    }
+
+    /**
+     * Returns the types allocated into the given local, or {@code null} if some value of the local does not come from
+     * an allocation in the method.
+     */
+    private static Set<ClassType> allocatedTypes(SootMethod method, Local receiver) {
+        Set<ClassType> types = new LinkedHashSet<>();
+        Set<Local> visited = new HashSet<>();
+        Deque<Local> worklist = new ArrayDeque<>();
+        worklist.add(receiver);
+        while (!worklist.isEmpty()) {
+            Local local = worklist.poll();
+            if (!visited.add(local)) {
+                continue;
+            }
+            boolean defined = false;
+            for (Stmt stmt : method.getBody().getStmts()) {
+                if (!(stmt instanceof AbstractDefinitionStmt) || !local.equals(((AbstractDefinitionStmt) stmt).getLeftOp())) {
+                    continue;
+                }
+                if (!(stmt instanceof JAssignStmt)) {
+                    // Parameters and this are defined by identity statements; their types are unknown here.
+                    return null;
+                }
+                defined = true;
+                Value right = ((JAssignStmt) stmt).getRightOp();
+                if (right instanceof JCastExpr) {
+                    right = ((JCastExpr) right).getOp();
+                }
+                if (right instanceof JNewExpr) {
+                    types.add(((JNewExpr) right).getType());
+                } else if (right instanceof Local) {
+                    worklist.add((Local) right);
+                } else {
+                    return null;
+                }
+            }
+            if (!defined) {
+                return null;
+            }
+        }
+        return types;
+    }
+}
@@ -0,0 +1,25 @@
+package analysis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The number of distinct facts the flow functions of one method were applied to crossed a threshold within one solve.
+ */
+@Name("analysis.FactExplosion")
+@Label("Fact Explosion")
+@Category("Taint Analysis")
+@Description("The distinct facts flowing through a method crossed a threshold")
+@StackTrace(false)
+public class FactExplosionEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Threshold")
+    int threshold;
+}
@@ -0,0 +1,132 @@
+package analysis.jfr;
+
+import analysis.fact.DataFlowFact;
+import analysis.stats.FlowFunctionKind;
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.InterproceduralCFG;
+import jdk.jfr.EventType;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Emits {@link FlowFunctionEvent}s for a sample of the applications of the flow functions of another
+ * {@link FlowFunctions}, and {@link FactExplosionEvent}s when the distinct facts that reach the flow functions of a
+ * method cross {@value #FIRST_THRESHOLD}, four times that, and so on. While neither event is enabled, an application
+ * costs two flag reads. Use {@link FlightRecording#wrap} to leave the flow functions alone if the flight recorder was
+ * never started.
+ */
+public class FlightRecorderFlowFunctions implements FlowFunctions<Stmt, DataFlowFact, SootMethod> {
+
+    public static final int DEFAULT_SAMPLE_RATE = 1024;
+
+    /**
+     * The system property that overrides {@link #DEFAULT_SAMPLE_RATE} for {@link FlightRecording#wrap}.
+     */
+    public static final String SAMPLE_RATE_PROPERTY = "analysis.jfr.sampleRate";
+
+    static final int FIRST_THRESHOLD = 64;
+
+    /**
+     * The distinct facts seen in one method.
+     */
+    private static final class MethodFacts {
+
+        final String method;
+
+        final Set<DataFlowFact> facts = ConcurrentHashMap.newKeySet();
+
+        final AtomicInteger count = new AtomicInteger();
+
+        MethodFacts(SootMethod method) {
+            this.method = method.getSignature().toString();
+        }
+    }
+
+    private final FlowFunctions<Stmt, DataFlowFact, SootMethod> flowFunctions;
+
+    private final InterproceduralCFG<Stmt, SootMethod> icfg;
+
+    private final int sampleRate;
+
+    private final EventType flowFunctionType = EventType.getEventType(FlowFunctionEvent.class);
+
+    private final EventType factExplosionType = EventType.getEventType(FactExplosionEvent.class);
+
+    private final Map<SootMethod, MethodFacts> factsByMethod = new ConcurrentHashMap<>();
+
+    /**
+     * @param sampleRate one in how many applications is recorded on average
+     */
+    public FlightRecorderFlowFunctions(FlowFunctions<Stmt, DataFlowFact, SootMethod> flowFunctions,
+                                       InterproceduralCFG<Stmt, SootMethod> icfg, int sampleRate) {
+        this.flowFunctions = flowFunctions;
+        this.icfg = icfg;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getNormalFlowFunction(Stmt curr, Stmt succ) {
+        return record(flowFunctions.getNormalFlowFunction(curr, succ), FlowFunctionKind.NORMAL, curr, icfg.getMethodOf(curr));
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callStmt, SootMethod destinationMethod) {
+        return record(flowFunctions.getCallFlowFunction(callStmt, destinationMethod), FlowFunctionKind.CALL, callStmt, icfg.getMethodOf(callStmt));
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod calleeMethod, Stmt exitStmt, Stmt returnSite) {
+        return record(flowFunctions.getReturnFlowFunction(callSite, calleeMethod, exitStmt, returnSite), FlowFunctionKind.RETURN, exitStmt, calleeMethod);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+        return record(flowFunctions.getCallToReturnFlowFunction(callSite, returnSite), FlowFunctionKind.CALL_TO_RETURN, callSite, icfg.getMethodOf(callSite));
+    }
+
+    private FlowFunction<DataFlowFact> record(FlowFunction<DataFlowFact> flowFunction, FlowFunctionKind kind, Stmt stmt, SootMethod method) {
+        final MethodFacts methodFacts = factsByMethod.computeIfAbsent(method, MethodFacts::new);
+        return fact -> {
+            if (factExplosionType.isEnabled() && methodFacts.facts.add(fact)) {
+                int count = methodFacts.count.incrementAndGet();
+                if (isThreshold(count)) {
+                    FactExplosionEvent event = new FactExplosionEvent();
+                    event.method = methodFacts.method;
+                    event.threshold = count;
+                    event.commit();
+                }
+            }
+            if (!flowFunctionType.isEnabled() || ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+                return flowFunction.computeTargets(fact);
+            }
+            FlowFunctionEvent event = new FlowFunctionEvent();
+            event.begin();
+            Set<DataFlowFact> out = flowFunction.computeTargets(fact);
+            event.end();
+            if (event.shouldCommit()) {
+                event.kind = kind.name();
+                event.method = methodFacts.method;
+                event.stmt = String.valueOf(stmt);
+                event.fact = fact.toString();
+                event.targets = out.size();
+                event.commit();
+            }
+            return out;
+        };
+    }
+
+    /**
+     * Returns whether the given count is {@value #FIRST_THRESHOLD} times a power of four.
+     */
+    static boolean isThreshold(int count) {
+        return count >= FIRST_THRESHOLD && Integer.bitCount(count) == 1
+                && Integer.numberOfTrailingZeros(count / FIRST_THRESHOLD) % 2 == 0;
+    }
+}
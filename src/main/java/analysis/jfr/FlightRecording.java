@@ -0,0 +1,75 @@
+package analysis.jfr;
+
+import analysis.fact.DataFlowFact;
+import heros.FlowFunctions;
+import heros.InterproceduralCFG;
+import jdk.jfr.FlightRecorder;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.function.LongConsumer;
+
+/**
+ * The entry point of the analysis to its flight recorder events. The rest of the analysis only calls this class, which
+ * touches the events and the flight recorder itself only once it has checked that the runtime ships the
+ * {@code jdk.jfr} module and that the flight recorder has been started. On a runtime without the module, the events
+ * are never loaded and recording is simply off.
+ */
+public final class FlightRecording {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private FlightRecording() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, FlightRecording.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the flight recorder has been started in this process.
+     */
+    public static boolean isRecording() {
+        return AVAILABLE && FlightRecorder.isInitialized();
+    }
+
+    /**
+     * Records a sink hit; see {@link SinkHitEvent}.
+     */
+    public static void sinkHit(Object method, Object sink, Object fact, Object source) {
+        if (isRecording()) {
+            SinkHitEvent.emit(method, sink, fact, source);
+        }
+    }
+
+    /**
+     * Starts recording the solve of the given entry point. Returns what ends the recording with the propagations of
+     * the solver, or {@code null} if solves are not being recorded; see {@link SolveEvent}.
+     */
+    public static LongConsumer beginSolve(String entryPoint) {
+        if (!isRecording()) {
+            return null;
+        }
+        SolveEvent event = SolveEvent.begin(entryPoint);
+        return event == null ? null : event::end;
+    }
+
+    /**
+     * Returns the given flow functions with events if the flight recorder has been started, otherwise the flow
+     * functions themselves; see {@link FlightRecorderFlowFunctions}. Since a problem wraps its flow functions when its
+     * solver is created, a recording started later covers the entry points solved from then on.
+     */
+    public static FlowFunctions<Stmt, DataFlowFact, SootMethod> wrap(FlowFunctions<Stmt, DataFlowFact, SootMethod> flowFunctions,
+                                                                    InterproceduralCFG<Stmt, SootMethod> icfg) {
+        if (!isRecording()) {
+            return flowFunctions;
+        }
+        return new FlightRecorderFlowFunctions(flowFunctions, icfg,
+                Integer.getInteger(FlightRecorderFlowFunctions.SAMPLE_RATE_PROPERTY, FlightRecorderFlowFunctions.DEFAULT_SAMPLE_RATE));
+    }
+}
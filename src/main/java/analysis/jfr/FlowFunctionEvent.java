@@ -0,0 +1,34 @@
+package analysis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One sampled application of a flow function, with its duration.
+ */
+@Name("analysis.FlowFunction")
+@Label("Flow Function Application")
+@Category("Taint Analysis")
+@Description("A sampled application of a flow function to a fact")
+@StackTrace(false)
+public class FlowFunctionEvent extends Event {
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Method")
+    String method;
+
+    @Label("Statement")
+    String stmt;
+
+    @Label("Fact")
+    String fact;
+
+    @Label("Targets")
+    int targets;
+}
@@ -0,0 +1,47 @@
+package analysis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A tainted fact that reached a sink, as reported to the {@link analysis.VulnerabilityReporter}.
+ */
+@Name("analysis.SinkHit")
+@Label("Sink Hit")
+@Category("Taint Analysis")
+@Description("A tainted fact reached a sink")
+@StackTrace(false)
+public class SinkHitEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Sink")
+    String sink;
+
+    @Label("Fact")
+    String fact;
+
+    @Label("Source")
+    String source;
+
+    /**
+     * Records a sink hit if sink hits are being recorded, and describes the hit only if it is recorded. Called through
+     * {@link FlightRecording#sinkHit}.
+     */
+    static void emit(Object method, Object sink, Object fact, Object source) {
+        SinkHitEvent event = new SinkHitEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.method = String.valueOf(method);
+        event.sink = String.valueOf(sink);
+        event.fact = String.valueOf(fact);
+        event.source = source == null ? null : source.toString();
+        event.commit();
+    }
+}
@@ -0,0 +1,45 @@
+package analysis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The solve of one entry point, from the start of its solver to its end.
+ */
+@Name("analysis.Solve")
+@Label("IFDS Solve")
+@Category("Taint Analysis")
+@Description("The IFDS solve of one entry point")
+@StackTrace(false)
+public class SolveEvent extends Event {
+
+    @Label("Entry Point")
+    String entryPoint;
+
+    @Label("Propagations")
+    @Description("The path edges the solver scheduled for processing")
+    long propagations;
+
+    /**
+     * Returns a started event if solves are being recorded, otherwise {@code null}. Called through
+     * {@link FlightRecording#beginSolve}.
+     */
+    static SolveEvent begin(String entryPoint) {
+        SolveEvent event = new SolveEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.entryPoint = entryPoint;
+        event.begin();
+        return event;
+    }
+
+    public void end(long propagations) {
+        this.propagations = propagations;
+        commit();
+    }
+}
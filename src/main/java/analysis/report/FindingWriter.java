@@ -0,0 +1,130 @@
+package analysis.report;
+
+import analysis.Finding;
+import analysis.FindingListener;
+import analysis.budget.BudgetKind;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the findings of an analysis as they are reported, flushing after each one, so that a reader sees them while
+ * the analysis is still running. Register it with {@link analysis.VulnerabilityReporter#addListener}, and call
+ * {@link #finish} once the analysis is done. Every finding is written as a SARIF result object.
+ */
+public abstract class FindingWriter implements FindingListener, Closeable {
+
+    public static final String RULE_ID = "taint-flow";
+
+    protected final Writer out;
+
+    private int written;
+
+    protected FindingWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public synchronized void onFinding(Finding finding) {
+        try {
+            writeResult(toResult(finding), written++);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write a finding.", e);
+        }
+    }
+
+    /**
+     * Writes what follows the findings, including the entry points whose results are incomplete, if any.
+     */
+    public synchronized void finish(Map<MethodSignature, Set<BudgetKind>> incomplete) {
+        try {
+            writeEnd(incomplete);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not finish the findings.", e);
+        }
+    }
+
+    /**
+     * Returns the number of findings written so far.
+     */
+    public synchronized int getWritten() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Writes the given SARIF result, which is the given number of results after the first one.
+     */
+    protected abstract void writeResult(String result, int index) throws IOException;
+
+    protected abstract void writeEnd(Map<MethodSignature, Set<BudgetKind>> incomplete) throws IOException;
+
+    /**
+     * Returns the given finding as a SARIF result object on a single line.
+     */
+    static String toResult(Finding finding) {
+        SootMethod method = finding.getMethod();
+        Stmt sink = finding.getSink();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"ruleId\": ").append(Json.quote(RULE_ID))
+                .append(", \"level\": \"error\"")
+                .append(", \"message\": {\"text\": ").append(Json.quote(message(finding))).append("}")
+                .append(", \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": ")
+                .append(Json.quote(sourceFile(method.getDeclaringClassType()))).append("}");
+        int line = sink.getPositionInfo().getStmtPosition().getFirstLine();
+        if (line > 0) {
+            json.append(", \"region\": {\"startLine\": ").append(line).append("}");
+        }
+        json.append("}, \"logicalLocations\": [{\"fullyQualifiedName\": ").append(Json.quote(method.getSignature().toString()))
+                .append(", \"kind\": \"function\"}]}]")
+                .append(", \"properties\": {\"sink\": ").append(Json.quote(sink.toString()))
+                .append(", \"fact\": ").append(Json.quote(String.valueOf(finding.getFact())))
+                .append(", \"source\": ").append(Json.quote(finding.getSource() == null ? null : finding.getSource().toString()))
+                .append("}}");
+        return json.toString();
+    }
+
+    private static String message(Finding finding) {
+        return finding.getSource() == null
+                ? "Tainted data reaches the sink '" + finding.getSink() + "'."
+                : "Tainted data from '" + finding.getSource() + "' reaches the sink '" + finding.getSink() + "'.";
+    }
+
+    /**
+     * Returns the path of the source file of the given class relative to a source root, as javac lays it out.
+     */
+    static String sourceFile(ClassType classType) {
+        String className = classType.getClassName();
+        int nested = className.indexOf('$');
+        if (nested > 0) {
+            className = className.substring(0, nested);
+        }
+        String packageName = classType.getPackageName().getName();
+        return packageName.isEmpty() ? className + ".java" : packageName.replace('.', '/') + "/" + className + ".java";
+    }
+
+    /**
+     * Returns the limits an incomplete entry point hit as a JSON array.
+     */
+    static String exceeded(Set<BudgetKind> exceeded) {
+        StringBuilder json = new StringBuilder("[");
+        for (BudgetKind kind : exceeded) {
+            json.append(json.length() > 1 ? ", " : "").append(Json.quote(kind.name()));
+        }
+        return json.append("]").toString();
+    }
+}
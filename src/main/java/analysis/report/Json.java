@@ -0,0 +1,31 @@
+package analysis.report;
+
+/**
+ * Helpers for the JSON the analysis writes by hand.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Returns the given string as a JSON string literal, or {@code null} for {@code null}.
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,34 @@
+package analysis.report;
+
+import analysis.budget.BudgetKind;
+import sootup.core.signatures.MethodSignature;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes one JSON object per line: a SARIF result per finding and, after the last finding, an
+ * {@code {"incomplete": ...}} object per entry point whose solve hit a limit of its budget.
+ */
+public class JsonLinesFindingWriter extends FindingWriter {
+
+    public JsonLinesFindingWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    protected void writeResult(String result, int index) throws IOException {
+        out.write(result);
+        out.write('\n');
+    }
+
+    @Override
+    protected void writeEnd(Map<MethodSignature, Set<BudgetKind>> incomplete) throws IOException {
+        for (Map.Entry<MethodSignature, Set<BudgetKind>> entryPoint : incomplete.entrySet()) {
+            out.write("{\"incomplete\": {\"entryPoint\": " + Json.quote(entryPoint.getKey().toString())
+                    + ", \"exceeded\": " + exceeded(entryPoint.getValue()) + "}}\n");
+        }
+    }
+}
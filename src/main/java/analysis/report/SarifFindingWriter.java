@@ -0,0 +1,54 @@
+package analysis.report;
+
+import analysis.budget.BudgetKind;
+import sootup.core.signatures.MethodSignature;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a SARIF 2.1.0 log with a single run. The head of the log is written right away and every finding as soon as
+ * it is reported; the log is only complete after {@link #finish}, which records entry points whose solve hit a limit
+ * as warnings of the invocation.
+ */
+public class SarifFindingWriter extends FindingWriter {
+
+    public static final String TOOL_NAME = "ifds-taint-analysis";
+
+    public SarifFindingWriter(Writer out) throws IOException {
+        super(out);
+        out.write("{\n");
+        out.write("  \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n");
+        out.write("  \"version\": \"2.1.0\",\n");
+        out.write("  \"runs\": [{\n");
+        out.write("    \"tool\": {\"driver\": {\"name\": " + Json.quote(TOOL_NAME) + ", \"rules\": [{\"id\": " + Json.quote(RULE_ID)
+                + ", \"shortDescription\": {\"text\": \"User-controlled data reaches a sensitive sink.\"}}]}},\n");
+        out.write("    \"results\": [");
+        out.flush();
+    }
+
+    @Override
+    protected void writeResult(String result, int index) throws IOException {
+        out.write(index == 0 ? "\n      " : ",\n      ");
+        out.write(result);
+    }
+
+    @Override
+    protected void writeEnd(Map<MethodSignature, Set<BudgetKind>> incomplete) throws IOException {
+        out.write(getWritten() == 0 ? "],\n" : "\n    ],\n");
+        out.write("    \"invocations\": [{\"executionSuccessful\": true, \"toolExecutionNotifications\": [");
+        String separator = "\n      ";
+        for (Map.Entry<MethodSignature, Set<BudgetKind>> entryPoint : incomplete.entrySet()) {
+            out.write(separator + "{\"level\": \"warning\", \"message\": {\"text\": "
+                    + Json.quote("Results of " + entryPoint.getKey() + " are incomplete; exceeded " + entryPoint.getValue() + ".")
+                    + "}, \"properties\": {\"entryPoint\": " + Json.quote(entryPoint.getKey().toString())
+                    + ", \"exceeded\": " + exceeded(entryPoint.getValue()) + "}}");
+            separator = ",\n      ";
+        }
+        out.write(incomplete.isEmpty() ? "]}]\n" : "\n    ]}]\n");
+        out.write("  }]\n");
+        out.write("}\n");
+    }
+}
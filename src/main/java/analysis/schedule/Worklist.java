@@ -0,0 +1,292 @@
+package analysis.schedule;
+
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import heros.solver.PathEdge;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The pending path edges of a solver, as the tasks that process them, in the order of a {@link WorklistStrategy}.
+ * Worklists are not thread-safe; {@link WorklistQueue} guards them.
+ */
+abstract class Worklist {
+
+    abstract void add(Runnable task, PathEdge<Stmt, DataFlowFact> edge);
+
+    /**
+     * Removes and returns the next task, or returns {@code null} if there is none.
+     */
+    abstract Runnable poll();
+
+    /**
+     * Returns the task {@link #poll} would return next, or {@code null} if there is none.
+     */
+    abstract Runnable peek();
+
+    abstract int size();
+
+    /**
+     * Adds the pending tasks to the given collection, in no particular order.
+     */
+    abstract void copyTo(Collection<Runnable> tasks);
+
+    static final class Fifo extends Worklist {
+
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        void add(Runnable task, PathEdge<Stmt, DataFlowFact> edge) {
+            tasks.addLast(task);
+        }
+
+        @Override
+        Runnable poll() {
+            return tasks.pollFirst();
+        }
+
+        @Override
+        Runnable peek() {
+            return tasks.peekFirst();
+        }
+
+        @Override
+        int size() {
+            return tasks.size();
+        }
+
+        @Override
+        void copyTo(Collection<Runnable> tasks) {
+            tasks.addAll(this.tasks);
+        }
+    }
+
+    static final class Lifo extends Worklist {
+
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        void add(Runnable task, PathEdge<Stmt, DataFlowFact> edge) {
+            tasks.addFirst(task);
+        }
+
+        @Override
+        Runnable poll() {
+            return tasks.pollFirst();
+        }
+
+        @Override
+        Runnable peek() {
+            return tasks.peekFirst();
+        }
+
+        @Override
+        int size() {
+            return tasks.size();
+        }
+
+        @Override
+        void copyTo(Collection<Runnable> tasks) {
+            tasks.addAll(this.tasks);
+        }
+    }
+
+    static final class ReversePostorder extends Worklist {
+
+        private static final class Entry {
+
+            final int order;
+
+            final long sequence;
+
+            final Runnable task;
+
+            Entry(int order, long sequence, Runnable task) {
+                this.order = order;
+                this.sequence = sequence;
+                this.task = task;
+            }
+        }
+
+        private final InterproceduralCFG<Stmt, SootMethod> icfg;
+
+        private final Map<Stmt, Integer> orderOf = new HashMap<>();
+
+        private final PriorityQueue<Entry> entries = new PriorityQueue<>((a, b) -> a.order != b.order
+                ? Integer.compare(a.order, b.order) : Long.compare(a.sequence, b.sequence));
+
+        private long sequence;
+
+        ReversePostorder(InterproceduralCFG<Stmt, SootMethod> icfg) {
+            this.icfg = icfg;
+        }
+
+        @Override
+        void add(Runnable task, PathEdge<Stmt, DataFlowFact> edge) {
+            entries.add(new Entry(edge == null ? -1 : orderOf(edge.getTarget()), sequence++, task));
+        }
+
+        private int orderOf(Stmt stmt) {
+            Integer order = orderOf.get(stmt);
+            if (order == null) {
+                number(icfg.getMethodOf(stmt));
+                order = orderOf.get(stmt);
+                if (order == null) {
+                    // Not reachable from the start points of its method, e.g. an exception handler.
+                    order = Integer.MAX_VALUE;
+                    orderOf.put(stmt, order);
+                }
+            }
+            return order;
+        }
+
+        /**
+         * Numbers the statements of the given method in reverse postorder of a depth-first search from its start
+         * points.
+         */
+        private void number(SootMethod method) {
+            List<Stmt> postorder = new ArrayList<>();
+            Set<Stmt> visited = new HashSet<>();
+            Deque<Iterator<Stmt>> stack = new ArrayDeque<>();
+            Deque<Stmt> path = new ArrayDeque<>();
+            for (Stmt start : icfg.getStartPointsOf(method)) {
+                if (!visited.add(start)) {
+                    continue;
+                }
+                path.push(start);
+                stack.push(icfg.getSuccsOf(start).iterator());
+                while (!stack.isEmpty()) {
+                    Iterator<Stmt> succs = stack.peek();
+                    if (succs.hasNext()) {
+                        Stmt succ = succs.next();
+                        if (visited.add(succ)) {
+                            path.push(succ);
+                            stack.push(icfg.getSuccsOf(succ).iterator());
+                        }
+                    } else {
+                        stack.pop();
+                        postorder.add(path.pop());
+                    }
+                }
+            }
+            for (int i = 0; i < postorder.size(); i++) {
+                orderOf.put(postorder.get(i), postorder.size() - 1 - i);
+            }
+        }
+
+        @Override
+        Runnable poll() {
+            Entry entry = entries.poll();
+            return entry == null ? null : entry.task;
+        }
+
+        @Override
+        Runnable peek() {
+            Entry entry = entries.peek();
+            return entry == null ? null : entry.task;
+        }
+
+        @Override
+        int size() {
+            return entries.size();
+        }
+
+        @Override
+        void copyTo(Collection<Runnable> tasks) {
+            for (Entry entry : entries) {
+                tasks.add(entry.task);
+            }
+        }
+    }
+
+    static final class MethodBatched extends Worklist {
+
+        private final InterproceduralCFG<Stmt, SootMethod> icfg;
+
+        /**
+         * The pending tasks by method, in the order the methods got their first pending task. Tasks without an edge
+         * are kept under {@code null}.
+         */
+        private final Map<SootMethod, Deque<Runnable>> byMethod = new LinkedHashMap<>();
+
+        private SootMethod currentMethod;
+
+        /**
+         * The batch being processed, which stays current until it is found empty, so that the edges the method gets
+         * while its last task runs still join it; {@code null} between batches.
+         */
+        private Deque<Runnable> current;
+
+        private int size;
+
+        MethodBatched(InterproceduralCFG<Stmt, SootMethod> icfg) {
+            this.icfg = icfg;
+        }
+
+        @Override
+        void add(Runnable task, PathEdge<Stmt, DataFlowFact> edge) {
+            SootMethod method = edge == null ? null : icfg.getMethodOf(edge.getTarget());
+            byMethod.computeIfAbsent(method, m -> new ArrayDeque<>()).addLast(task);
+            size++;
+        }
+
+        @Override
+        Runnable poll() {
+            if (current != null && current.isEmpty()) {
+                byMethod.remove(currentMethod);
+                currentMethod = null;
+                current = null;
+            }
+            if (current == null) {
+                Iterator<Map.Entry<SootMethod, Deque<Runnable>>> methods = byMethod.entrySet().iterator();
+                if (!methods.hasNext()) {
+                    return null;
+                }
+                Map.Entry<SootMethod, Deque<Runnable>> next = methods.next();
+                currentMethod = next.getKey();
+                current = next.getValue();
+            }
+            size--;
+            return current.pollFirst();
+        }
+
+        @Override
+        Runnable peek() {
+            if (current != null && !current.isEmpty()) {
+                return current.peekFirst();
+            }
+            // Only the current batch can be empty.
+            for (Deque<Runnable> batch : byMethod.values()) {
+                if (!batch.isEmpty()) {
+                    return batch.peekFirst();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        void copyTo(Collection<Runnable> tasks) {
+            for (Deque<Runnable> batch : byMethod.values()) {
+                tasks.addAll(batch);
+            }
+        }
+    }
+}
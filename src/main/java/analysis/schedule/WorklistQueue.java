@@ -0,0 +1,210 @@
+package analysis.schedule;
+
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import heros.solver.PathEdge;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The work queue of a solver's executor that hands out the pending path edges in the order of a
+ * {@link WorklistStrategy}. The executor only sees the tasks, so the solver announces the edge of each task it
+ * schedules with {@link #scheduling} on the scheduling thread; tasks without an announced edge, such as those of the
+ * value computation, are handed out before all others.
+ */
+public class WorklistQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private final Worklist worklist;
+
+    private final Deque<Runnable> unordered = new ArrayDeque<>();
+
+    private final ThreadLocal<PathEdge<Stmt, DataFlowFact>> scheduledEdge = new ThreadLocal<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private int maxSize;
+
+    public WorklistQueue(WorklistStrategy strategy, InterproceduralCFG<Stmt, SootMethod> icfg) {
+        this.worklist = strategy.create(icfg);
+    }
+
+    /**
+     * Announces the edge of the task the current thread is about to schedule, or clears it for {@code null}.
+     */
+    public void scheduling(PathEdge<Stmt, DataFlowFact> edge) {
+        if (edge == null) {
+            scheduledEdge.remove();
+        } else {
+            scheduledEdge.set(edge);
+        }
+    }
+
+    /**
+     * Returns the most tasks that were pending at once.
+     */
+    public int getMaxSize() {
+        lock.lock();
+        try {
+            return maxSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        PathEdge<Stmt, DataFlowFact> edge = scheduledEdge.get();
+        lock.lock();
+        try {
+            if (edge == null) {
+                unordered.add(task);
+            } else {
+                worklist.add(task, edge);
+            }
+            maxSize = Math.max(maxSize, sizeLocked());
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) {
+        offer(task);
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+        return offer(task);
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return pollLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Runnable task;
+            while ((task = pollLocked()) == null) {
+                notEmpty.await();
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            Runnable task;
+            while ((task = pollLocked()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Runnable pollLocked() {
+        Runnable task = unordered.pollFirst();
+        return task != null ? task : worklist.poll();
+    }
+
+    private int sizeLocked() {
+        return unordered.size() + worklist.size();
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            Runnable task = unordered.peekFirst();
+            return task != null ? task : worklist.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return sizeLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> tasks) {
+        return drainTo(tasks, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> tasks, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            Runnable task;
+            while (drained < maxElements && (task = pollLocked()) != null) {
+                tasks.add(task);
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the pending tasks, in no particular order.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> tasks = new ArrayList<>();
+        lock.lock();
+        try {
+            tasks.addAll(unordered);
+            worklist.copyTo(tasks);
+        } finally {
+            lock.unlock();
+        }
+        return Collections.unmodifiableList(tasks).iterator();
+    }
+}
@@ -0,0 +1,44 @@
+package analysis.schedule;
+
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+/**
+ * The orders in which a solver can process its pending path edges; see {@link WorklistQueue}. Without a strategy, the
+ * solver processes them first in, first out, as {@link #FIFO} does. Edges that are scheduled from several solver
+ * threads are ordered as they reach the worklist.
+ */
+public enum WorklistStrategy {
+    /**
+     * First in, first out: the facts spread breadth-first.
+     */
+    FIFO,
+    /**
+     * Last in, first out: a fact is followed as far as possible before the next one, depth-first.
+     */
+    LIFO,
+    /**
+     * The edges to statements earlier in the reverse postorder of their method first, so that the facts of all
+     * branches reach a join point before they flow on from it. Ties go first in, first out.
+     */
+    REVERSE_POSTORDER,
+    /**
+     * All pending edges of one method before those of the next, first in, first out within a method and by the
+     * method's first pending edge across methods. Keeps the working set of a solver within a method body.
+     */
+    METHOD_BATCHED;
+
+    Worklist create(InterproceduralCFG<Stmt, SootMethod> icfg) {
+        switch (this) {
+            case LIFO:
+                return new Worklist.Lifo();
+            case REVERSE_POSTORDER:
+                return new Worklist.ReversePostorder(icfg);
+            case METHOD_BATCHED:
+                return new Worklist.MethodBatched(icfg);
+            default:
+                return new Worklist.Fifo();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package analysis.sparse;
+
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds, for a fact arriving at a statement, the next statements that may change the fact: copies that define or use
+ * its base local or field, as decided by {@link TaintAnalysisFlowFunctions#mayAffect}. Calls, exits and start points
+ * always stop the search, since the solver handles them specially. Results are memoized per statement and fact, so
+ * the control flow between two uses is only walked once per fact.
+ */
+public class DefUseIndex {
+
+    private final InterproceduralCFG<Stmt, SootMethod> icfg;
+
+    private final TaintAnalysisFlowFunctions flowFunctions;
+
+    private final Map<Stmt, Map<DataFlowFact, List<Stmt>>> nextUses = new ConcurrentHashMap<>();
+
+    public DefUseIndex(InterproceduralCFG<Stmt, SootMethod> icfg, TaintAnalysisFlowFunctions flowFunctions) {
+        this.icfg = icfg;
+        this.flowFunctions = flowFunctions;
+    }
+
+    /**
+     * Returns the statements the fact reaches unchanged from the given statement and which may change it. This is
+     * the statement itself if it may change the fact.
+     */
+    public List<Stmt> nextUses(Stmt stmt, DataFlowFact fact) {
+        if (isUse(stmt, fact)) {
+            return Collections.singletonList(stmt);
+        }
+        Map<DataFlowFact, List<Stmt>> byFact = nextUses.computeIfAbsent(stmt, k -> new ConcurrentHashMap<>());
+        List<Stmt> uses = byFact.get(fact);
+        if (uses == null) {
+            uses = search(stmt, fact);
+            byFact.put(fact, uses);
+        }
+        return uses;
+    }
+
+    private boolean isUse(Stmt stmt, DataFlowFact fact) {
+        return icfg.isCallStmt(stmt) || icfg.isExitStmt(stmt) || icfg.isStartPoint(stmt) || flowFunctions.mayAffect(stmt, fact);
+    }
+
+    private List<Stmt> search(Stmt start, DataFlowFact fact) {
+        List<Stmt> uses = new ArrayList<>();
+        Set<Stmt> visited = new HashSet<>();
+        Deque<Stmt> worklist = new ArrayDeque<>();
+        visited.add(start);
+        worklist.add(start);
+        while (!worklist.isEmpty()) {
+            for (Stmt succ : icfg.getSuccsOf(worklist.poll())) {
+                if (!visited.add(succ)) {
+                    continue;
+                }
+                if (isUse(succ, fact)) {
+                    uses.add(succ);
+                } else {
+                    worklist.add(succ);
+                }
+            }
+        }
+        return uses;
+    }
+}
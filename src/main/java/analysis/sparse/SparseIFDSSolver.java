@@ -0,0 +1,33 @@
+package analysis.sparse;
+
+import analysis.fact.DataFlowFact;
+import analysis.stats.InstrumentedIFDSSolver;
+import heros.EdgeFunction;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+/**
+ * An IFDS solver that propagates facts sparsely: a fact that reaches a statement which cannot change it is passed on
+ * directly to the next statements that can, as found by a {@link DefUseIndex}, instead of through every statement in
+ * between. Since the skipped flow functions are the identity, the facts at calls, exits and uses are the same as with
+ * the dense solver; facts are just not recorded at the statements in between.
+ */
+public class SparseIFDSSolver extends InstrumentedIFDSSolver {
+
+    private final DefUseIndex defUseIndex;
+
+    public SparseIFDSSolver(IFDSTabulationProblem<Stmt, DataFlowFact, SootMethod, InterproceduralCFG<Stmt, SootMethod>> problem, DefUseIndex defUseIndex) {
+        super(problem);
+        this.defUseIndex = defUseIndex;
+    }
+
+    @Override
+    protected void propagate(DataFlowFact sourceFact, Stmt targetStmt, DataFlowFact targetFact,
+                             EdgeFunction<BinaryDomain> edgeFunc, Stmt relatedCallSite, boolean isUnbalancedReturn) {
+        for (Stmt use : defUseIndex.nextUses(targetStmt, targetFact)) {
+            super.propagate(sourceFact, use, targetFact, edgeFunc, relatedCallSite, isUnbalancedReturn);
+        }
+    }
+}
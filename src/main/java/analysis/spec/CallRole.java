@@ -0,0 +1,27 @@
+package analysis.spec;
+
+/**
+ * The role a call statement plays for the taint analysis, as assigned by a {@link TaintSpecification}.
+ */
+public enum CallRole {
+    /**
+     * The call has no meaning for the taint analysis.
+     */
+    NONE,
+    /**
+     * The call returns user-controlled data, e.g. {@code HttpServletRequest.getParameter}. Its return value is tainted.
+     */
+    SOURCE,
+    /**
+     * The call must not receive tainted data in its first argument, e.g. {@code Statement.executeQuery}.
+     */
+    SINK,
+    /**
+     * A call {@code x = base.append(arg)}: if the base or the first argument is tainted, then x is tainted.
+     */
+    APPEND_PROPAGATOR,
+    /**
+     * A call {@code x = base.toString()}: if the base is tainted, then x is tainted.
+     */
+    TO_STRING_PROPAGATOR
+}
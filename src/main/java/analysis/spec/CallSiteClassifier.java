@@ -0,0 +1,41 @@
+package analysis.spec;
+
+import sootup.core.jimple.common.stmt.Stmt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tags call statements with their {@link CallRole} on first lookup. Statements are compared by identity, so a repeated
+ * lookup never renders a statement to a string.
+ */
+public class CallSiteClassifier {
+
+    private final TaintSpecification specification;
+
+    private final Map<Stmt, CallRole> roles = new ConcurrentHashMap<>();
+
+    public CallSiteClassifier(TaintSpecification specification) {
+        this.specification = specification;
+    }
+
+    public TaintSpecification getSpecification() {
+        return specification;
+    }
+
+    /**
+     * Drops the roles of all statements tagged so far, e.g. once the solver is done with their methods.
+     */
+    public void clear() {
+        roles.clear();
+    }
+
+    public CallRole roleOf(Stmt stmt) {
+        CallRole role = roles.get(stmt);
+        if (role == null) {
+            role = specification.roleOf(stmt);
+            roles.put(stmt, role);
+        }
+        return role;
+    }
+}
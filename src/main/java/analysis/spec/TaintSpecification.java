@@ -0,0 +1,145 @@
+package analysis.spec;
+
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.java.core.JavaIdentifierFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes which methods are sources, sinks and propagators of the taint analysis. Methods are indexed by their
+ * {@link MethodSignature}, so classifying a call site is a single hash lookup on the signature of its invoke
+ * expression. Entries registered for any declaring class are indexed by their {@link MethodSubSignature} instead.
+ */
+public class TaintSpecification {
+
+    private static final TaintSpecification DEFAULT = createDefault();
+
+    private final Map<MethodSignature, CallRole> bySignature = new HashMap<>();
+    private final Map<MethodSubSignature, CallRole> bySubSignature = new HashMap<>();
+
+    /**
+     * Returns the specification used by the exercises: servlet request parameters are sources, JDBC queries are sinks
+     * and StringBuilder concatenation as well as toString() calls propagate taint.
+     */
+    public static TaintSpecification getDefault() {
+        return DEFAULT;
+    }
+
+    private static TaintSpecification createDefault() {
+        TaintSpecification spec = new TaintSpecification();
+        // target.exercise1.HttpServletRequest is the stand-in for the servlet API used by the analysis targets.
+        spec.add(CallRole.SOURCE, "<target.exercise1.HttpServletRequest: java.lang.String getParameter(java.lang.String)>");
+        spec.add(CallRole.SOURCE, "<javax.servlet.ServletRequest: java.lang.String getParameter(java.lang.String)>");
+        spec.add(CallRole.SOURCE, "<javax.servlet.http.HttpServletRequest: java.lang.String getParameter(java.lang.String)>");
+
+        spec.add(CallRole.SINK, "<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>");
+
+        String[] appendParameterTypes = {"java.lang.String", "java.lang.Object", "java.lang.CharSequence",
+                "java.lang.StringBuffer", "char[]", "char", "int", "long", "float", "double", "boolean"};
+        for (String parameterType : appendParameterTypes) {
+            spec.add(CallRole.APPEND_PROPAGATOR, "<java.lang.StringBuilder: java.lang.StringBuilder append(" + parameterType + ")>");
+        }
+
+        spec.addForAnyClass(CallRole.TO_STRING_PROPAGATOR, "java.lang.String toString()");
+        return spec;
+    }
+
+    /**
+     * Reads a specification from a file with one entry per line: a {@link CallRole} name, whitespace, and either a
+     * method signature as for {@link #add(CallRole, String)} or a sub-signature as for
+     * {@link #addForAnyClass(CallRole, String)}. Empty lines and lines starting with {@code #} are ignored.
+     */
+    public static TaintSpecification load(Path file) throws IOException {
+        TaintSpecification spec = new TaintSpecification();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+", 2);
+            CallRole role;
+            try {
+                role = CallRole.valueOf(fields[0]);
+            } catch (IllegalArgumentException e) {
+                role = null;
+            }
+            if (role == null || role == CallRole.NONE || fields.length < 2) {
+                throw new IllegalArgumentException("Malformed specification entry in '" + file + "', line " + (i + 1) + ": " + line);
+            }
+            if (fields[1].startsWith("<")) {
+                spec.add(role, fields[1]);
+            } else {
+                spec.addForAnyClass(role, fields[1]);
+            }
+        }
+        return spec;
+    }
+
+    /**
+     * Registers a method, given in Jimple signature notation, e.g.
+     * {@code <java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>}.
+     */
+    public TaintSpecification add(CallRole role, String methodSignature) {
+        return add(role, JavaIdentifierFactory.getInstance().parseMethodSignature(methodSignature));
+    }
+
+    public TaintSpecification add(CallRole role, MethodSignature methodSignature) {
+        bySignature.put(methodSignature, role);
+        return this;
+    }
+
+    /**
+     * Registers a method sub-signature, e.g. {@code java.lang.String toString()}, regardless of its declaring class.
+     */
+    public TaintSpecification addForAnyClass(CallRole role, String methodSubSignature) {
+        bySubSignature.put(JavaIdentifierFactory.getInstance().parseMethodSubSignature(methodSubSignature), role);
+        return this;
+    }
+
+    /**
+     * Returns the entries of this specification in the format {@link #load} reads, one per line and sorted, so that
+     * equal specifications have equal contents.
+     */
+    public String getContents() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<MethodSignature, CallRole> entry : bySignature.entrySet()) {
+            lines.add(entry.getValue() + " " + entry.getKey());
+        }
+        for (Map.Entry<MethodSubSignature, CallRole> entry : bySubSignature.entrySet()) {
+            lines.add(entry.getValue() + " " + entry.getKey());
+        }
+        Collections.sort(lines);
+        StringBuilder contents = new StringBuilder();
+        for (String line : lines) {
+            contents.append(line).append('\n');
+        }
+        return contents.toString();
+    }
+
+    public CallRole roleOf(MethodSignature methodSignature) {
+        CallRole role = bySignature.get(methodSignature);
+        if (role != null) {
+            return role;
+        }
+        role = bySubSignature.get(methodSignature.getSubSignature());
+        return role == null ? CallRole.NONE : role;
+    }
+
+    public CallRole roleOf(Stmt stmt) {
+        if (!stmt.containsInvokeExpr()) {
+            return CallRole.NONE;
+        }
+        return roleOf(stmt.getInvokeExpr().getMethodSignature());
+    }
+}
@@ -0,0 +1,11 @@
+package analysis.stats;
+
+/**
+ * The four kinds of flow functions of an IFDS problem.
+ */
+public enum FlowFunctionKind {
+    NORMAL,
+    CALL,
+    RETURN,
+    CALL_TO_RETURN
+}
@@ -0,0 +1,63 @@
+package analysis.stats;
+
+import analysis.fact.DataFlowFact;
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Set;
+
+/**
+ * Counts and times every application of the flow functions of another {@link FlowFunctions}, by kind and by the
+ * method it happens in. The method is looked up once when a flow function is handed out, not per application.
+ */
+public class InstrumentedFlowFunctions implements FlowFunctions<Stmt, DataFlowFact, SootMethod> {
+
+    private final FlowFunctions<Stmt, DataFlowFact, SootMethod> flowFunctions;
+
+    private final InterproceduralCFG<Stmt, SootMethod> icfg;
+
+    private final SolverStatistics statistics;
+
+    public InstrumentedFlowFunctions(FlowFunctions<Stmt, DataFlowFact, SootMethod> flowFunctions,
+                                     InterproceduralCFG<Stmt, SootMethod> icfg, SolverStatistics statistics) {
+        this.flowFunctions = flowFunctions;
+        this.icfg = icfg;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getNormalFlowFunction(Stmt curr, Stmt succ) {
+        return instrument(flowFunctions.getNormalFlowFunction(curr, succ), FlowFunctionKind.NORMAL, icfg.getMethodOf(curr));
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callStmt, SootMethod destinationMethod) {
+        return instrument(flowFunctions.getCallFlowFunction(callStmt, destinationMethod), FlowFunctionKind.CALL, icfg.getMethodOf(callStmt));
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod calleeMethod, Stmt exitStmt, Stmt returnSite) {
+        return instrument(flowFunctions.getReturnFlowFunction(callSite, calleeMethod, exitStmt, returnSite), FlowFunctionKind.RETURN, calleeMethod);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+        return instrument(flowFunctions.getCallToReturnFlowFunction(callSite, returnSite), FlowFunctionKind.CALL_TO_RETURN, icfg.getMethodOf(callSite));
+    }
+
+    private FlowFunction<DataFlowFact> instrument(FlowFunction<DataFlowFact> flowFunction, FlowFunctionKind kind, SootMethod method) {
+        final SolverStatistics.Counters byKind = statistics.of(kind);
+        final SolverStatistics.Counters byMethod = statistics.of(method);
+        return fact -> {
+            long start = System.nanoTime();
+            Set<DataFlowFact> out = flowFunction.computeTargets(fact);
+            long nanos = System.nanoTime() - start;
+            byKind.add(nanos, out.size());
+            byMethod.add(nanos, out.size());
+            return out;
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package analysis.stats;
+
+import analysis.budget.SolveBudget;
+import analysis.fact.DataFlowFact;
+import analysis.schedule.WorklistQueue;
+import analysis.schedule.WorklistStrategy;
+import com.google.common.collect.Table;
+import heros.EdgeFunction;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+import heros.solver.CountingThreadPoolExecutor;
+import heros.solver.PathEdge;
+import sootup.analysis.interprocedural.ifds.JimpleIFDSSolver;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An IFDS solver that reports its totals to {@link SolverStatistics} once it has finished: the distinct path edges,
+ * the propagations, the end summaries, its run time, and the facts at the statements with the most of them. While it
+ * runs, it only remembers which statements facts were propagated to. The order in which it processes its pending
+ * path edges can be chosen with a {@link WorklistStrategy}. It can also be limited by a {@link SolveBudget}, which
+ * sees every new path edge before it is processed, and cancelled, after which it drops all new path edges. Without
+ * statistics, budget and cancellation it is the plain solver. The flow functions are instrumented separately, see
+ * {@link InstrumentedFlowFunctions}.
+ */
+public class InstrumentedIFDSSolver extends JimpleIFDSSolver<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>> {
+
+    private SolverStatistics statistics;
+
+    private SolveBudget budget;
+
+    private BooleanSupplier cancelled;
+
+    private WorklistQueue worklist;
+
+    private final Set<Stmt> targets = ConcurrentHashMap.newKeySet();
+
+    public InstrumentedIFDSSolver(IFDSTabulationProblem<Stmt, DataFlowFact, SootMethod, InterproceduralCFG<Stmt, SootMethod>> problem) {
+        super(problem);
+    }
+
+    /**
+     * Sets the statistics to report to. Must be called before the solver is started.
+     */
+    public void setStatistics(SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Makes the solver drop the new path edges the given budget does not admit. Must be called before the solver is
+     * started.
+     */
+    public void setBudget(SolveBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the budget of the solver, or {@code null} if it has none.
+     */
+    public SolveBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Makes the solver stop early once the given condition holds. Must be called before the solver is started.
+     */
+    public void setCancellation(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Makes the solver process its pending path edges in the order of the given strategy. Must be called before the
+     * solver is started.
+     */
+    public void setWorklistStrategy(WorklistStrategy strategy) {
+        worklist = new WorklistQueue(strategy, icfg);
+        // The solver created its executor in its constructor, before the strategy was known. The executor starts its
+        // threads with the first task, so it has none yet and can simply be replaced. IDESolver.getExecutor() of heros
+        // 1.2.3 creates it with numThreads core threads, a maximum of Integer.MAX_VALUE and a keep-alive of 30 seconds
+        // over an unbounded queue; only the queue differs here. Since the queue is unbounded, the pool never grows past
+        // its core threads, so it runs on numThreads threads either way.
+        executor.shutdown();
+        executor = new CountingThreadPoolExecutor(numThreads, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, worklist);
+    }
+
+    @Override
+    public void solve() {
+        long start = System.nanoTime();
+        super.solve();
+        if (statistics != null) {
+            recordStatistics(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected void propagate(DataFlowFact sourceFact, Stmt targetStmt, DataFlowFact targetFact,
+                             EdgeFunction<BinaryDomain> edgeFunc, Stmt relatedCallSite, boolean isUnbalancedReturn) {
+        if (statistics != null) {
+            targets.add(targetStmt);
+        }
+        super.propagate(sourceFact, targetStmt, targetFact, edgeFunc, relatedCallSite, isUnbalancedReturn);
+    }
+
+    @Override
+    protected void scheduleEdgeProcessing(PathEdge<Stmt, DataFlowFact> edge) {
+        if (cancelled != null && cancelled.getAsBoolean()) {
+            return;
+        }
+        if (budget != null && !budget.admit(edge.getTarget(), edge.factAtTarget())) {
+            return;
+        }
+        if (worklist == null) {
+            super.scheduleEdgeProcessing(edge);
+            return;
+        }
+        worklist.scheduling(edge);
+        try {
+            super.scheduleEdgeProcessing(edge);
+        } finally {
+            worklist.scheduling(null);
+        }
+    }
+
+    private void recordStatistics(long nanos) {
+        long pathEdges = 0;
+        for (Stmt target : targets) {
+            Set<Table.Cell<DataFlowFact, DataFlowFact, EdgeFunction<BinaryDomain>>> edges = jumpFn.lookupByTarget(target);
+            pathEdges += edges.size();
+            if (statistics.isLargeFactSet(edges.size())) {
+                Set<DataFlowFact> facts = new HashSet<>();
+                for (Table.Cell<DataFlowFact, DataFlowFact, EdgeFunction<BinaryDomain>> edge : edges) {
+                    facts.add(edge.getColumnKey());
+                }
+                statistics.recordFactSet(icfg.getMethodOf(target), target, facts.size());
+            }
+        }
+        long endSummaries = 0;
+        for (Map<DataFlowFact, Table<Stmt, DataFlowFact, EdgeFunction<BinaryDomain>>> byFact : endSummary.rowMap().values()) {
+            for (Table<Stmt, DataFlowFact, EdgeFunction<BinaryDomain>> summaries : byFact.values()) {
+                endSummaries += summaries.size();
+            }
+        }
+        statistics.recordSolver(pathEdges, propagationCount, endSummaries, nanos, worklist == null ? 0 : worklist.getMaxSize());
+    }
+}
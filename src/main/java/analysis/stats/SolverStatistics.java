@@ -0,0 +1,279 @@
+package analysis.stats;
+
+import analysis.report.Json;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the IFDS solvers of one run: applications, time and generated facts per flow-function kind and per
+ * method, path edges, propagations, end summaries, solve time, worklist size, and the statements with the most facts.
+ * Counters are striped, so all solver threads of a run can share one instance, and a flow function application costs
+ * two clock reads and a few uncontended additions. The statistics can be written as JSON at the end of the run.
+ */
+public class SolverStatistics {
+
+    public static final int DEFAULT_LARGEST_FACT_SETS = 10;
+
+    /**
+     * The counters of one flow-function kind or method.
+     */
+    public static final class Counters {
+
+        private final LongAdder applications = new LongAdder();
+
+        private final LongAdder nanos = new LongAdder();
+
+        private final LongAdder generatedFacts = new LongAdder();
+
+        void add(long nanos, int generatedFacts) {
+            applications.increment();
+            this.nanos.add(nanos);
+            this.generatedFacts.add(generatedFacts);
+        }
+
+        public long getApplications() {
+            return applications.sum();
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        /**
+         * Returns the number of facts the flow functions returned, summed over all applications.
+         */
+        public long getGeneratedFacts() {
+            return generatedFacts.sum();
+        }
+    }
+
+    /**
+     * The number of facts that hold at a statement, for any context.
+     */
+    public static final class FactSetSize {
+
+        private final String method;
+
+        private final String stmt;
+
+        private final int facts;
+
+        FactSetSize(String method, String stmt, int facts) {
+            this.method = method;
+            this.stmt = stmt;
+            this.facts = facts;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getStmt() {
+            return stmt;
+        }
+
+        public int getFacts() {
+            return facts;
+        }
+    }
+
+    private final Map<FlowFunctionKind, Counters> byKind = new EnumMap<>(FlowFunctionKind.class);
+
+    private final Map<String, Counters> byMethod = new ConcurrentHashMap<>();
+
+    private final LongAdder solvers = new LongAdder();
+
+    private final LongAdder pathEdges = new LongAdder();
+
+    private final LongAdder propagations = new LongAdder();
+
+    private final LongAdder endSummaries = new LongAdder();
+
+    private final LongAdder solveNanos = new LongAdder();
+
+    private final LongAccumulator maxWorklistSize = new LongAccumulator(Math::max, 0);
+
+    private final int largestFactSetCount;
+
+    private final List<FactSetSize> largestFactSets = new ArrayList<>();
+
+    public SolverStatistics() {
+        this(DEFAULT_LARGEST_FACT_SETS);
+    }
+
+    /**
+     * @param largestFactSetCount how many of the statements with the most facts to keep
+     */
+    public SolverStatistics(int largestFactSetCount) {
+        this.largestFactSetCount = largestFactSetCount;
+        for (FlowFunctionKind kind : FlowFunctionKind.values()) {
+            byKind.put(kind, new Counters());
+        }
+    }
+
+    public Counters of(FlowFunctionKind kind) {
+        return byKind.get(kind);
+    }
+
+    /**
+     * Returns the counters of the flow functions applied within the given method; a return flow function counts for
+     * the callee it leaves.
+     */
+    public Counters of(SootMethod method) {
+        return byMethod.computeIfAbsent(method.getSignature().toString(), signature -> new Counters());
+    }
+
+    public Map<String, Counters> getMethods() {
+        return byMethod;
+    }
+
+    /**
+     * Records the totals of a solver that has finished.
+     *
+     * @param pathEdges       the distinct path edges the solver computed
+     * @param propagations    the path edges the solver scheduled for processing
+     * @param endSummaries    the end summaries the solver computed
+     * @param solveNanos      the time the solver ran
+     * @param maxWorklistSize the most path edges pending at once, if the solver had a worklist strategy, otherwise 0
+     */
+    public void recordSolver(long pathEdges, long propagations, long endSummaries, long solveNanos, long maxWorklistSize) {
+        solvers.increment();
+        this.pathEdges.add(pathEdges);
+        this.propagations.add(propagations);
+        this.endSummaries.add(endSummaries);
+        this.solveNanos.add(solveNanos);
+        this.maxWorklistSize.accumulate(maxWorklistSize);
+    }
+
+    /**
+     * Returns whether a fact set of the given size would be kept among the largest ones, so that callers can skip
+     * describing smaller ones.
+     */
+    public synchronized boolean isLargeFactSet(int facts) {
+        return largestFactSets.size() < largestFactSetCount
+                || facts > largestFactSets.get(largestFactSets.size() - 1).getFacts();
+    }
+
+    public synchronized void recordFactSet(SootMethod method, Stmt stmt, int facts) {
+        if (!isLargeFactSet(facts)) {
+            return;
+        }
+        int pos = 0;
+        while (pos < largestFactSets.size() && largestFactSets.get(pos).getFacts() >= facts) {
+            pos++;
+        }
+        largestFactSets.add(pos, new FactSetSize(method == null ? null : method.getSignature().toString(), stmt.toString(), facts));
+        if (largestFactSets.size() > largestFactSetCount) {
+            largestFactSets.remove(largestFactSets.size() - 1);
+        }
+    }
+
+    /**
+     * Returns the statements with the most facts, largest first.
+     */
+    public synchronized List<FactSetSize> getLargestFactSets() {
+        return new ArrayList<>(largestFactSets);
+    }
+
+    public long getSolvers() {
+        return solvers.sum();
+    }
+
+    public long getPathEdges() {
+        return pathEdges.sum();
+    }
+
+    public long getPropagations() {
+        return propagations.sum();
+    }
+
+    public long getEndSummaries() {
+        return endSummaries.sum();
+    }
+
+    /**
+     * Returns the time the solvers ran, summed over all solvers, whether they ran in parallel or not.
+     */
+    public long getSolveNanos() {
+        return solveNanos.sum();
+    }
+
+    /**
+     * Returns the most path edges that were pending at once in any solver with a worklist strategy.
+     */
+    public long getMaxWorklistSize() {
+        return maxWorklistSize.get();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"solvers\": ").append(getSolvers()).append(",\n");
+        json.append("  \"pathEdges\": ").append(getPathEdges()).append(",\n");
+        json.append("  \"propagations\": ").append(getPropagations()).append(",\n");
+        json.append("  \"endSummaries\": ").append(getEndSummaries()).append(",\n");
+        json.append("  \"solveNanos\": ").append(getSolveNanos()).append(",\n");
+        json.append("  \"maxWorklistSize\": ").append(getMaxWorklistSize()).append(",\n");
+        json.append("  \"flowFunctions\": {");
+        String separator = "\n";
+        for (FlowFunctionKind kind : FlowFunctionKind.values()) {
+            json.append(separator).append("    ").append(Json.quote(kind.name())).append(": ");
+            appendCounters(json, byKind.get(kind));
+            separator = ",\n";
+        }
+        json.append("\n  },\n");
+        json.append("  \"methods\": [");
+        List<Map.Entry<String, Counters>> methods = new ArrayList<>(byMethod.entrySet());
+        methods.sort(Comparator.comparingLong((Map.Entry<String, Counters> entry) -> entry.getValue().getNanos()).reversed()
+                .thenComparing(Map.Entry::getKey));
+        separator = "\n";
+        for (Map.Entry<String, Counters> method : methods) {
+            json.append(separator).append("    {\"method\": ").append(Json.quote(method.getKey())).append(", \"counters\": ");
+            appendCounters(json, method.getValue());
+            json.append("}");
+            separator = ",\n";
+        }
+        json.append(methods.isEmpty() ? "],\n" : "\n  ],\n");
+        json.append("  \"largestFactSets\": [");
+        List<FactSetSize> factSets = getLargestFactSets();
+        separator = "\n";
+        for (FactSetSize factSet : factSets) {
+            json.append(separator).append("    {\"method\": ").append(Json.quote(factSet.getMethod()))
+                    .append(", \"stmt\": ").append(Json.quote(factSet.getStmt()))
+                    .append(", \"facts\": ").append(factSet.getFacts()).append("}");
+            separator = ",\n";
+        }
+        json.append(factSets.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    public void writeJson(Path file) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the solver statistics to '" + file + "'.", e);
+        }
+    }
+
+    private static void appendCounters(StringBuilder json, Counters counters) {
+        json.append("{\"applications\": ").append(counters.getApplications())
+                .append(", \"nanos\": ").append(counters.getNanos())
+                .append(", \"generatedFacts\": ").append(counters.getGeneratedFacts()).append("}");
+    }
+}
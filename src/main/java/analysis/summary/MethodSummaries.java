@@ -0,0 +1,266 @@
+package analysis.summary;
+
+import analysis.Finding;
+import analysis.IFDSTaintAnalysisProblem;
+import analysis.SolverFactory;
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.VulnerabilityReporter;
+import analysis.budget.BudgetKind;
+import analysis.budget.SolveBudget;
+import analysis.fact.DataFlowFact;
+import analysis.fact.FactNumbering;
+import analysis.fact.FactSet;
+import analysis.stats.InstrumentedIFDSSolver;
+import heros.FlowFunction;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.views.View;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Replaces the descent into callees by method summaries. When a fact enters a callee, the summary of the callee for
+ * that fact is loaded from the {@link SummaryStore}, or computed by solving the callee in isolation with the fact as
+ * its only seed and stored for later runs. The sinks of the summary are then reported directly and the fact does not
+ * enter the callee. The zero fact always enters callees, so that sources inside them are still found.
+ * <p>
+ * A summary is keyed by the method signature and a hash of the bodies of the method and all methods reachable from
+ * it, together with the {@linkplain TaintAnalysisFlowFunctions#getConfiguration() configuration} of the flow functions,
+ * so a change to any of these bodies, to the specification or to the analysis invalidates it. Summaries are computed
+ * with summaries of their own callees, so after a change only the changed methods and their transitive callers are
+ * solved again.
+ * <p>
+ * The methods are solved with the solvers of the analysis run, see {@link #setSolverFactory}. A summary whose solve,
+ * or that of a callee's summary, hits a limit of the budget or is cancelled is used once but neither kept nor stored,
+ * since it may lack sinks.
+ * <p>
+ * New entries are kept in memory during the run and written by {@link #flush()}, once per changed method, after it.
+ */
+public class MethodSummaries {
+
+    private final View view;
+
+    private final SummaryStore store;
+
+    private final Function<VulnerabilityReporter, TaintAnalysisFlowFunctions> flowFunctionsFactory;
+
+    private static final String FACT_SEPARATOR = "\t";
+
+    private final Map<SootMethod, MethodSummary> summaries = new ConcurrentHashMap<>();
+
+    private final ReachableHashes reachableHashes = new ReachableHashes();
+
+    /**
+     * The hash of the configuration of the flow functions the summaries are computed with.
+     */
+    private final String configuration;
+
+    /**
+     * The method and entry fact pairs that are being summarized. Facts that enter one of these again descend into it.
+     */
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The summaries with entries that are not stored yet.
+     */
+    private final Set<MethodSummary> unstored = ConcurrentHashMap.newKeySet();
+
+    private SolverFactory solvers = new SolverFactory();
+
+    private final LongAdder loadedSummaries = new LongAdder();
+
+    private final LongAdder computedEntries = new LongAdder();
+
+    /**
+     * @param flowFunctionsFactory creates the flow functions that summaries are computed with, reporting to the given
+     *                             reporter, e.g. {@code Exercise3FlowFunctions::new}
+     */
+    public MethodSummaries(View view, SummaryStore store, Function<VulnerabilityReporter, TaintAnalysisFlowFunctions> flowFunctionsFactory) {
+        this.view = view;
+        this.store = store;
+        this.flowFunctionsFactory = flowFunctionsFactory;
+        this.configuration = SummaryStore.sha256(flowFunctionsFactory.apply(new VulnerabilityReporter()).getConfiguration());
+    }
+
+    /**
+     * Solves the methods to summarize with solvers of the given factory, so that they share the statistics, the
+     * budget, the cancellation and the worklist strategy of the analysis run. {@link analysis.BatchTaintAnalysis} sets
+     * its own before it solves.
+     */
+    public void setSolverFactory(SolverFactory solvers) {
+        this.solvers = solvers;
+    }
+
+    /**
+     * Wraps a call flow function so that the facts it passes into the callee are summarized instead. The facts it
+     * still passes into the callee are numbered by the given numbering of the caller's flow functions.
+     */
+    public FlowFunction<DataFlowFact> apply(FlowFunction<DataFlowFact> callFlowFunction, SootMethod callee,
+                                            InterproceduralCFG<Stmt, SootMethod> icfg, VulnerabilityReporter reporter,
+                                            FactNumbering factNumbering) {
+        if (!callee.hasBody()) {
+            return callFlowFunction;
+        }
+        return fact -> {
+            Set<DataFlowFact> targets = callFlowFunction.computeTargets(fact);
+            if (targets.isEmpty()) {
+                return targets;
+            }
+            Set<DataFlowFact> out = new FactSet(factNumbering);
+            for (DataFlowFact target : targets) {
+                if (target == DataFlowFact.getZeroInstance()) {
+                    out.add(target);
+                    continue;
+                }
+                List<SummarizedSink> sinks = sinksOf(callee, target, icfg, reporter);
+                if (sinks == null) {
+                    // The callee is already being summarized for this fact further up, i.e. it is recursive.
+                    out.add(target);
+                    continue;
+                }
+                for (SummarizedSink sink : sinks) {
+                    sink.replay(view, reporter, target.getSource());
+                }
+            }
+            return out;
+        };
+    }
+
+    /**
+     * Reports the sinks the given fact reaches when it enters the given method, summarizing the method first if
+     * needed. With the zero fact and an entry point, this analyzes the entry point and reuses its findings as long as
+     * neither it nor any method reachable from it changes.
+     */
+    public void replay(SootMethod method, DataFlowFact entryFact, InterproceduralCFG<Stmt, SootMethod> icfg, VulnerabilityReporter reporter) {
+        List<SummarizedSink> sinks = sinksOf(method, entryFact, icfg, reporter);
+        if (sinks == null) {
+            throw new IllegalStateException("Method '" + method + "' is already being summarized for " + entryFact + ".");
+        }
+        for (SummarizedSink sink : sinks) {
+            sink.replay(view, reporter, entryFact.getSource());
+        }
+    }
+
+    /**
+     * Returns the summarized sinks of the given entry fact, or {@code null} if the method is currently being
+     * summarized for that fact. If the solve of the summary hits a limit of the budget, the sinks found until then are
+     * returned, the method is reported as incomplete to the given reporter, and the summary is not kept.
+     */
+    private List<SummarizedSink> sinksOf(SootMethod callee, DataFlowFact entryFact, InterproceduralCFG<Stmt, SootMethod> icfg,
+                                         VulnerabilityReporter reporter) {
+        MethodSummary summary = summaries.computeIfAbsent(callee, method -> loadSummary(method, icfg));
+        // Keyed without the source, since the summary holds for the fact from any source.
+        String key = entryFact.withoutSource().toString();
+        List<SummarizedSink> sinks = summary.get(key);
+        if (sinks != null) {
+            return sinks;
+        }
+        String entry = summary.getSignature() + FACT_SEPARATOR + key;
+        if (!inProgress.add(entry)) {
+            return null;
+        }
+        VulnerabilityReporter summaryReporter = new VulnerabilityReporter();
+        try {
+            // Summarized without its source, so that the summary holds for the fact from any source.
+            sinks = summarize(callee, entryFact.withoutSource(), icfg, summaryReporter);
+        } finally {
+            inProgress.remove(entry);
+        }
+        computedEntries.increment();
+        if (solvers.isCancelled()) {
+            // The solve stopped early, so the sinks may be incomplete; they do not matter to a cancelled run either.
+            return sinks;
+        }
+        Set<BudgetKind> exceeded = EnumSet.noneOf(BudgetKind.class);
+        // Includes the limits hit by the summaries of callees, which the summary is built from.
+        for (Set<BudgetKind> kinds : summaryReporter.getIncomplete().values()) {
+            exceeded.addAll(kinds);
+        }
+        if (!exceeded.isEmpty()) {
+            reporter.reportIncomplete(callee.getSignature(), exceeded);
+            return sinks;
+        }
+        summary.put(key, sinks);
+        unstored.add(summary);
+        return sinks;
+    }
+
+    /**
+     * Stores the summaries that got new entries since the last call. {@link analysis.BatchTaintAnalysis} calls it
+     * after every run; it must not be called while summaries are being computed.
+     */
+    public void flush() {
+        for (MethodSummary summary : unstored) {
+            store.store(summary);
+        }
+        unstored.clear();
+    }
+
+    private MethodSummary loadSummary(SootMethod method, InterproceduralCFG<Stmt, SootMethod> icfg) {
+        String signature = method.getSignature().toString();
+        String hash = SummaryStore.sha256(reachableHashes.of(method, icfg) + "\n" + configuration);
+        MethodSummary summary = store.load(signature, hash);
+        if (summary != null) {
+            loadedSummaries.increment();
+            return summary;
+        }
+        return new MethodSummary(signature, hash);
+    }
+
+    private List<SummarizedSink> summarize(SootMethod callee, DataFlowFact entryFact, InterproceduralCFG<Stmt, SootMethod> icfg,
+                                           VulnerabilityReporter reporter) {
+        TaintAnalysisFlowFunctions flowFunctions = flowFunctionsFactory.apply(reporter);
+        flowFunctions.setICFG(icfg);
+        // Callees of the method are summarized as well, so only methods whose bodies changed are solved again.
+        flowFunctions.setSummaries(this);
+        Collection<Stmt> starts = icfg.getStartPointsOf(callee);
+        IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, flowFunctions, Collections.singletonList(callee.getSignature()), view) {
+            @Override
+            public Map<Stmt, Set<DataFlowFact>> initialSeeds() {
+                Map<Stmt, Set<DataFlowFact>> seeds = new HashMap<>();
+                for (Stmt start : starts) {
+                    seeds.put(start, Collections.singleton(entryFact));
+                }
+                return seeds;
+            }
+        };
+        InstrumentedIFDSSolver solver = solvers.create(problem, null);
+        solvers.solve(solver, callee.getSignature() + " " + entryFact);
+        SolveBudget budget = solver.getBudget();
+        if (budget != null && budget.isExceeded()) {
+            reporter.reportIncomplete(callee.getSignature(), budget.getExceeded());
+        }
+
+        List<SummarizedSink> sinks = new ArrayList<>();
+        for (Finding finding : reporter.getFindings()) {
+            Stmt source = finding.getSource();
+            sinks.add(SummarizedSink.of(finding.getMethod(), finding.getSink(), finding.getFact(), source == null ? null : icfg.getMethodOf(source), source));
+        }
+        return sinks;
+    }
+
+    /**
+     * Returns how many method summaries were loaded from the store instead of being computed.
+     */
+    public int getLoadedSummaries() {
+        return loadedSummaries.intValue();
+    }
+
+    /**
+     * Returns how many entry facts were summarized by solving a callee in isolation.
+     */
+    public int getComputedEntries() {
+        return computedEntries.intValue();
+    }
+}
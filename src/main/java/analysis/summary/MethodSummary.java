@@ -0,0 +1,49 @@
+package analysis.summary;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The sinks a method reaches, per fact that enters it. Entry facts are keyed by their string form, which is stable for
+ * a given method body. The summary is only valid for the bodies it was computed on, which {@link #getHash()}
+ * identifies.
+ */
+public final class MethodSummary {
+
+    private final String signature;
+    private final String hash;
+    private final Map<String, List<SummarizedSink>> entries = new ConcurrentHashMap<>();
+
+    public MethodSummary(String signature, String hash) {
+        this.signature = signature;
+        this.hash = hash;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * Returns the hash of the bodies of the method and all methods reachable from it.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public void put(String entryFact, List<SummarizedSink> sinks) {
+        entries.put(entryFact, sinks);
+    }
+
+    /**
+     * Returns the sinks the given entry fact reaches, or {@code null} if the fact has not been summarized.
+     */
+    public List<SummarizedSink> get(String entryFact) {
+        return entries.get(entryFact);
+    }
+
+    public Map<String, List<SummarizedSink>> getEntries() {
+        return Collections.unmodifiableMap(entries);
+    }
+}
@@ -0,0 +1,147 @@
+package analysis.summary;
+
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Hashes the body of a method together with the bodies of all methods reachable from it, so that a change to any of
+ * them changes the hash. The hashes are computed bottom-up over the strongly connected components of the call graph,
+ * from the hashes of the bodies in a component and those of the components it calls, so each method is hashed once
+ * per run instead of collecting its reachable methods anew. All methods of a component share its hash.
+ * <p>
+ * The hashes assume that all ICFGs they are asked with share one call graph, as the batches of a run do.
+ */
+final class ReachableHashes {
+
+    /**
+     * A method on the depth-first path, with the callees it has yet to visit.
+     */
+    private static final class Frame {
+
+        final SootMethod method;
+
+        final Iterator<SootMethod> callees;
+
+        Frame(SootMethod method, Iterator<SootMethod> callees) {
+            this.method = method;
+            this.callees = callees;
+        }
+    }
+
+    private final Map<MethodSignature, String> hashes = new HashMap<>();
+
+    /**
+     * Returns the hash of the given method and the methods reachable from it, computing the hashes of all methods
+     * reachable from it that do not have one yet.
+     */
+    synchronized String of(SootMethod method, InterproceduralCFG<Stmt, SootMethod> icfg) {
+        String hash = hashes.get(method.getSignature());
+        if (hash == null) {
+            hashComponents(method, icfg);
+            hash = hashes.get(method.getSignature());
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the components reachable from the given method with Tarjan's algorithm, which completes a component only
+     * after all components it calls.
+     */
+    private void hashComponents(SootMethod root, InterproceduralCFG<Stmt, SootMethod> icfg) {
+        Map<SootMethod, List<SootMethod>> calleesOf = new HashMap<>();
+        Map<SootMethod, Integer> index = new HashMap<>();
+        Map<SootMethod, Integer> lowLink = new HashMap<>();
+        Deque<SootMethod> component = new ArrayDeque<>();
+        Set<SootMethod> onStack = new HashSet<>();
+        Deque<Frame> path = new ArrayDeque<>();
+
+        visit(root, icfg, calleesOf, index, lowLink, component, onStack, path);
+        while (!path.isEmpty()) {
+            Frame frame = path.peek();
+            if (frame.callees.hasNext()) {
+                SootMethod callee = frame.callees.next();
+                if (hashes.containsKey(callee.getSignature())) {
+                    // Hashed by an earlier call; its component is complete.
+                    continue;
+                }
+                if (!index.containsKey(callee)) {
+                    visit(callee, icfg, calleesOf, index, lowLink, component, onStack, path);
+                } else if (onStack.contains(callee)) {
+                    lowLink.put(frame.method, Math.min(lowLink.get(frame.method), index.get(callee)));
+                }
+                continue;
+            }
+            path.pop();
+            SootMethod method = frame.method;
+            if (lowLink.get(method).equals(index.get(method))) {
+                List<SootMethod> members = new ArrayList<>();
+                SootMethod member;
+                do {
+                    member = component.pop();
+                    onStack.remove(member);
+                    members.add(member);
+                } while (member != method);
+                hashComponent(members, calleesOf);
+            }
+            if (!path.isEmpty()) {
+                SootMethod caller = path.peek().method;
+                lowLink.put(caller, Math.min(lowLink.get(caller), lowLink.get(method)));
+            }
+        }
+    }
+
+    private static void visit(SootMethod method, InterproceduralCFG<Stmt, SootMethod> icfg, Map<SootMethod, List<SootMethod>> calleesOf,
+                              Map<SootMethod, Integer> index, Map<SootMethod, Integer> lowLink, Deque<SootMethod> component,
+                              Set<SootMethod> onStack, Deque<Frame> path) {
+        index.put(method, index.size());
+        lowLink.put(method, index.get(method));
+        component.push(method);
+        onStack.add(method);
+        Set<SootMethod> callees = new LinkedHashSet<>();
+        for (Stmt callSite : icfg.getCallsFromWithin(method)) {
+            for (SootMethod callee : icfg.getCalleesOfCallAt(callSite)) {
+                if (callee.hasBody()) {
+                    callees.add(callee);
+                }
+            }
+        }
+        List<SootMethod> calleeList = new ArrayList<>(callees);
+        calleesOf.put(method, calleeList);
+        path.push(new Frame(method, calleeList.iterator()));
+    }
+
+    /**
+     * Hashes the bodies of the given component and the hashes of the components it calls, which are all complete.
+     */
+    private void hashComponent(List<SootMethod> members, Map<SootMethod, List<SootMethod>> calleesOf) {
+        Set<SootMethod> memberSet = new HashSet<>(members);
+        Set<String> bodies = new TreeSet<>();
+        Set<String> callees = new TreeSet<>();
+        for (SootMethod member : members) {
+            bodies.add(SummaryStore.sha256(member.getSignature() + "\n" + member.getBody()));
+            for (SootMethod callee : calleesOf.get(member)) {
+                if (!memberSet.contains(callee)) {
+                    callees.add(hashes.get(callee.getSignature()));
+                }
+            }
+        }
+        String hash = SummaryStore.sha256(String.join("\n", bodies) + "\n->\n" + String.join("\n", callees));
+        for (SootMethod member : members) {
+            hashes.put(member.getSignature(), hash);
+        }
+    }
+}
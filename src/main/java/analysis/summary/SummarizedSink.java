@@ -0,0 +1,126 @@
+package analysis.summary;
+
+import analysis.VulnerabilityReporter;
+import analysis.fact.AccessPath;
+import analysis.fact.DataFlowFact;
+import sootup.core.IdentifierFactory;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.views.View;
+
+
+/**
+ * A sink statement reached by an entry fact of a summarized method. The sink is stored by the signature of the method
+ * that contains it and its position in that method's body, and the fact that reached it by its textual parts, so that
+ * both can be persisted and resolved against a later view. If the taint originates from a source call inside the
+ * summarized method or its callees, that call is stored the same way; otherwise the taint is the entry fact's, and the
+ * sink is replayed with the source of the fact that enters the method.
+ */
+public final class SummarizedSink {
+
+    private final String method;
+    private final int stmtIndex;
+    private final String factVariable;
+    private final String factType;
+    private final String factPath;
+    private final String sourceMethod;
+    private final int sourceIndex;
+
+    public SummarizedSink(String method, int stmtIndex, String factVariable, String factType, String factPath,
+                          String sourceMethod, int sourceIndex) {
+        this.method = method;
+        this.stmtIndex = stmtIndex;
+        this.factVariable = factVariable;
+        this.factType = factType;
+        this.factPath = factPath;
+        this.sourceMethod = sourceMethod;
+        this.sourceIndex = sourceIndex;
+    }
+
+    /**
+     * Describes a sink reached at the given statement of the given method, by a taint from the given source call of
+     * the given method, or from the entry fact if the source is {@code null}.
+     */
+    static SummarizedSink of(SootMethod method, Stmt sink, DataFlowFact fact, SootMethod sourceMethod, Stmt source) {
+        int index = method.getBody().getStmts().indexOf(sink);
+        Local variable = fact.getVariable();
+        String field = fact.getAccessPath().isEmpty() ? null : fact.getAccessPath().toString();
+        return new SummarizedSink(method.getSignature().toString(), index, variable.getName(), variable.getType().toString(), field,
+                source == null ? null : sourceMethod.getSignature().toString(),
+                source == null ? -1 : sourceMethod.getBody().getStmts().indexOf(source));
+    }
+
+    /**
+     * Reports this sink to the reporter, as if the analysis had descended into the summarized method with a fact from
+     * the given source call.
+     */
+    void replay(View view, VulnerabilityReporter reporter, Stmt entrySource) {
+        IdentifierFactory identifiers = view.getIdentifierFactory();
+        SootMethod sinkMethod = methodOf(view, method);
+        Stmt source = sourceMethod == null ? entrySource : methodOf(view, sourceMethod).getBody().getStmts().get(sourceIndex);
+        Local variable = new Local(factVariable, identifiers.getType(factType));
+        DataFlowFact fact = DataFlowFact.of(variable, factPath == null ? AccessPath.empty() : parsePath(identifiers, factPath), source);
+        reporter.reportVulnerability(sinkMethod.getBody().getStmts().get(stmtIndex), sinkMethod, fact, source);
+    }
+
+    private static SootMethod methodOf(View view, String signature) {
+        return view.getMethod(view.getIdentifierFactory().parseMethodSignature(signature))
+                .orElseThrow(() -> new IllegalStateException("Summarized method '" + signature + "' is not in the view."));
+    }
+
+    /**
+     * Parses the string form of an {@link AccessPath}.
+     */
+    private static AccessPath parsePath(IdentifierFactory identifiers, String text) {
+        if (text.equals("*")) {
+            return AccessPath.empty().truncate();
+        }
+        boolean truncated = text.endsWith(".*");
+        String[] parts = (truncated ? text.substring(0, text.length() - 2) : text).split("(?<=>)\\.(?=<)");
+        FieldSignature[] fields = new FieldSignature[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            fields[i] = identifiers.parseFieldSignature(parts[i]);
+        }
+        AccessPath path = AccessPath.of(fields);
+        return truncated ? path.truncate() : path;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int getStmtIndex() {
+        return stmtIndex;
+    }
+
+    public String getFactVariable() {
+        return factVariable;
+    }
+
+    public String getFactType() {
+        return factType;
+    }
+
+    /**
+     * Returns the access path of the fact, or {@code null} if the fact has no fields.
+     */
+    public String getFactPath() {
+        return factPath;
+    }
+
+    /**
+     * Returns the signature of the method of the source call, or {@code null} if the taint is the entry fact's.
+     */
+    public String getSourceMethod() {
+        return sourceMethod;
+    }
+
+    /**
+     * Returns the position of the source call in the body of its method, or -1 if the taint is the entry fact's.
+     */
+    public int getSourceIndex() {
+        return sourceIndex;
+    }
+}
@@ -0,0 +1,116 @@
+package analysis.summary;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists method summaries in a directory, one file per method. A file holds the method signature and body hash,
+ * followed by a {@code fact} line per summarized entry fact and a {@code sink} line per sink it reaches, with the
+ * access path of the fact, empty if it has none, and the source call if it is not the entry fact's; fields are
+ * separated by tabs. Files are replaced atomically, so concurrent analyses never read a partially written summary.
+ */
+public class SummaryStore {
+
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private final Path directory;
+
+    public SummaryStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the summary of the given method, or returns {@code null} if there is none or it was computed for other
+     * bodies than the ones the given hash identifies.
+     */
+    public MethodSummary load(String signature, String hash) {
+        Path file = fileOf(signature);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String[] header = split(reader.readLine());
+            if (header.length != 2 || !header[0].equals(signature) || !header[1].equals(hash)) {
+                return null;
+            }
+            MethodSummary summary = new MethodSummary(signature, hash);
+            List<SummarizedSink> sinks = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = split(line);
+                if (fields[0].equals("fact")) {
+                    sinks = new ArrayList<>();
+                    summary.put(fields[1], sinks);
+                } else if (fields[0].equals("sink") && sinks != null) {
+                    sinks.add(new SummarizedSink(fields[1], Integer.parseInt(fields[2]), fields[3], fields[4],
+                            fields.length > 5 && !fields[5].isEmpty() ? fields[5] : null,
+                            fields.length > 7 ? fields[6] : null, fields.length > 7 ? Integer.parseInt(fields[7]) : -1));
+                } else {
+                    throw new IllegalStateException("Malformed summary file '" + file + "'.");
+                }
+            }
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void store(MethodSummary summary) {
+        Path file = fileOf(summary.getSignature());
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "summary", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(summary.getSignature() + FIELD_SEPARATOR + summary.getHash());
+                writer.newLine();
+                for (Map.Entry<String, List<SummarizedSink>> entry : summary.getEntries().entrySet()) {
+                    writer.write("fact" + FIELD_SEPARATOR + entry.getKey());
+                    writer.newLine();
+                    for (SummarizedSink sink : entry.getValue()) {
+                        writer.write("sink" + FIELD_SEPARATOR + sink.getMethod() + FIELD_SEPARATOR + sink.getStmtIndex()
+                                + FIELD_SEPARATOR + sink.getFactVariable() + FIELD_SEPARATOR + sink.getFactType()
+                                + FIELD_SEPARATOR + (sink.getFactPath() == null ? "" : sink.getFactPath())
+                                + (sink.getSourceMethod() == null ? ""
+                                : FIELD_SEPARATOR + sink.getSourceMethod() + FIELD_SEPARATOR + sink.getSourceIndex()));
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path fileOf(String signature) {
+        return directory.resolve(sha256(signature) + ".summary");
+    }
+
+    private static String[] split(String line) {
+        return line == null ? new String[0] : line.split(FIELD_SEPARATOR);
+    }
+
+    public static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
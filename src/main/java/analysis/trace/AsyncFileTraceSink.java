@@ -0,0 +1,111 @@
+package analysis.trace;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes trace events to a file from a background thread, in the order they were accepted. Solver threads only
+ * enqueue events into a bounded queue; they never block on I/O. If the writer falls behind and the queue is full, the
+ * newest events are dropped, so that the trace keeps a gap-free prefix up to the first drop, and counted in
+ * {@link #getDroppedEvents()}.
+ */
+public class AsyncFileTraceSink implements TraceSink {
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int BATCH_SIZE = 1024;
+
+    private final BlockingQueue<TraceEvent> buffer;
+    private final Writer writer;
+    private final Thread writerThread;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    public AsyncFileTraceSink(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    public AsyncFileTraceSink(Path file, int capacity) throws IOException {
+        this(Files.newBufferedWriter(file, StandardCharsets.UTF_8), capacity);
+    }
+
+    /**
+     * Writes the events to the given writer, one per line, and closes it on {@link #close()}. The writer is only used
+     * by the background thread; it should be buffered.
+     */
+    public AsyncFileTraceSink(Writer writer, int capacity) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writer = writer;
+        this.writerThread = new Thread(this::drain, "taint-trace-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Enqueues the given event, or drops it if the sink is closed or the queue is full.
+     */
+    @Override
+    public void accept(TraceEvent event) {
+        if (closed || !buffer.offer(event)) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private void drain() {
+        List<TraceEvent> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (!closed || !buffer.isEmpty()) {
+                TraceEvent first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, BATCH_SIZE - 1);
+                for (TraceEvent event : batch) {
+                    writer.write(event.format());
+                    writer.write(System.lineSeparator());
+                }
+                batch.clear();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the remaining buffered events and closes the file.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join();
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failure = e;
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+}
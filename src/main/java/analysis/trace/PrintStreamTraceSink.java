@@ -0,0 +1,20 @@
+package analysis.trace;
+
+import java.io.PrintStream;
+
+/**
+ * Writes each trace event synchronously to a print stream, e.g. {@code System.out} while debugging a small target.
+ */
+public class PrintStreamTraceSink implements TraceSink {
+
+    private final PrintStream stream;
+
+    public PrintStreamTraceSink(PrintStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void accept(TraceEvent event) {
+        stream.println(event.format());
+    }
+}
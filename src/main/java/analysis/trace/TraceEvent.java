@@ -0,0 +1,56 @@
+package analysis.trace;
+
+import analysis.fact.DataFlowFact;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Set;
+
+/**
+ * A single trace record. Events are formatted by the sink, so the solver thread that emits them does not pay for
+ * rendering statements and facts to strings.
+ */
+public final class TraceEvent {
+
+    private final TraceLevel level;
+    private final SootMethod method;
+    private final Stmt stmt;
+    private final DataFlowFact fact;
+    private final Set<DataFlowFact> out;
+
+    public TraceEvent(TraceLevel level, SootMethod method, Stmt stmt, DataFlowFact fact, Set<DataFlowFact> out) {
+        this.level = level;
+        this.method = method;
+        this.stmt = stmt;
+        this.fact = fact;
+        this.out = out;
+    }
+
+    public TraceLevel getLevel() {
+        return level;
+    }
+
+    public SootMethod getMethod() {
+        return method;
+    }
+
+    public Stmt getStmt() {
+        return stmt;
+    }
+
+    public DataFlowFact getFact() {
+        return fact;
+    }
+
+    /**
+     * Returns the outgoing facts of the flow function application, or {@code null} for a {@link TraceLevel#FLOW} event.
+     */
+    public Set<DataFlowFact> getOut() {
+        return out;
+    }
+
+    public String format() {
+        String line = "Method :" + method + ", Stmt(line:" + stmt.getPositionInfo().getStmtPosition().getFirstLine() + ") " + stmt + ", Fact: " + fact;
+        return out == null ? line : line + ", Out: " + out;
+    }
+}
@@ -0,0 +1,19 @@
+package analysis.trace;
+
+/**
+ * Verbosity of the flow function traces. Each level includes the output of the levels before it.
+ */
+public enum TraceLevel {
+    /**
+     * No tracing at all.
+     */
+    OFF,
+    /**
+     * One trace per flow function application: the statement and the incoming fact.
+     */
+    FLOW,
+    /**
+     * Additionally the outgoing facts of each flow function application.
+     */
+    DETAIL
+}
@@ -0,0 +1,14 @@
+package analysis.trace;
+
+/**
+ * Receives the trace events of a {@link Tracer}. Implementations must be thread-safe, as the solver applies flow
+ * functions on several threads.
+ */
+public interface TraceSink extends AutoCloseable {
+
+    void accept(TraceEvent event);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,47 @@
+package analysis.trace;
+
+import analysis.fact.DataFlowFact;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Level-gated tracing for the flow functions. Callers check {@link #isEnabled(TraceLevel)} before building anything
+ * for a trace, so a disabled tracer costs a single comparison per flow function application. The method filter is
+ * only evaluated for events that pass the level check.
+ */
+public final class Tracer {
+
+    private static final Tracer DISABLED = new Tracer(TraceLevel.OFF, method -> false, event -> {
+    });
+
+    private final TraceLevel level;
+    private final Predicate<SootMethod> methodFilter;
+    private final TraceSink sink;
+
+    public Tracer(TraceLevel level, TraceSink sink) {
+        this(level, method -> true, sink);
+    }
+
+    public Tracer(TraceLevel level, Predicate<SootMethod> methodFilter, TraceSink sink) {
+        this.level = level;
+        this.methodFilter = methodFilter;
+        this.sink = sink;
+    }
+
+    public static Tracer disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled(TraceLevel level) {
+        return level != TraceLevel.OFF && level.ordinal() <= this.level.ordinal();
+    }
+
+    public void trace(TraceLevel level, SootMethod method, Stmt stmt, DataFlowFact fact, Set<DataFlowFact> out) {
+        if (isEnabled(level) && methodFilter.test(method)) {
+            sink.accept(new TraceEvent(level, method, stmt, fact, out));
+        }
+    }
+}
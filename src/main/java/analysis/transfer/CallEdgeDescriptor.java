@@ -0,0 +1,59 @@
+package analysis.transfer;
+
+import analysis.fact.DataFlowFact;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+
+/**
+ * Pairs the arguments of a call site with the parameters of one of its callees. Position i holds the fact for the
+ * i-th argument and the fact for the callee's i-th parameter local; the argument fact is {@code null} where the
+ * argument is a constant.
+ */
+public final class CallEdgeDescriptor {
+
+    private final DataFlowFact[] argumentFacts;
+    private final DataFlowFact[] parameterFacts;
+
+    private CallEdgeDescriptor(DataFlowFact[] argumentFacts, DataFlowFact[] parameterFacts) {
+        this.argumentFacts = argumentFacts;
+        this.parameterFacts = parameterFacts;
+    }
+
+    public static CallEdgeDescriptor compile(StmtDescriptor callSite, SootMethod callee) {
+        int argumentCount = callSite.getArgumentCount();
+        DataFlowFact[] argumentFacts = new DataFlowFact[argumentCount];
+        DataFlowFact[] parameterFacts = new DataFlowFact[argumentCount];
+        if (callee.hasBody()) {
+            Body body = callee.getBody();
+            for (int i = 0; i < argumentCount; i++) {
+                argumentFacts[i] = callSite.getArgumentFact(i);
+                if (argumentFacts[i] != null) {
+                    parameterFacts[i] = DataFlowFact.of(body.getParameterLocal(i));
+                }
+            }
+        }
+        return new CallEdgeDescriptor(argumentFacts, parameterFacts);
+    }
+
+    public int size() {
+        return argumentFacts.length;
+    }
+
+    /**
+     * Returns whether the i-th argument is the base variable of the given fact.
+     */
+    public boolean passes(int i, DataFlowFact fact) {
+        return argumentFacts[i] != null && argumentFacts[i] == fact.getBaseFact();
+    }
+
+    /**
+     * Returns the fact for the i-th argument, or {@code null} if the argument is a constant.
+     */
+    public DataFlowFact getArgumentFact(int i) {
+        return argumentFacts[i];
+    }
+
+    public DataFlowFact getParameterFact(int i) {
+        return parameterFacts[i];
+    }
+}
@@ -0,0 +1,172 @@
+package analysis.transfer;
+
+import analysis.fact.DataFlowFact;
+import analysis.spec.CallRole;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.LValue;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.FieldSignature;
+
+import java.util.Optional;
+
+/**
+ * The parts of a statement that the taint flow functions look at, extracted once so that applying a flow function does
+ * not have to inspect the statement again.
+ * <p>
+ * A copy statement {@code def = use} assigns a local or an instance field to a local or an instance field. Its def
+ * and use are given as a base local plus an optional field. A call statement exposes the facts of its arguments, of
+ * its receiver and of the local that receives its return value; a fact is {@code null} where the corresponding value
+ * is not a local.
+ */
+public final class StmtDescriptor {
+
+    private static final DataFlowFact[] NO_ARGUMENTS = new DataFlowFact[0];
+
+    private final Stmt stmt;
+    private final CallRole role;
+
+    private final Local defBase;
+    private final FieldSignature defField;
+    private final Local useBase;
+    private final FieldSignature useField;
+
+    private final DataFlowFact[] argumentFacts;
+    private final DataFlowFact invokeBaseFact;
+    private final DataFlowFact resultFact;
+
+    private StmtDescriptor(Stmt stmt, CallRole role, Local defBase, FieldSignature defField,
+                           Local useBase, FieldSignature useField, DataFlowFact[] argumentFacts,
+                           DataFlowFact invokeBaseFact, DataFlowFact resultFact) {
+        this.stmt = stmt;
+        this.role = role;
+        this.defBase = defBase;
+        this.defField = defField;
+        this.useBase = useBase;
+        this.useField = useField;
+        this.argumentFacts = argumentFacts;
+        this.invokeBaseFact = invokeBaseFact;
+        this.resultFact = resultFact;
+    }
+
+    public static StmtDescriptor compile(Stmt stmt, CallRole role) {
+        Local defBase = null;
+        FieldSignature defField = null;
+        Local useBase = null;
+        FieldSignature useField = null;
+        if (stmt instanceof JAssignStmt && !stmt.containsInvokeExpr()) {
+            JAssignStmt assignStmt = (JAssignStmt) stmt;
+            Value left = assignStmt.getLeftOp();
+            Value right = assignStmt.getRightOp();
+            if (isLocalOrInstanceField(left) && isLocalOrInstanceField(right)) {
+                defBase = baseOf(left);
+                defField = fieldOf(left);
+                useBase = baseOf(right);
+                useField = fieldOf(right);
+            }
+        }
+
+        DataFlowFact[] argumentFacts = NO_ARGUMENTS;
+        DataFlowFact invokeBaseFact = null;
+        DataFlowFact resultFact = null;
+        if (stmt.containsInvokeExpr()) {
+            AbstractInvokeExpr invokeExpr = stmt.getInvokeExpr();
+            argumentFacts = new DataFlowFact[invokeExpr.getArgCount()];
+            for (int i = 0; i < argumentFacts.length; i++) {
+                Immediate arg = invokeExpr.getArg(i);
+                // We only care about locals.
+                if (arg instanceof Local) {
+                    argumentFacts[i] = DataFlowFact.of((Local) arg);
+                }
+            }
+            if (invokeExpr instanceof AbstractInstanceInvokeExpr) {
+                invokeBaseFact = DataFlowFact.of(((AbstractInstanceInvokeExpr) invokeExpr).getBase());
+            }
+            Optional<LValue> def = stmt.getDef();
+            if (def.isPresent() && def.get() instanceof Local) {
+                resultFact = DataFlowFact.of((Local) def.get());
+            }
+        }
+        return new StmtDescriptor(stmt, role, defBase, defField, useBase, useField, argumentFacts, invokeBaseFact, resultFact);
+    }
+
+    private static boolean isLocalOrInstanceField(Value value) {
+        return value instanceof Local || value instanceof JInstanceFieldRef;
+    }
+
+    private static Local baseOf(Value value) {
+        return value instanceof Local ? (Local) value : ((JInstanceFieldRef) value).getBase();
+    }
+
+    private static FieldSignature fieldOf(Value value) {
+        return value instanceof Local ? null : ((JInstanceFieldRef) value).getFieldSignature();
+    }
+
+    public Stmt getStmt() {
+        return stmt;
+    }
+
+    public CallRole getRole() {
+        return role;
+    }
+
+    /**
+     * Returns whether the statement assigns a local or an instance field to a local or an instance field.
+     */
+    public boolean isCopy() {
+        return defBase != null;
+    }
+
+    /**
+     * Returns whether the statement is a copy between two locals.
+     */
+    public boolean isLocalCopy() {
+        return isCopy() && defField == null && useField == null;
+    }
+
+    public Local getDefBase() {
+        return defBase;
+    }
+
+    public FieldSignature getDefField() {
+        return defField;
+    }
+
+    public Local getUseBase() {
+        return useBase;
+    }
+
+    public FieldSignature getUseField() {
+        return useField;
+    }
+
+    public int getArgumentCount() {
+        return argumentFacts.length;
+    }
+
+    /**
+     * Returns the fact for the i-th argument of the call, or {@code null} if that argument is a constant.
+     */
+    public DataFlowFact getArgumentFact(int i) {
+        return argumentFacts[i];
+    }
+
+    /**
+     * Returns the fact for the receiver of an instance call, or {@code null} for a static call.
+     */
+    public DataFlowFact getInvokeBaseFact() {
+        return invokeBaseFact;
+    }
+
+    /**
+     * Returns the fact for the local that receives the return value of the call, or {@code null} if there is none.
+     */
+    public DataFlowFact getResultFact() {
+        return resultFact;
+    }
+}
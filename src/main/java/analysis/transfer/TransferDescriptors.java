@@ -0,0 +1,50 @@
+package analysis.transfer;
+
+import analysis.spec.CallSiteClassifier;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles statements into {@link StmtDescriptor}s and call edges into {@link CallEdgeDescriptor}s on first lookup, so
+ * that only the methods the solver reaches are compiled. The descriptors hold their statements, so they are dropped
+ * with {@link #clear()} once the solver is done with them.
+ */
+public class TransferDescriptors {
+
+    private final CallSiteClassifier classifier;
+
+    private final Map<Stmt, StmtDescriptor> stmtDescriptors = new ConcurrentHashMap<>();
+
+    private final Map<Stmt, Map<SootMethod, CallEdgeDescriptor>> callEdgeDescriptors = new ConcurrentHashMap<>();
+
+    public TransferDescriptors(CallSiteClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    public void clear() {
+        stmtDescriptors.clear();
+        callEdgeDescriptors.clear();
+    }
+
+    public StmtDescriptor of(Stmt stmt) {
+        StmtDescriptor descriptor = stmtDescriptors.get(stmt);
+        if (descriptor == null) {
+            descriptor = StmtDescriptor.compile(stmt, classifier.roleOf(stmt));
+            stmtDescriptors.put(stmt, descriptor);
+        }
+        return descriptor;
+    }
+
+    public CallEdgeDescriptor of(Stmt callSite, SootMethod callee) {
+        Map<SootMethod, CallEdgeDescriptor> byCallee = callEdgeDescriptors.computeIfAbsent(callSite, k -> new ConcurrentHashMap<>());
+        CallEdgeDescriptor descriptor = byCallee.get(callee);
+        if (descriptor == null) {
+            descriptor = CallEdgeDescriptor.compile(of(callSite), callee);
+            byCallee.put(callee, descriptor);
+        }
+        return descriptor;
+    }
+}
@@ -0,0 +1,137 @@
+package analysis.view;
+
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.SootClassSource;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.cache.provider.LRUCacheProvider;
+import sootup.core.types.ClassType;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.views.JavaView;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link JavaView} that keeps at most a fixed number of classes, and with them their method bodies, on the heap.
+ * Classes are only resolved when the analysis asks for them, and the least recently used ones are evicted; an evicted
+ * class is built again from its bytecode the next time it is needed. Methods the analysis still references are
+ * not rebuilt: {@link #getMethod} keeps returning the instance in use, so only bodies nobody holds are dropped.
+ * <p>
+ * Use it together with a {@link analysis.icfg.CallGraphICFG}, which only loads the bodies of the methods the solver
+ * reaches, and a batch size in {@link analysis.BatchTaintAnalysis}, so that those bodies are released between batches.
+ */
+public class BoundedJavaView extends JavaView {
+
+    private final AtomicInteger builtClasses = new AtomicInteger();
+
+    /**
+     * The methods handed out so far, as long as the analysis still references them. Statements and methods compare by
+     * identity, so a method in use must not be replaced by a rebuilt copy when its class is evicted. Entries of
+     * collected methods are purged on the next lookup.
+     */
+    private final Map<MethodSignature, LiveMethod> liveMethods = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<JavaSootMethod> collectedMethods = new ReferenceQueue<>();
+
+    /**
+     * A weak reference to a method handed out, which knows the entry to purge once the method is collected.
+     */
+    private static final class LiveMethod extends WeakReference<JavaSootMethod> {
+
+        final MethodSignature signature;
+
+        LiveMethod(JavaSootMethod method, ReferenceQueue<JavaSootMethod> queue) {
+            super(method, queue);
+            this.signature = method.getSignature();
+        }
+    }
+
+    public BoundedJavaView(AnalysisInputLocation inputLocation, int maxCachedClasses) {
+        this(Collections.singletonList(inputLocation), maxCachedClasses);
+    }
+
+    public BoundedJavaView(List<AnalysisInputLocation> inputLocations, int maxCachedClasses) {
+        super(inputLocations, new LRUCacheProvider(maxCachedClasses));
+    }
+
+    /**
+     * Returns the number of classes built from bytecode so far, including classes built again after their eviction.
+     */
+    public int getBuiltClasses() {
+        return builtClasses.get();
+    }
+
+    /**
+     * Returns all classes of the input locations. Unlike in {@link JavaView}, the result does not come from the cache,
+     * which only holds the most recently used classes.
+     */
+    @Override
+    public synchronized Collection<JavaSootClass> getClasses() {
+        Set<ClassType> types = new LinkedHashSet<>();
+        for (AnalysisInputLocation inputLocation : inputLocations) {
+            for (SootClassSource source : inputLocation.getClassSources(this)) {
+                types.add(source.getClassType());
+            }
+        }
+        List<JavaSootClass> classes = new ArrayList<>(types.size());
+        for (ClassType type : types) {
+            getClass(type).ifPresent(classes::add);
+        }
+        return classes;
+    }
+
+    /**
+     * Returns the number of methods handed out that the analysis may still reference.
+     */
+    public int getLiveMethods() {
+        purgeCollectedMethods();
+        return liveMethods.size();
+    }
+
+    /**
+     * Returns the method instance the analysis already uses, if any, and otherwise resolves the method from its class.
+     */
+    @Override
+    public Optional<JavaSootMethod> getMethod(MethodSignature signature) {
+        purgeCollectedMethods();
+        // Held strongly until returned, so the method cannot be collected in between.
+        JavaSootMethod[] method = new JavaSootMethod[1];
+        liveMethods.compute(signature, (key, previous) -> {
+            method[0] = previous == null ? null : previous.get();
+            if (method[0] != null) {
+                return previous;
+            }
+            method[0] = super.getMethod(key).orElse(null);
+            return method[0] == null ? null : new LiveMethod(method[0], collectedMethods);
+        });
+        return Optional.ofNullable(method[0]);
+    }
+
+    private void purgeCollectedMethods() {
+        Reference<? extends JavaSootMethod> collected;
+        while ((collected = collectedMethods.poll()) != null) {
+            LiveMethod method = (LiveMethod) collected;
+            // A method rebuilt since then has an entry of its own, which stays.
+            liveMethods.remove(method.signature, method);
+        }
+    }
+
+    @Override
+    protected synchronized Optional<JavaSootClass> buildClassFrom(AbstractClassSource source) {
+        builtClasses.incrementAndGet();
+        return super.buildClassFrom(source);
+    }
+}
@@ -0,0 +1,265 @@
+package analysis.workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a synthetic servlet workload, shaped by a {@link WorkloadConfig}, as Jimple files that can be loaded through
+ * {@code sootup.jimple.parser.JimpleAnalysisInputLocation}. Sources and sinks use the signatures of the default
+ * {@link analysis.spec.TaintSpecification}, so the number of leaks found on the workload can be compared against
+ * {@link WorkloadConfig#getExpectedFindings()}.
+ * <p>
+ * The expected findings are ground truth: field chains longer than one dereference are not tracked by the exercise
+ * analyses, and Exercise 1 does not track fields at all.
+ */
+public class ServletWorkloadGenerator {
+
+    public static final String PACKAGE = "generated";
+    public static final String HOLDER_CLASS = PACKAGE + ".Holder";
+    private static final String REQUEST_CLASS = "target.exercise1.HttpServletRequest";
+
+    private final WorkloadConfig config;
+
+    public ServletWorkloadGenerator(WorkloadConfig config) {
+        this.config = config;
+    }
+
+    public static String servletClassName(int index) {
+        return PACKAGE + ".Servlet" + index;
+    }
+
+    /**
+     * Writes the workload below {@code directory}, one file per class, and returns the directory.
+     */
+    public Path generate(Path directory) {
+        try {
+            write(directory, REQUEST_CLASS, requestClass());
+            write(directory, HOLDER_CLASS, holderClass());
+            for (int i = 0; i < config.getServlets(); i++) {
+                write(directory, servletClassName(i), servletClass(i, i < config.getLeakingServlets()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return directory;
+    }
+
+    private static void write(Path directory, String className, String content) throws IOException {
+        Path file = directory.resolve(className.replace('.', '/') + ".jimple");
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String requestClass() {
+        JimpleWriter out = new JimpleWriter();
+        out.line("public class " + REQUEST_CLASS + " extends java.lang.Object");
+        out.line("{");
+        constructor(out, REQUEST_CLASS);
+        out.line("    public java.lang.String getParameter(java.lang.String)");
+        out.line("    {");
+        out.line("        " + REQUEST_CLASS + " $this;");
+        out.line("        java.lang.String $name;");
+        out.line("");
+        out.line("        $this := @this: " + REQUEST_CLASS + ";");
+        out.line("        $name := @parameter0: java.lang.String;");
+        out.line("        return \"value\";");
+        out.line("    }");
+        out.line("}");
+        return out.toString();
+    }
+
+    private static String holderClass() {
+        JimpleWriter out = new JimpleWriter();
+        out.line("public class " + HOLDER_CLASS + " extends java.lang.Object");
+        out.line("{");
+        out.line("    public java.lang.String value;");
+        out.line("    public " + HOLDER_CLASS + " next;");
+        out.line("");
+        constructor(out, HOLDER_CLASS);
+        out.line("}");
+        return out.toString();
+    }
+
+    private static void constructor(JimpleWriter out, String className) {
+        out.line("    public void <init>()");
+        out.line("    {");
+        out.line("        " + className + " $this;");
+        out.line("");
+        out.line("        $this := @this: " + className + ";");
+        out.line("        specialinvoke $this.<java.lang.Object: void <init>()>();");
+        out.line("        return;");
+        out.line("    }");
+        out.line("");
+    }
+
+    private String servletClass(int index, boolean leaking) {
+        String className = servletClassName(index);
+        JimpleWriter out = new JimpleWriter();
+        out.line("public class " + className + " extends java.lang.Object");
+        out.line("{");
+        constructor(out, className);
+        doGet(out, className, leaking);
+        for (int level = 0; level < config.getCallDepth(); level++) {
+            for (int j = 0; j < config.getFanOut(); j++) {
+                helper(out, className, level, j);
+            }
+        }
+        out.line("}");
+        return out.toString();
+    }
+
+    private void doGet(JimpleWriter out, String className, boolean leaking) {
+        int fields = config.getFieldChainLength();
+        int appends = config.getConcatChainLength();
+
+        out.line("    public void doGet(" + REQUEST_CLASS + ")");
+        out.line("    {");
+        out.line("        " + className + " $this;");
+        out.line("        " + REQUEST_CLASS + " $request;");
+        out.line("        java.lang.String $input, $value, $loaded, $query;");
+        // One local per holder in the chain, plus a cursor to load a longer chain back.
+        declare(out, HOLDER_CLASS, "$h", fields < 2 ? fields : fields + 1);
+        declare(out, "java.lang.StringBuilder", "$b", appends + 2);
+        declareSinkLocals(out);
+        declareFillerLocals(out);
+        out.line("");
+        out.line("        $this := @this: " + className + ";");
+        out.line("        $request := @parameter0: " + REQUEST_CLASS + ";");
+        out.line("        $input = virtualinvoke $request.<" + REQUEST_CLASS
+                + ": java.lang.String getParameter(java.lang.String)>(\"userId\");");
+        if (leaking) {
+            out.line("        $value = $input;");
+        } else {
+            out.line("        $value = \"constant\";");
+        }
+        filler(out);
+
+        // Store the value behind $h0.next...next.value and load it back through the same chain.
+        if (fields == 0) {
+            out.line("        $loaded = $value;");
+        } else {
+            for (int i = 0; i < fields; i++) {
+                out.line("        $h" + i + " = new " + HOLDER_CLASS + ";");
+                out.line("        specialinvoke $h" + i + ".<" + HOLDER_CLASS + ": void <init>()>();");
+            }
+            out.line("        $h" + (fields - 1) + ".<" + HOLDER_CLASS + ": java.lang.String value> = $value;");
+            for (int i = fields - 2; i >= 0; i--) {
+                out.line("        $h" + i + ".<" + HOLDER_CLASS + ": " + HOLDER_CLASS + " next> = $h" + (i + 1) + ";");
+            }
+            String cursor = "$h0";
+            for (int i = 1; i < fields; i++) {
+                out.line("        $h" + fields + " = " + cursor + ".<" + HOLDER_CLASS + ": " + HOLDER_CLASS + " next>;");
+                cursor = "$h" + fields;
+            }
+            out.line("        $loaded = " + cursor + ".<" + HOLDER_CLASS + ": java.lang.String value>;");
+        }
+
+        // Build the query as "q" + loaded + "c1" + ... + "c<appends>".
+        out.line("        $b0 = new java.lang.StringBuilder;");
+        out.line("        specialinvoke $b0.<java.lang.StringBuilder: void <init>()>();");
+        out.line("        $b1 = virtualinvoke $b0.<java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.String)>($loaded);");
+        for (int i = 1; i <= appends; i++) {
+            out.line("        $b" + (i + 1) + " = virtualinvoke $b" + i
+                    + ".<java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.String)>(\"c" + i + "\");");
+        }
+        out.line("        $query = virtualinvoke $b" + (appends + 1) + ".<java.lang.StringBuilder: java.lang.String toString()>();");
+        filler(out);
+
+        if (config.getCallDepth() == 0) {
+            sinks(out, "$query");
+        } else {
+            calls(out, className, 0, "$query");
+        }
+        out.line("        return;");
+        out.line("    }");
+        out.line("");
+    }
+
+    private void helper(JimpleWriter out, String className, int level, int index) {
+        out.line("    private void " + helperName(level, index) + "(java.lang.String)");
+        out.line("    {");
+        out.line("        " + className + " $this;");
+        out.line("        java.lang.String $parameter;");
+        boolean leaf = level == config.getCallDepth() - 1;
+        if (leaf) {
+            declareSinkLocals(out);
+        }
+        declareFillerLocals(out);
+        out.line("");
+        out.line("        $this := @this: " + className + ";");
+        out.line("        $parameter := @parameter0: java.lang.String;");
+        filler(out);
+        if (leaf) {
+            sinks(out, "$parameter");
+        } else {
+            calls(out, className, level + 1, "$parameter");
+        }
+        out.line("        return;");
+        out.line("    }");
+        out.line("");
+    }
+
+    private static String helperName(int level, int index) {
+        return "level" + level + "_" + index;
+    }
+
+    private void calls(JimpleWriter out, String className, int level, String argument) {
+        for (int j = 0; j < config.getFanOut(); j++) {
+            out.line("        specialinvoke $this.<" + className + ": void " + helperName(level, j)
+                    + "(java.lang.String)>(" + argument + ");");
+        }
+    }
+
+    private void sinks(JimpleWriter out, String argument) {
+        out.line("        $conn = staticinvoke <java.sql.DriverManager: java.sql.Connection getConnection(java.lang.String,java.lang.String,java.lang.String)>(\"url\", \"userName\", \"password\");");
+        out.line("        $st = interfaceinvoke $conn.<java.sql.Connection: java.sql.Statement createStatement()>();");
+        for (int i = 0; i < config.getSinksPerMethod(); i++) {
+            out.line("        interfaceinvoke $st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(" + argument + ");");
+        }
+    }
+
+    private static void declareSinkLocals(JimpleWriter out) {
+        out.line("        java.sql.Connection $conn;");
+        out.line("        java.sql.Statement $st;");
+    }
+
+    private void declareFillerLocals(JimpleWriter out) {
+        declare(out, "java.lang.String", "$f", config.getFillerStatements());
+    }
+
+    private void filler(JimpleWriter out) {
+        for (int i = 0; i < config.getFillerStatements(); i++) {
+            out.line("        $f" + i + " = " + (i == 0 ? "\"filler\"" : "$f" + (i - 1)) + ";");
+        }
+    }
+
+    /**
+     * Declares the locals {@code prefix0} to {@code prefix<count - 1>}.
+     */
+    private static void declare(JimpleWriter out, String type, String prefix, int count) {
+        if (count == 0) {
+            return;
+        }
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            names.append(i == 0 ? "" : ", ").append(prefix).append(i);
+        }
+        out.line("        " + type + " " + names + ";");
+    }
+
+    private static class JimpleWriter {
+        private final StringBuilder text = new StringBuilder();
+
+        void line(String line) {
+            text.append(line).append('\n');
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package analysis.workload;
+
+/**
+ * Shape of a synthetic servlet workload generated by {@link ServletWorkloadGenerator}.
+ * <p>
+ * Each servlet reads a request parameter in doGet, stores it in a chain of holder objects and loads it back, appends
+ * it to a StringBuilder chain and passes the query down a tree of helper methods: level 0 holds {@code fanOut} helpers
+ * that are all called from doGet, and every helper of level i calls all {@code fanOut} helpers of level i + 1. The
+ * helpers of the last level execute the query. Only leaking servlets pass the request parameter; the others pass a
+ * constant through the same code.
+ */
+public class WorkloadConfig {
+
+    private int servlets = 10;
+    private int callDepth = 2;
+    private int fanOut = 2;
+    private int fieldChainLength = 1;
+    private int concatChainLength = 3;
+    private int fillerStatements = 0;
+    private int sinksPerMethod = 1;
+    private double leakingFraction = 0.5;
+
+    public int getServlets() {
+        return servlets;
+    }
+
+    public WorkloadConfig setServlets(int servlets) {
+        this.servlets = servlets;
+        return this;
+    }
+
+    public int getCallDepth() {
+        return callDepth;
+    }
+
+    /**
+     * Sets the number of helper levels below doGet. With depth 0, doGet executes the query itself.
+     */
+    public WorkloadConfig setCallDepth(int callDepth) {
+        this.callDepth = callDepth;
+        return this;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    public WorkloadConfig setFanOut(int fanOut) {
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    public int getFieldChainLength() {
+        return fieldChainLength;
+    }
+
+    /**
+     * Sets the number of field dereferences the request parameter is stored behind, e.g. 2 for {@code h.next.value}.
+     * With 0, the parameter is not stored in a field.
+     */
+    public WorkloadConfig setFieldChainLength(int fieldChainLength) {
+        this.fieldChainLength = fieldChainLength;
+        return this;
+    }
+
+    public int getConcatChainLength() {
+        return concatChainLength;
+    }
+
+    /**
+     * Sets the number of constant strings appended around the request parameter when building the query.
+     */
+    public WorkloadConfig setConcatChainLength(int concatChainLength) {
+        this.concatChainLength = concatChainLength;
+        return this;
+    }
+
+    public int getFillerStatements() {
+        return fillerStatements;
+    }
+
+    /**
+     * Sets the number of statements without data flow relevance added to every method, to lengthen method bodies.
+     */
+    public WorkloadConfig setFillerStatements(int fillerStatements) {
+        this.fillerStatements = fillerStatements;
+        return this;
+    }
+
+    public int getSinksPerMethod() {
+        return sinksPerMethod;
+    }
+
+    public WorkloadConfig setSinksPerMethod(int sinksPerMethod) {
+        this.sinksPerMethod = sinksPerMethod;
+        return this;
+    }
+
+    public double getLeakingFraction() {
+        return leakingFraction;
+    }
+
+    /**
+     * Sets the fraction of servlets whose request parameter reaches the sinks.
+     */
+    public WorkloadConfig setLeakingFraction(double leakingFraction) {
+        this.leakingFraction = leakingFraction;
+        return this;
+    }
+
+    public int getLeakingServlets() {
+        return (int) Math.round(servlets * leakingFraction);
+    }
+
+    /**
+     * Returns the number of distinct sink statements that receive tainted data.
+     */
+    public int getExpectedFindings() {
+        int sinkMethods = callDepth == 0 ? 1 : fanOut;
+        return getLeakingServlets() * sinkMethods * sinksPerMethod;
+    }
+
+    /**
+     * Returns the number of methods with a body in the workload, excluding constructors.
+     */
+    public int getMethodCount() {
+        return servlets * (1 + callDepth * fanOut);
+    }
+}
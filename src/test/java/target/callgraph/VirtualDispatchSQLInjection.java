@@ -0,0 +1,52 @@
+package target.callgraph;
+
+import target.exercise1.HttpServletRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class VirtualDispatchSQLInjection {
+    interface QueryRunner {
+        void run(String query);
+    }
+
+    static class SqlQueryRunner implements QueryRunner {
+        public void run(String query) {
+            try {
+                Connection conn = DriverManager.getConnection("url", "userName", "password");
+                Statement st = conn.createStatement();
+                st.executeQuery(query);
+            } catch (Exception e) {
+                System.out.println("Something went wrong");
+            }
+        }
+    }
+
+    static class LoggingQueryRunner implements QueryRunner {
+        public void run(String query) {
+            System.out.println(query);
+        }
+    }
+
+    static class NoopQueryRunner implements QueryRunner {
+        public void run(String query) {
+        }
+    }
+
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        execute(userId);
+        log("request handled");
+    }
+
+    private void execute(String query) {
+        QueryRunner runner = new SqlQueryRunner();
+        runner.run(query);
+    }
+
+    private void log(String message) {
+        QueryRunner logger = new LoggingQueryRunner();
+        logger.run(message);
+    }
+}
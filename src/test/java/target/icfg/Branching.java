@@ -0,0 +1,16 @@
+package target.icfg;
+
+public class Branching {
+
+    public static String repeat(String value, int times) {
+        String result = "";
+        for (int i = 0; i < times; i++) {
+            if (i % 2 == 0) {
+                result = result + value;
+            } else {
+                result = value + result;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package test.analysis;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.FindingListener;
+import analysis.VulnerabilityReporter;
+import analysis.backward.BackwardTaintAnalysis;
+import analysis.budget.AnalysisBudget;
+import analysis.budget.BudgetKind;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.spec.TaintSpecification;
+import analysis.workload.ServletWorkloadGenerator;
+import analysis.workload.WorkloadConfig;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+import sootup.jimple.parser.JimpleAnalysisInputLocation;
+import sootup.jimple.parser.JimpleView;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BackwardTaintAnalysisTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<String> sinks(List<Finding> findings) {
+        List<String> sinks = new ArrayList<>();
+        for (Finding finding : findings) {
+            sinks.add(finding.getMethod().getSignature() + " " + finding.getSink().getPositionInfo().getStmtPosition()
+                    + " from " + finding.getSource().getPositionInfo().getStmtPosition());
+        }
+        Collections.sort(sinks);
+        return sinks;
+    }
+
+    private static void assertSameSinksAsForward(View view) {
+        VulnerabilityReporter forward = new VulnerabilityReporter();
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(forward), 2).solve();
+        VulnerabilityReporter backward = new VulnerabilityReporter();
+        new BackwardTaintAnalysis(view, backward, TaintSpecification.getDefault(), 2).solve();
+
+        assertEquals(new TreeSet<>(sinks(forward.getFindings())), new TreeSet<>(sinks(backward.getFindings())));
+    }
+
+    @Test
+    public void findsTheSinksOfTheForwardAnalysis() {
+        assertSameSinksAsForward(new JavaView(new JavaClassPathAnalysisInputLocation(
+                System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes")));
+    }
+
+    @Test
+    public void followsGeneratedCallChainsBackToTheSource() throws Exception {
+        WorkloadConfig config = new WorkloadConfig().setServlets(4).setCallDepth(3).setFanOut(2).setConcatChainLength(2);
+        new ServletWorkloadGenerator(config).generate(folder.getRoot().toPath());
+        View view = new JimpleView(new JimpleAnalysisInputLocation(folder.getRoot().toPath()));
+
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        new BackwardTaintAnalysis(view, reporter).solve();
+        assertEquals(config.getExpectedFindings(), reporter.getFindings().size());
+        assertSameSinksAsForward(view);
+    }
+
+    @Test
+    public void exhaustedBudgetIsReportedAndCompletes() throws Exception {
+        new ServletWorkloadGenerator(new WorkloadConfig().setServlets(2).setCallDepth(2)).generate(folder.getRoot().toPath());
+        View view = new JimpleView(new JimpleAnalysisInputLocation(folder.getRoot().toPath()));
+
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        AtomicInteger completions = new AtomicInteger();
+        reporter.addListener(new FindingListener() {
+            @Override
+            public void onFinding(Finding finding) {
+            }
+
+            @Override
+            public void onComplete() {
+                completions.incrementAndGet();
+            }
+        });
+        BackwardTaintAnalysis analysis = new BackwardTaintAnalysis(view, reporter);
+        analysis.setBudget(new AnalysisBudget().setMaxPathEdges(1));
+        analysis.solve();
+
+        assertFalse(reporter.isComplete());
+        assertTrue(reporter.getIncomplete().values().iterator().next().contains(BudgetKind.PATH_EDGES));
+        assertEquals(1, completions.get());
+    }
+}
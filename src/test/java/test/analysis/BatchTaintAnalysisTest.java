@@ -0,0 +1,45 @@
+package test.analysis;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import org.junit.Test;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchTaintAnalysisTest {
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+
+    @Test
+    public void discoversAllServletEntryPoints() {
+        List<MethodSignature> entryPoints = BatchTaintAnalysis.discoverEntryPoints(view);
+        Set<String> classes = new TreeSet<>();
+        for (MethodSignature entryPoint : entryPoints) {
+            classes.add(entryPoint.getDeclClassType().getClassName());
+        }
+        assertEquals("[AssignmentSQLInjection, DirectSQLInjection, FieldNoSQLInjection, FieldSQLInjection1, FieldSQLInjection2, InterproceduralSQLInjection, NoSQLInjection, TwoSourcesSQLInjection, VirtualDispatchSQLInjection]", classes.toString());
+    }
+
+    @Test
+    public void analyzesAllEntryPointsInParallel() {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), 4).solve();
+
+        Set<String> leakingClasses = new TreeSet<>();
+        for (Finding finding : reporter.getFindings()) {
+            leakingClasses.add(finding.getMethod().getDeclaringClassType().getClassName());
+        }
+        assertEquals("[AssignmentSQLInjection, DirectSQLInjection, FieldSQLInjection1, FieldSQLInjection2, InterproceduralSQLInjection, TwoSourcesSQLInjection, VirtualDispatchSQLInjection$SqlQueryRunner]", leakingClasses.toString());
+    }
+}
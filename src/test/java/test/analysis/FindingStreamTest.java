@@ -0,0 +1,86 @@
+package test.analysis;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.FindingStream;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import org.junit.Test;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FindingStreamTest {
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+
+    private Thread analyze(VulnerabilityReporter reporter, int numWorkers) {
+        Thread analysis = new Thread(() -> new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), numWorkers).solve());
+        analysis.start();
+        return analysis;
+    }
+
+    @Test
+    public void streamsEveryFindingThroughAFullBuffer() throws InterruptedException {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        FindingStream stream = reporter.stream(1);
+        Thread analysis = analyze(reporter, 4);
+
+        List<Finding> streamed = new ArrayList<>();
+        for (Finding finding = stream.next(); finding != null; finding = stream.next()) {
+            streamed.add(finding);
+            // A slow consumer: the solvers wait for it instead of piling up findings.
+            Thread.sleep(20);
+        }
+        analysis.join();
+
+        assertTrue(stream.isEnded());
+        assertTrue(reporter.isComplete());
+        assertEquals(reporter.getFindings().size(), streamed.size());
+        assertEquals(new HashSet<>(reporter.getFindings()), new HashSet<>(streamed));
+    }
+
+    @Test
+    public void cancellingStopsTheAnalysisEarly() throws InterruptedException {
+        VulnerabilityReporter all = new VulnerabilityReporter();
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(all), 1).solve();
+
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        FindingStream stream = reporter.stream(1);
+        Thread analysis = analyze(reporter, 1);
+        Finding first = stream.next();
+        stream.cancel();
+        analysis.join();
+
+        Set<Finding> found = new HashSet<>(reporter.getFindings());
+        assertTrue(found.contains(first));
+        assertTrue(found.size() < all.getFindings().size());
+        assertTrue(reporter.isCancelled());
+        assertFalse(reporter.isComplete());
+        assertNull(stream.next());
+    }
+
+    @Test
+    public void pollingGivesUpAfterTheTimeout() throws InterruptedException {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        FindingStream stream = reporter.stream(8);
+
+        assertNull(stream.poll(20, TimeUnit.MILLISECONDS));
+        assertFalse(stream.isEnded());
+        reporter.complete();
+        assertNull(stream.next());
+        assertTrue(stream.isEnded());
+    }
+}
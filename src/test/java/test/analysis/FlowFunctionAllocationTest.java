@@ -0,0 +1,108 @@
+package test.analysis;
+
+import analysis.BatchTaintAnalysis;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.fact.DataFlowFact;
+import heros.FlowFunction;
+import org.junit.Assume;
+import org.junit.Test;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FlowFunctionAllocationTest {
+
+    private static final int REPETITIONS = 20;
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+
+    /**
+     * Records every application of a flow function during the analysis, except those that report a finding, which
+     * allocates the finding.
+     */
+    private static class RecordingFlowFunctions extends Exercise3FlowFunctions {
+
+        private final List<FlowFunction<DataFlowFact>> functions = new ArrayList<>();
+
+        private final List<DataFlowFact> facts = new ArrayList<>();
+
+        RecordingFlowFunctions(VulnerabilityReporter reporter) {
+            super(reporter);
+        }
+
+        private FlowFunction<DataFlowFact> recording(FlowFunction<DataFlowFact> function) {
+            return fact -> {
+                int reported = reporter.getReportedVulnerabilities();
+                Set<DataFlowFact> out = function.computeTargets(fact);
+                if (reporter.getReportedVulnerabilities() == reported) {
+                    synchronized (this) {
+                        functions.add(function);
+                        facts.add(fact);
+                    }
+                }
+                return out;
+            };
+        }
+
+        @Override
+        public FlowFunction<DataFlowFact> getNormalFlowFunction(Stmt curr, Stmt succ) {
+            return recording(super.getNormalFlowFunction(curr, succ));
+        }
+
+        @Override
+        public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callSite, SootMethod callee) {
+            return recording(super.getCallFlowFunction(callSite, callee));
+        }
+
+        @Override
+        public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+            return recording(super.getCallToReturnFlowFunction(callSite, returnSite));
+        }
+    }
+
+    @Test
+    public void reapplyingFlowFunctionsAllocatesNothing() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+
+        RecordingFlowFunctions flowFunctions = new RecordingFlowFunctions(new VulnerabilityReporter());
+        new BatchTaintAnalysis(view, flowFunctions, 1).solve();
+        List<FlowFunction<DataFlowFact>> functions = flowFunctions.functions;
+        List<DataFlowFact> facts = flowFunctions.facts;
+        assertTrue(functions.size() > 100);
+
+        // The results are shared, not rebuilt.
+        for (int i = 0; i < functions.size(); i++) {
+            assertSame(functions.get(i).computeTargets(facts.get(i)), functions.get(i).computeTargets(facts.get(i)));
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        int targets = 0;
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            for (int i = 0; i < functions.size(); i++) {
+                targets += functions.get(i).computeTargets(facts.get(i)).size();
+            }
+        }
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(targets > 0);
+        // A single set per application would be tens of bytes each; allow for noise of the measurement itself.
+        assertTrue("Allocated " + allocated + " bytes for " + REPETITIONS * functions.size() + " applications",
+                allocated < functions.size());
+    }
+}
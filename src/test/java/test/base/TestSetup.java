@@ -1,17 +1,12 @@
 package test.base;
 
 import analysis.IFDSTaintAnalysisProblem;
+import analysis.RecordingIFDSSolver;
+import analysis.ResultRecorder;
 import analysis.TaintAnalysisFlowFunctions;
 import analysis.VulnerabilityReporter;
-import analysis.fact.DataFlowFact;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-import heros.EdgeFunction;
-import heros.InterproceduralCFG;
 import sootup.analysis.interprocedural.icfg.JimpleBasedInterproceduralCFG;
-import sootup.analysis.interprocedural.ifds.JimpleIFDSSolver;
 import sootup.core.inputlocation.AnalysisInputLocation;
-import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -23,7 +18,6 @@ import sootup.java.core.views.JavaView;
 import java.io.File;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -32,7 +26,7 @@ public abstract class TestSetup {
     protected final View view;
     protected VulnerabilityReporter reporter;
     protected TaintAnalysisFlowFunctions flowFunctions;
-    protected final Multimap<Stmt, DataFlowFact> dataFlowFactsAtStmt = HashMultimap.create();
+    protected final ResultRecorder dataFlowFactsAtStmt = new ResultRecorder();
 
     protected TestSetup() {
 
@@ -47,18 +41,9 @@ public abstract class TestSetup {
      * For simplification, we test based on toString() representations of the objects.
      */
     protected void assertContainsDataFlowFactAtStmt(String fact, String stmt) {
-        boolean foundStmt = false;
-        for (Entry<Stmt, DataFlowFact> e : dataFlowFactsAtStmt.entries()) {
-            final String stmtStr = e.getKey().toString();
-            final String factStr = e.getValue().toString();
-            if (stmtStr.equals(stmt)) {
-                foundStmt = true;
-                if (factStr.equals(fact)) {
-                    return;
-                }
-            }
+        if (!dataFlowFactsAtStmt.containsFactAt(stmt, fact)) {
+            throw new NoSuchElementException("Analysis does not contain the fact '" + fact + "'.");
         }
-        throw new NoSuchElementException("Analysis does not contain the fact '" + fact + "'.");
     }
 
 
@@ -78,16 +63,7 @@ public abstract class TestSetup {
         JimpleBasedInterproceduralCFG icfg = new JimpleBasedInterproceduralCFG(view, entryPoint.getSignature(), false, false);
         flowFunctions.setICFG(icfg);
         IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, flowFunctions, entryPoints, view);
-        JimpleIFDSSolver<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>> solver = new JimpleIFDSSolver<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>>(problem) {
-            @Override
-            protected void propagate(DataFlowFact sourceFact, Stmt targetStmt, DataFlowFact targetFact,
-                                     EdgeFunction<BinaryDomain> edgeFunc, Stmt relatedCallSite, boolean isUnbalancedReturn) {
-                synchronized (dataFlowFactsAtStmt) {
-                    dataFlowFactsAtStmt.put(targetStmt, targetFact);
-                }
-                super.propagate(sourceFact, targetStmt, targetFact, edgeFunc, targetStmt, isUnbalancedReturn);
-            }
-        };
+        RecordingIFDSSolver solver = new RecordingIFDSSolver(problem, dataFlowFactsAtStmt);
         solver.solve();
     }
 
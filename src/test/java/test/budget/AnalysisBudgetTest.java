@@ -0,0 +1,89 @@
+package test.budget;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.VulnerabilityReporter;
+import analysis.budget.AnalysisBudget;
+import analysis.budget.BudgetKind;
+import analysis.exercise.Exercise3FlowFunctions;
+import org.junit.Test;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AnalysisBudgetTest {
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+
+    private final List<MethodSignature> entryPoints = BatchTaintAnalysis.discoverEntryPoints(view);
+
+    private VulnerabilityReporter solve(AnalysisBudget budget) {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), 2);
+        analysis.setBudget(budget);
+        analysis.solve(entryPoints);
+        return reporter;
+    }
+
+    @Test
+    public void generousBudgetsChangeNothing() {
+        VulnerabilityReporter unlimited = solve(new AnalysisBudget());
+        VulnerabilityReporter generous = solve(new AnalysisBudget().setSolveTimeMillis(60_000).setMaxPathEdges(1_000_000)
+                .setMaxFactsPerMethod(1_000).setMaxFactsPerStmt(1_000));
+
+        assertTrue(unlimited.isComplete());
+        assertTrue(generous.isComplete());
+        assertEquals(unlimited.getFindings().size(), generous.getFindings().size());
+    }
+
+    @Test
+    public void exhaustedTimeYieldsIncompleteEmptyResults() {
+        VulnerabilityReporter reporter = solve(new AnalysisBudget().setSolveTimeMillis(0));
+
+        assertFalse(reporter.isComplete());
+        assertTrue(reporter.getFindings().isEmpty());
+        assertEquals(entryPoints.size(), reporter.getIncomplete().size());
+        for (Set<BudgetKind> exceeded : reporter.getIncomplete().values()) {
+            assertEquals(EnumSet.of(BudgetKind.SOLVE_TIME), exceeded);
+        }
+    }
+
+    @Test
+    public void pathEdgeLimitKeepsFindingsSoFar() {
+        Set<Finding> all = new HashSet<>(solve(new AnalysisBudget()).getFindings());
+        VulnerabilityReporter reporter = solve(new AnalysisBudget().setMaxPathEdges(40));
+
+        assertFalse(reporter.isComplete());
+        assertTrue(all.containsAll(reporter.getFindings()));
+        assertTrue(reporter.getFindings().size() < all.size());
+        for (Set<BudgetKind> exceeded : reporter.getIncomplete().values()) {
+            assertEquals(EnumSet.of(BudgetKind.PATH_EDGES), exceeded);
+        }
+    }
+
+    @Test
+    public void factLimitsStopTaintsButNotTheZeroFact() {
+        VulnerabilityReporter perStmt = solve(new AnalysisBudget().setMaxFactsPerStmt(1));
+        assertTrue(perStmt.getFindings().isEmpty());
+        for (Map.Entry<MethodSignature, Set<BudgetKind>> incomplete : perStmt.getIncomplete().entrySet()) {
+            assertEquals(EnumSet.of(BudgetKind.FACTS_PER_STMT), incomplete.getValue());
+        }
+        assertFalse(perStmt.isComplete());
+
+        VulnerabilityReporter perMethod = solve(new AnalysisBudget().setMaxFactsPerMethod(1));
+        assertTrue(perMethod.getFindings().isEmpty());
+        assertTrue(perMethod.getIncomplete().values().iterator().next().contains(BudgetKind.FACTS_PER_METHOD));
+    }
+}
@@ -0,0 +1,152 @@
+package test.cli;
+
+import analysis.BatchTaintAnalysis;
+import analysis.VulnerabilityReporter;
+import analysis.cli.TaintAnalysisCli;
+import analysis.exercise.AccessPathFlowFunctions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaintAnalysisCliTest {
+
+    private static final String CLASS_PATH = System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int run(String... args) {
+        return TaintAnalysisCli.run(args, new PrintStream(out), new PrintStream(err));
+    }
+
+    private static int expectedFindings() {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        new BatchTaintAnalysis(new JavaView(new JavaClassPathAnalysisInputLocation(CLASS_PATH)), new AccessPathFlowFunctions(reporter), 2).solve();
+        return reporter.getFindings().size();
+    }
+
+    @Test
+    public void writesOneResultPerLine() throws IOException {
+        Path output = folder.getRoot().toPath().resolve("findings.jsonl");
+
+        assertEquals(TaintAnalysisCli.FINDINGS, run("--classpath", CLASS_PATH, "--threads", "2", "--format", "jsonl", "--output", output.toString()));
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(expectedFindings(), lines.size());
+        for (String line : lines) {
+            assertTrue(line, line.startsWith("{\"ruleId\": \"taint-flow\"") && line.endsWith("}"));
+        }
+    }
+
+    @Test
+    public void writesSarifLogToStandardOutput() {
+        assertEquals(TaintAnalysisCli.FINDINGS, run("--classpath", CLASS_PATH, "--threads", "2"));
+
+        String log = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(log.contains("\"version\": \"2.1.0\""));
+        assertTrue(log.contains("\"executionSuccessful\": true, \"toolExecutionNotifications\": []"));
+        assertTrue(log.trim().endsWith("}"));
+        int results = log.split("\"ruleId\": \"taint-flow\"", -1).length - 1;
+        assertEquals(expectedFindings(), results);
+    }
+
+    @Test
+    public void noFindingsWithoutSinks() throws IOException {
+        Path spec = folder.newFile("sources-only.spec").toPath();
+        Files.write(spec, Arrays.asList("# no sinks", "SOURCE java.lang.String getParameter(java.lang.String)"), StandardCharsets.UTF_8);
+
+        assertEquals(TaintAnalysisCli.NO_FINDINGS, run("--classpath", CLASS_PATH, "--spec", spec.toString(), "--format", "jsonl"));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void exhaustedBudgetIsReported() {
+        assertEquals(TaintAnalysisCli.INCOMPLETE, run("--classpath", CLASS_PATH, "--format", "jsonl", "--max-path-edges", "1"));
+
+        String lines = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(lines.startsWith("{\"incomplete\": {\"entryPoint\": "));
+        assertTrue(lines.contains("\"exceeded\": [\"PATH_EDGES\"]"));
+    }
+
+    @Test
+    public void stopsAfterTheMaximumFindings() {
+        assertEquals(TaintAnalysisCli.FINDINGS, run("--classpath", CLASS_PATH, "--threads", "1", "--format", "jsonl", "--max-findings", "1"));
+
+        String lines = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.split("\n").length);
+    }
+
+    @Test
+    public void writesStatisticsOfTheSelectedWorklist() throws IOException {
+        Path statistics = folder.getRoot().toPath().resolve("statistics.json");
+
+        assertEquals(TaintAnalysisCli.FINDINGS, run("--classpath", CLASS_PATH, "--format", "jsonl", "--worklist", "method_batched",
+                "--statistics", statistics.toString()));
+
+        String json = new String(Files.readAllBytes(statistics), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"solveNanos\": "));
+        assertFalse(json.contains("\"maxWorklistSize\": 0,"));
+    }
+
+    @Test
+    public void acceptsPathEdgeBudgetsBeyondTheIntRange() {
+        assertEquals(TaintAnalysisCli.FINDINGS, run("--classpath", CLASS_PATH, "--format", "jsonl", "--max-path-edges", "10000000000",
+                "--entry-point", "<target.exercise1.DirectSQLInjection: void doGet(target.exercise1.HttpServletRequest)>"));
+        assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).startsWith("{\"ruleId\""));
+    }
+
+    @Test
+    public void rejectsMalformedArguments() {
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--format", "jsonl"));
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--classpath", CLASS_PATH, "--threads", "none"));
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--classpath", CLASS_PATH, "--spec", "does-not-exist.spec"));
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--classpath", CLASS_PATH, "--worklist", "random"));
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--classpath", CLASS_PATH, "--entry-point", "doGet"));
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--classpath", CLASS_PATH, "--entry-point", "<target.Servlet: void doGet("));
+        assertFalse(new String(err.toByteArray(), StandardCharsets.UTF_8).isEmpty());
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void rejectsAMissingClassPath() {
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--classpath", folder.getRoot().toPath().resolve("missing").toString()));
+        assertFalse(new String(err.toByteArray(), StandardCharsets.UTF_8).isEmpty());
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void rejectsAnUnknownEntryPoint() {
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--classpath", CLASS_PATH,
+                "--entry-point", "<target.exercise1.DirectSQLInjection: void doPost(target.exercise1.HttpServletRequest)>"));
+        assertTrue(new String(err.toByteArray(), StandardCharsets.UTF_8).contains("is not on the class path"));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void rejectsAnEntryPointTheAnalysisDoesNotStartAt() {
+        assertEquals(TaintAnalysisCli.USAGE_ERROR, run("--classpath", CLASS_PATH,
+                "--entry-point", "<target.exercise1.DirectSQLInjection: void <init>()>"));
+        assertTrue(new String(err.toByteArray(), StandardCharsets.UTF_8).contains("is not a doGet or doPost method"));
+        assertEquals(0, out.size());
+    }
+}
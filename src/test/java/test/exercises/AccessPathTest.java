@@ -0,0 +1,79 @@
+package test.exercises;
+
+import analysis.BatchTaintAnalysis;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.AccessPathFlowFunctions;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.workload.ServletWorkloadGenerator;
+import analysis.workload.WorkloadConfig;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.views.View;
+import sootup.jimple.parser.JimpleAnalysisInputLocation;
+import sootup.jimple.parser.JimpleView;
+import target.exercise2and3.FieldNoSQLInjection;
+import target.exercise2and3.FieldSQLInjection1;
+import target.exercise2and3.FieldSQLInjection2;
+import test.base.TestSetup;
+
+import static org.junit.Assert.assertEquals;
+
+public class AccessPathTest extends TestSetup {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setup() {
+        reporter = new VulnerabilityReporter();
+        flowFunctions = new AccessPathFlowFunctions(reporter);
+    }
+
+    @Test
+    public void fieldSQLInjection1() {
+        executeStaticAnalysis(FieldSQLInjection1.class.getName());
+
+        assertContainsDataFlowFactAtStmt("$stack8 <target.exercise2and3.FieldSQLInjection1$ObjectWithTaint: java.lang.String userInput>", "conn#0 = staticinvoke <java.sql.DriverManager: java.sql.Connection getConnection(java.lang.String,java.lang.String,java.lang.String)>(\"url\", \"userName\", \"password\")");
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void fieldSQLInjection2() {
+        executeStaticAnalysis(FieldSQLInjection2.class.getName());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void fieldNoSQLInjection() {
+        executeStaticAnalysis(FieldNoSQLInjection.class.getName());
+        assertEquals(0, reporter.getReportedVulnerabilities());
+    }
+
+    private View generateFieldChains(int fieldChainLength) throws Exception {
+        WorkloadConfig config = new WorkloadConfig().setServlets(2).setCallDepth(1).setFanOut(1)
+                .setFieldChainLength(fieldChainLength).setLeakingFraction(1.0);
+        new ServletWorkloadGenerator(config).generate(folder.getRoot().toPath());
+        return new JimpleView(new JimpleAnalysisInputLocation(folder.getRoot().toPath()));
+    }
+
+    @Test
+    public void tracksFieldChainsUpToK() throws Exception {
+        View view = generateFieldChains(3);
+        new BatchTaintAnalysis(view, new AccessPathFlowFunctions(reporter, 3)).solve();
+        assertEquals(2, reporter.getFindings().size());
+
+        // A single field is not enough for h.next.next.value.
+        VulnerabilityReporter singleField = new VulnerabilityReporter();
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(singleField)).solve();
+        assertEquals(0, singleField.getFindings().size());
+    }
+
+    @Test
+    public void truncatedPathsOverApproximateLongerChains() throws Exception {
+        View view = generateFieldChains(4);
+        new BatchTaintAnalysis(view, new AccessPathFlowFunctions(reporter, 1)).solve();
+        assertEquals(2, reporter.getFindings().size());
+    }
+}
@@ -1,5 +1,6 @@
 package test.exercises;
 
+import analysis.Finding;
 import analysis.VulnerabilityReporter;
 import analysis.exercise.Exercise1FlowFunctions;
 import org.junit.Before;
@@ -8,9 +9,11 @@ import target.exercise1.AssignmentSQLInjection;
 import target.exercise1.DirectSQLInjection;
 import target.exercise1.InterproceduralSQLInjection;
 import target.exercise1.NoSQLInjection;
+import target.exercise1.TwoSourcesSQLInjection;
 import test.base.TestSetup;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 
 public class Exercise1Test extends TestSetup {
 
@@ -42,6 +45,31 @@ public class Exercise1Test extends TestSetup {
         assertEquals(1, reporter.getReportedVulnerabilities());
     }
 
+    @Test
+    public void interproceduralFindingIsReportedInCallee() {
+        executeStaticAnalysis(InterproceduralSQLInjection.class.getName());
+
+        assertEquals(1, reporter.getFindings().size());
+        Finding finding = reporter.getFindings().get(0);
+        assertEquals("createQuery", finding.getMethod().getName());
+        assertEquals("query from " + finding.getSource(), finding.getFact().toString());
+        assertEquals("interfaceinvoke st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(query)", finding.getSink().toString());
+        assertEquals("userId = virtualinvoke request.<target.exercise1.HttpServletRequest: java.lang.String getParameter(java.lang.String)>(\"userId\")", finding.getSource().toString());
+    }
+
+    @Test
+    public void everySourceOfASinkIsReported() {
+        executeStaticAnalysis(TwoSourcesSQLInjection.class.getName());
+
+        assertEquals(2, reporter.getFindings().size());
+        Finding first = reporter.getFindings().get(0);
+        Finding second = reporter.getFindings().get(1);
+        assertEquals(first.getSink(), second.getSink());
+        assertNotSame(first.getSource(), second.getSource());
+        assertEquals("getParameter", first.getSource().getInvokeExpr().getMethodSignature().getName());
+        assertEquals("getParameter", second.getSource().getInvokeExpr().getMethodSignature().getName());
+    }
+
     @Test
     public void noSQLInjection() {
         executeStaticAnalysis(NoSQLInjection.class.getName());
@@ -0,0 +1,82 @@
+package test.fact;
+
+import analysis.fact.AccessPath;
+import analysis.fact.DataFlowFact;
+import org.junit.Test;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.types.PrimitiveType;
+import sootup.java.core.JavaIdentifierFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataFlowFactTest {
+
+    private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+    @Test
+    public void equalFactsAreTheSameInstance() {
+        Local a = new Local("a", PrimitiveType.getInt());
+        assertSame(DataFlowFact.of(a), DataFlowFact.of(new Local("a", PrimitiveType.getInt())));
+        assertNotSame(DataFlowFact.of(a), DataFlowFact.of(new Local("b", PrimitiveType.getInt())));
+    }
+
+    @Test
+    public void fieldFactsAreInterned() {
+        Local base = new Local("o", PrimitiveType.getInt());
+        FieldSignature field = identifierFactory.parseFieldSignature("<target.Foo: java.lang.String bar>");
+        assertSame(DataFlowFact.of(base, field), DataFlowFact.of(base, identifierFactory.parseFieldSignature("<target.Foo: java.lang.String bar>")));
+        assertSame(DataFlowFact.of(field), DataFlowFact.of(field));
+        assertNotSame(DataFlowFact.of(base), DataFlowFact.of(base, field));
+    }
+
+    @Test
+    public void factsFromDifferentSourcesDiffer() {
+        Local base = new Local("o", PrimitiveType.getInt());
+        FieldSignature field = identifierFactory.parseFieldSignature("<target.Foo: java.lang.String bar>");
+        Stmt first = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+        Stmt second = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+        DataFlowFact fact = DataFlowFact.of(base, AccessPath.of(field), first);
+        assertSame(fact, DataFlowFact.of(base, AccessPath.of(field), first));
+        assertNotSame(fact, fact.withSource(second));
+        assertSame(first, fact.getSource());
+        assertSame(DataFlowFact.of(base, field), fact.withoutSource());
+        assertSame(DataFlowFact.of(base), fact.getBaseFact());
+        assertSame(first, fact.derive(new Local("p", PrimitiveType.getInt()), AccessPath.empty()).getSource());
+        assertEquals(DataFlowFact.of(base, field) + " from " + first, fact.toString());
+    }
+
+    @Test
+    public void accessPathsAreTruncatedAtK() {
+        FieldSignature next = identifierFactory.parseFieldSignature("<target.Node: target.Node next>");
+        FieldSignature value = identifierFactory.parseFieldSignature("<target.Node: java.lang.String value>");
+        AccessPath path = AccessPath.of(value).prepend(next, 3).prepend(next, 3);
+        assertEquals(3, path.length());
+        assertFalse(path.isTruncated());
+        assertSame(AccessPath.of(next, next, value), path);
+
+        AccessPath truncated = path.prepend(next, 3);
+        assertTrue(truncated.isTruncated());
+        assertSame(AccessPath.of(next, next, next).truncate(), truncated);
+        assertEquals("<target.Node: target.Node next>.<target.Node: target.Node next>.<target.Node: target.Node next>.*", truncated.toString());
+        // A truncated path stands for all its extensions.
+        assertTrue(AccessPath.of(next).truncate().dropFirst().startsWith(value));
+    }
+
+    @Test
+    public void factsWithTruncatedEmptyPathsHaveTheVariableAsBase() {
+        Local base = new Local("o", PrimitiveType.getInt());
+        DataFlowFact fact = DataFlowFact.of(base, AccessPath.empty().truncate());
+        assertNotSame(DataFlowFact.of(base), fact);
+        assertSame(DataFlowFact.of(base), fact.getBaseFact());
+        assertNull(fact.getFieldSignature());
+    }
+}
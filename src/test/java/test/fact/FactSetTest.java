@@ -0,0 +1,133 @@
+package test.fact;
+
+import analysis.fact.DataFlowFact;
+import analysis.fact.FactNumbering;
+import analysis.fact.FactSet;
+import org.junit.Test;
+import sootup.core.jimple.basic.Local;
+import sootup.core.types.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FactSetTest {
+
+    private final FactNumbering numbering = new FactNumbering();
+
+    private static List<DataFlowFact> facts(String prefix, int count) {
+        List<DataFlowFact> facts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            facts.add(DataFlowFact.of(new Local(prefix + i, PrimitiveType.getInt())));
+        }
+        return facts;
+    }
+
+    @Test
+    public void factsAreNumberedOnce() {
+        DataFlowFact fact = DataFlowFact.of(new Local("numbered", PrimitiveType.getInt()));
+        assertEquals(-1, numbering.find(fact));
+        int id = numbering.idOf(fact);
+        assertEquals(id, numbering.idOf(fact));
+        assertEquals(id, numbering.find(fact));
+        assertEquals(fact, numbering.factOf(id));
+        assertEquals(0, new FactNumbering().idOf(fact));
+    }
+
+    @Test
+    public void behavesLikeASetAcrossBothRepresentations() {
+        List<DataFlowFact> facts = facts("s", 200);
+        FactSet set = new FactSet(numbering);
+        Set<DataFlowFact> expected = new HashSet<>();
+        for (DataFlowFact fact : facts) {
+            assertTrue(set.add(fact));
+            assertFalse(set.add(fact));
+            expected.add(fact);
+            assertEquals(expected, set);
+        }
+        for (int i = 0; i < facts.size(); i += 3) {
+            assertTrue(set.remove(facts.get(i)));
+            assertFalse(set.remove(facts.get(i)));
+            expected.remove(facts.get(i));
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, new HashSet<>(set));
+        assertFalse(set.contains(facts.get(0)));
+        assertTrue(set.contains(facts.get(1)));
+    }
+
+    @Test
+    public void iteratorRemovesFacts() {
+        FactSet set = new FactSet(numbering, facts("i", 40));
+        Iterator<DataFlowFact> it = set.iterator();
+        while (it.hasNext()) {
+            if (numbering.idOf(it.next()) % 2 == 0) {
+                it.remove();
+            }
+        }
+        for (DataFlowFact fact : set) {
+            assertTrue(numbering.idOf(fact) % 2 != 0);
+        }
+        assertEquals(20, set.size());
+    }
+
+    @Test
+    public void addAllUnitesBitsets() {
+        List<DataFlowFact> first = facts("a", 50);
+        List<DataFlowFact> second = facts("b", 50);
+        FactSet union = new FactSet(numbering, first);
+        FactSet other = new FactSet(numbering, second);
+        other.add(first.get(0));
+
+        assertTrue(union.addAll(other));
+        assertFalse(union.addAll(other));
+        assertEquals(100, union.size());
+        assertTrue(union.containsAll(first));
+        assertTrue(union.containsAll(second));
+
+        FactSet small = new FactSet(numbering, first.get(1));
+        assertTrue(small.addAll(other));
+        assertEquals(52, small.size());
+    }
+
+    @Test
+    public void addAllUnitesSetsOfOtherNumberings() {
+        List<DataFlowFact> first = facts("n", 30);
+        List<DataFlowFact> second = facts("m", 30);
+        FactSet union = new FactSet(numbering, first);
+        FactSet other = new FactSet(new FactNumbering(), second);
+        other.add(first.get(0));
+
+        assertTrue(union.addAll(other));
+        assertEquals(60, union.size());
+        assertTrue(union.containsAll(second));
+        assertFalse(new FactSet(new FactNumbering(), first).contains(second.get(0)));
+    }
+
+    @Test
+    public void frozenSetRejectsChanges() {
+        List<DataFlowFact> facts = facts("f", 20);
+        FactSet set = new FactSet(numbering, facts).freeze();
+        assertEquals(20, set.size());
+        assertTrue(set.containsAll(facts));
+
+        for (Runnable change : Arrays.<Runnable>asList(() -> set.add(facts("g", 1).get(0)), () -> set.remove(facts.get(0)),
+                set::clear, () -> set.addAll(new FactSet(numbering, facts("h", 20))))) {
+            try {
+                change.run();
+                fail();
+            } catch (UnsupportedOperationException expected) {
+                // The set stays as it is.
+            }
+        }
+        assertEquals(20, set.size());
+    }
+}
@@ -0,0 +1,49 @@
+package test.icfg;
+
+import analysis.icfg.BackwardsICFG;
+import analysis.icfg.CallGraphCache;
+import analysis.icfg.CallGraphICFG;
+import analysis.icfg.CallGraphKind;
+import org.junit.Test;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BackwardsICFGTest {
+
+    private static final String REPEAT = "<target.icfg.Branching: java.lang.String repeat(java.lang.String,int)>";
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+
+    @Test
+    public void answersBranchQueriesForTheReversedEdges() {
+        MethodSignature repeat = view.getIdentifierFactory().parseMethodSignature(REPEAT);
+        CallGraphICFG forward = new CallGraphICFG(view, new CallGraphCache(view).get(CallGraphKind.CHA, Collections.singletonList(repeat)));
+        BackwardsICFG backward = new BackwardsICFG(forward);
+        SootMethod method = view.getMethod(repeat).get();
+        forward.getStartPointsOf(method);
+
+        int branchTargets = 0;
+        int fallThroughs = 0;
+        for (Stmt stmt : method.getBody().getStmts()) {
+            for (Stmt succ : forward.getSuccsOf(stmt)) {
+                assertTrue(backward.getSuccsOf(succ).contains(stmt));
+                assertEquals(forward.isFallThroughSuccessor(stmt, succ), backward.isFallThroughSuccessor(succ, stmt));
+                assertEquals(forward.isBranchTarget(stmt, succ), backward.isBranchTarget(succ, stmt));
+                branchTargets += forward.isBranchTarget(stmt, succ) ? 1 : 0;
+                fallThroughs += forward.isFallThroughSuccessor(stmt, succ) ? 1 : 0;
+            }
+        }
+        assertTrue(branchTargets > 0);
+        assertTrue(fallThroughs > 0);
+    }
+}
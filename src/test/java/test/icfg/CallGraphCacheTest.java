@@ -0,0 +1,113 @@
+package test.icfg;
+
+import analysis.BatchTaintAnalysis;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.icfg.CallGraphCache;
+import analysis.icfg.CallGraphICFG;
+import analysis.icfg.CallGraphKind;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.callgraph.CallGraph;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CallGraphCacheTest {
+
+    private static final String TEST_CLASSES = System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes";
+
+    private static final String ENTRY_POINT = "<target.callgraph.VirtualDispatchSQLInjection: void doGet(target.exercise1.HttpServletRequest)>";
+
+    private static final String EXECUTE = "<target.callgraph.VirtualDispatchSQLInjection: void execute(java.lang.String)>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(TEST_CLASSES));
+
+    private final List<MethodSignature> entryPoints = Collections.singletonList(view.getIdentifierFactory().parseMethodSignature(ENTRY_POINT));
+
+    private final MethodSignature execute = view.getIdentifierFactory().parseMethodSignature(EXECUTE);
+
+    private Set<String> runTargets(CallGraph callGraph) {
+        Set<String> targets = new TreeSet<>();
+        for (MethodSignature target : callGraph.callsFrom(execute)) {
+            if (target.getName().equals("run")) {
+                targets.add(target.getDeclClassType().getClassName());
+            }
+        }
+        return targets;
+    }
+
+    @Test
+    public void preciserAlgorithmsResolveFewerCallees() {
+        CallGraphCache callGraphs = new CallGraphCache(view);
+        double previous = Double.MAX_VALUE;
+        for (CallGraphKind kind : CallGraphKind.values()) {
+            CallGraphICFG icfg = new CallGraphICFG(view, callGraphs.get(kind, entryPoints));
+            for (Stmt callSite : icfg.getCallsFromWithin(view.getMethod(execute).get())) {
+                icfg.getCalleesOfCallAt(callSite);
+            }
+            assertEquals(kind.toString(), 2, icfg.getResolvedCallSites());
+            assertTrue(kind.toString(), icfg.getAverageCalleesPerCallSite() < previous);
+            previous = icfg.getAverageCalleesPerCallSite();
+        }
+    }
+
+    @Test
+    public void allAlgorithmsFindTheSameVulnerabilities() {
+        CallGraphCache callGraphs = new CallGraphCache(view);
+        for (CallGraphKind kind : CallGraphKind.values()) {
+            VulnerabilityReporter reporter = new VulnerabilityReporter();
+            BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), 1);
+            analysis.setCallGraphCache(callGraphs);
+            analysis.setCallGraphKind(kind);
+            analysis.solve(entryPoints);
+
+            assertEquals(kind.toString(), 1, reporter.getFindings().size());
+        }
+        assertEquals(CallGraphKind.values().length, callGraphs.getBuiltGraphs());
+    }
+
+    @Test
+    public void typePropagationDispatchesOnAllocatedTypes() {
+        CallGraphCache callGraphs = new CallGraphCache(view);
+
+        assertEquals("[VirtualDispatchSQLInjection$LoggingQueryRunner, VirtualDispatchSQLInjection$NoopQueryRunner, VirtualDispatchSQLInjection$SqlQueryRunner]",
+                runTargets(callGraphs.get(CallGraphKind.CHA, entryPoints)).toString());
+        assertEquals("[VirtualDispatchSQLInjection$LoggingQueryRunner, VirtualDispatchSQLInjection$SqlQueryRunner]",
+                runTargets(callGraphs.get(CallGraphKind.RTA, entryPoints)).toString());
+        assertEquals("[VirtualDispatchSQLInjection$SqlQueryRunner]",
+                runTargets(callGraphs.get(CallGraphKind.TYPE_PROPAGATION, entryPoints)).toString());
+    }
+
+    @Test
+    public void callGraphsAreReusedAcrossAnalysesAndRuns() throws Exception {
+        File directory = folder.newFolder("callgraphs");
+        CallGraphCache firstRun = new CallGraphCache(view, directory.toPath());
+        CallGraph callGraph = firstRun.get(CallGraphKind.RTA, entryPoints);
+        assertSame(callGraph, firstRun.get(CallGraphKind.RTA, entryPoints));
+        assertEquals(1, firstRun.getBuiltGraphs());
+
+        JavaView reloaded = new JavaView(new JavaClassPathAnalysisInputLocation(TEST_CLASSES));
+        CallGraphCache secondRun = new CallGraphCache(reloaded, directory.toPath());
+        CallGraph loaded = secondRun.get(CallGraphKind.RTA, entryPoints);
+        assertEquals(0, secondRun.getBuiltGraphs());
+        assertEquals(1, secondRun.getLoadedGraphs());
+        assertEquals(callGraph.getMethodSignatures(), loaded.getMethodSignatures());
+        assertEquals(callGraph.callCount(), loaded.callCount());
+    }
+}
@@ -0,0 +1,130 @@
+package test.icfg;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.icfg.CallGraphICFG;
+import analysis.icfg.SnapshotICFG;
+import analysis.workload.ServletWorkloadGenerator;
+import analysis.workload.WorkloadConfig;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+import sootup.jimple.parser.JimpleAnalysisInputLocation;
+import sootup.jimple.parser.JimpleView;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotICFGTest {
+
+    private static final String TEST_CLASSES = System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<String> findings(VulnerabilityReporter reporter) {
+        List<String> findings = new ArrayList<>();
+        for (Finding finding : reporter.getFindings()) {
+            findings.add(finding.getMethod().getSignature() + " " + finding.getSink() + " " + finding.getFact());
+        }
+        Collections.sort(findings);
+        return findings;
+    }
+
+    @Test
+    public void snapshotAnswersLikeTheOriginalICFG() throws Exception {
+        JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(TEST_CLASSES));
+        List<MethodSignature> entryPoints = BatchTaintAnalysis.discoverEntryPoints(view);
+        Path file = folder.getRoot().toPath().resolve("icfg.snapshot");
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(new VulnerabilityReporter())).writeSnapshot(entryPoints, file);
+
+        CallGraphICFG original = new CallGraphICFG(view, new ClassHierarchyAnalysisAlgorithm(view).initialize(entryPoints));
+        SnapshotICFG snapshot = new SnapshotICFG(view, file);
+        assertEquals(entryPoints.size(), snapshot.getEntryPoints().size());
+        for (MethodSignature entryPoint : entryPoints) {
+            SootMethod method = view.getMethod(entryPoint).get();
+            assertEquals(original.getStartPointsOf(method), snapshot.getStartPointsOf(method));
+            assertEquals(original.getCallsFromWithin(method), snapshot.getCallsFromWithin(method));
+            for (Stmt stmt : method.getBody().getStmts()) {
+                assertEquals(original.getSuccsOf(stmt), snapshot.getSuccsOf(stmt));
+                assertEquals(original.getPredsOf(stmt), snapshot.getPredsOf(stmt));
+                assertEquals(original.isExitStmt(stmt), snapshot.isExitStmt(stmt));
+                assertEquals(method, snapshot.getMethodOf(stmt));
+                if (original.isCallStmt(stmt)) {
+                    assertEquals(new ArrayList<>(original.getCalleesOfCallAt(stmt)), new ArrayList<>(snapshot.getCalleesOfCallAt(stmt)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void unknownStatementConvertsOnlyItsMethod() throws Exception {
+        JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(TEST_CLASSES));
+        List<MethodSignature> entryPoints = BatchTaintAnalysis.discoverEntryPoints(view);
+        Path file = folder.getRoot().toPath().resolve("icfg.snapshot");
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(new VulnerabilityReporter())).writeSnapshot(entryPoints, file);
+
+        SnapshotICFG snapshot = new SnapshotICFG(view, file);
+        SootMethod entryPoint = view.getMethod(entryPoints.get(entryPoints.size() - 1)).get();
+        Stmt start = entryPoint.getBody().getStmtGraph().getStartingStmt();
+        assertTrue(snapshot.isStartPoint(start));
+        assertEquals(entryPoint, snapshot.getMethodOf(start));
+        assertEquals(1, snapshot.getMaterializedMethods());
+    }
+
+    @Test
+    public void warmStartFindsTheSameVulnerabilities() throws Exception {
+        new ServletWorkloadGenerator(new WorkloadConfig().setServlets(6).setCallDepth(2)).generate(folder.getRoot().toPath().resolve("jimple"));
+        Path jimple = folder.getRoot().toPath().resolve("jimple");
+        Path file = folder.getRoot().toPath().resolve("icfg.snapshot");
+
+        View coldView = new JimpleView(new JimpleAnalysisInputLocation(jimple));
+        VulnerabilityReporter cold = new VulnerabilityReporter();
+        BatchTaintAnalysis coldAnalysis = new BatchTaintAnalysis(coldView, new Exercise3FlowFunctions(cold), 2);
+        coldAnalysis.writeSnapshot(BatchTaintAnalysis.discoverEntryPoints(coldView), file);
+        coldAnalysis.solve();
+
+        View warmView = new JimpleView(new JimpleAnalysisInputLocation(jimple));
+        SnapshotICFG snapshot = new SnapshotICFG(warmView, file);
+        VulnerabilityReporter warm = new VulnerabilityReporter();
+        new BatchTaintAnalysis(warmView, new Exercise3FlowFunctions(warm), 2).solve(snapshot.getEntryPoints(), snapshot);
+
+        assertEquals(findings(cold), findings(warm));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void changedBodyOfTheSameSizeIsRejected() throws Exception {
+        Path jimple = folder.getRoot().toPath().resolve("jimple");
+        new ServletWorkloadGenerator(new WorkloadConfig().setServlets(1).setCallDepth(1)).generate(jimple);
+        Path file = folder.getRoot().toPath().resolve("icfg.snapshot");
+        View view = new JimpleView(new JimpleAnalysisInputLocation(jimple));
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(new VulnerabilityReporter())).writeSnapshot(
+                BatchTaintAnalysis.discoverEntryPoints(view), file);
+
+        // Change a constant in doGet, which keeps its number of statements.
+        Path servlet = jimple.resolve(ServletWorkloadGenerator.servletClassName(0).replace('.', '/') + ".jimple");
+        String body = new String(Files.readAllBytes(servlet), StandardCharsets.UTF_8);
+        Files.write(servlet, body.replace("\"c1\"", "\"changed\"").getBytes(StandardCharsets.UTF_8));
+        View changedView = new JimpleView(new JimpleAnalysisInputLocation(jimple));
+        SnapshotICFG snapshot = new SnapshotICFG(changedView, file);
+        SootMethod entryPoint = changedView.getMethod(snapshot.getEntryPoints().get(0)).get();
+        snapshot.getStartPointsOf(entryPoint).iterator().next();
+    }
+}
@@ -0,0 +1,71 @@
+package test.jfr;
+
+import analysis.BatchTaintAnalysis;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.jfr.FlightRecorderFlowFunctions;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderEventsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+
+    @After
+    public void resetSampleRate() {
+        System.clearProperty(FlightRecorderFlowFunctions.SAMPLE_RATE_PROPERTY);
+    }
+
+    @Test
+    public void recordsSolvesSinkHitsAndFlowFunctions() throws Exception {
+        System.setProperty(FlightRecorderFlowFunctions.SAMPLE_RATE_PROPERTY, "1");
+        Path file = folder.getRoot().toPath().resolve("analysis.jfr");
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        try (Recording recording = new Recording()) {
+            recording.enable("analysis.Solve");
+            recording.enable("analysis.SinkHit");
+            recording.enable("analysis.FlowFunction");
+            recording.enable("analysis.FactExplosion");
+            recording.start();
+            new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), 2).solve();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        for (RecordedEvent event : events) {
+            counts.merge(event.getEventType().getName(), 1, Integer::sum);
+        }
+        assertEquals(BatchTaintAnalysis.discoverEntryPoints(view).size(), (int) counts.get("analysis.Solve"));
+        assertEquals(reporter.getReportedVulnerabilities(), (int) counts.get("analysis.SinkHit"));
+        assertTrue(counts.get("analysis.FlowFunction") > 100);
+
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("analysis.FlowFunction")) {
+                assertTrue(event.getString("method").startsWith("<target."));
+                assertTrue(event.getString("fact") != null);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package test.jfr;
+
+import analysis.VulnerabilityReporter;
+import analysis.jfr.FlightRecording;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class FlightRecordingTest {
+
+    /**
+     * Loads the analysis classes itself, as if the runtime did not ship the jdk.jfr module.
+     */
+    private static final class WithoutFlightRecorder extends URLClassLoader {
+
+        WithoutFlightRecorder() {
+            super(new URL[]{VulnerabilityReporter.class.getProtectionDomain().getCodeSource().getLocation()},
+                    WithoutFlightRecorder.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.startsWith("jdk.jfr.")) {
+                throw new ClassNotFoundException(name);
+            }
+            if (!name.startsWith("analysis.")) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                return loaded != null ? loaded : findClass(name);
+            }
+        }
+    }
+
+    @Test
+    public void analysisWorksWithoutTheFlightRecorderModule() throws Exception {
+        ClassLoader loader = new WithoutFlightRecorder();
+        Class<?> recording = loader.loadClass(FlightRecording.class.getName());
+        assertFalse((Boolean) recording.getMethod("isRecording").invoke(null));
+        assertNull(recording.getMethod("beginSolve", String.class).invoke(null, "<entry point>"));
+
+        Class<?> reporterClass = loader.loadClass(VulnerabilityReporter.class.getName());
+        Object reporter = reporterClass.getConstructor().newInstance();
+        for (Method method : reporterClass.getMethods()) {
+            if (method.getName().equals("reportVulnerability")) {
+                method.invoke(reporter, null, null, null, null);
+            }
+        }
+        assertEquals(1, reporterClass.getMethod("getReportedVulnerabilities").invoke(reporter));
+    }
+}
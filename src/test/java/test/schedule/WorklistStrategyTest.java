@@ -0,0 +1,284 @@
+package test.schedule;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.fact.DataFlowFact;
+import analysis.schedule.WorklistQueue;
+import analysis.schedule.WorklistStrategy;
+import analysis.stats.SolverStatistics;
+import analysis.summary.MethodSummaries;
+import analysis.summary.SummaryStore;
+import heros.InterproceduralCFG;
+import heros.solver.PathEdge;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WorklistStrategyTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+
+    /**
+     * An ICFG of just the control flow within methods, which is all the strategies look at.
+     */
+    private static final class StubICFG implements InterproceduralCFG<Stmt, SootMethod> {
+
+        private final Map<Stmt, SootMethod> methodOf = new HashMap<>();
+
+        private final Map<SootMethod, Stmt> startPointOf = new HashMap<>();
+
+        private final Map<Stmt, List<Stmt>> succsOf = new HashMap<>();
+
+        Stmt stmt(SootMethod method, Stmt... succs) {
+            Stmt stmt = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+            methodOf.put(stmt, method);
+            startPointOf.putIfAbsent(method, stmt);
+            succsOf.put(stmt, Arrays.asList(succs));
+            return stmt;
+        }
+
+        @Override
+        public SootMethod getMethodOf(Stmt stmt) {
+            return methodOf.get(stmt);
+        }
+
+        @Override
+        public List<Stmt> getSuccsOf(Stmt stmt) {
+            return succsOf.get(stmt);
+        }
+
+        @Override
+        public Collection<Stmt> getStartPointsOf(SootMethod method) {
+            return Collections.singleton(startPointOf.get(method));
+        }
+
+        @Override
+        public List<Stmt> getPredsOf(Stmt stmt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<SootMethod> getCalleesOfCallAt(Stmt stmt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<Stmt> getCallersOf(SootMethod method) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<Stmt> getCallsFromWithin(SootMethod method) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<Stmt> getReturnSitesOfCallAt(Stmt stmt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isCallStmt(Stmt stmt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isExitStmt(Stmt stmt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isStartPoint(Stmt stmt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<Stmt> allNonCallStartNodes() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isFallThroughSuccessor(Stmt stmt, Stmt succ) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isBranchTarget(Stmt stmt, Stmt succ) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private List<SootMethod> methods() {
+        List<SootMethod> methods = new ArrayList<>(view.getClass(view.getIdentifierFactory().getClassType("target.icfg.Branching")).get().getMethods());
+        assertEquals(2, methods.size());
+        return methods;
+    }
+
+    /**
+     * Schedules a task that records the target of the given edge and then runs the given follow-up.
+     */
+    private static void schedule(WorklistQueue queue, Stmt target, List<Stmt> order, Runnable then) {
+        queue.scheduling(new PathEdge<>(DataFlowFact.getZeroInstance(), target, DataFlowFact.getZeroInstance()));
+        queue.offer(() -> {
+            order.add(target);
+            then.run();
+        });
+        queue.scheduling(null);
+    }
+
+    private static void runAll(WorklistQueue queue) {
+        for (Runnable task = queue.poll(); task != null; task = queue.poll()) {
+            task.run();
+        }
+        assertNull(queue.peek());
+    }
+
+    private static List<String> drain(WorklistStrategy strategy) {
+        WorklistQueue queue = new WorklistQueue(strategy, null);
+        PathEdge<Stmt, DataFlowFact> edge = new PathEdge<>(DataFlowFact.getZeroInstance(), null, DataFlowFact.getZeroInstance());
+        List<String> order = new ArrayList<>();
+        for (String name : Arrays.asList("a", "b", "c")) {
+            queue.scheduling(edge);
+            queue.offer(() -> order.add(name));
+            queue.scheduling(null);
+        }
+        queue.offer(() -> order.add("unordered"));
+        assertEquals(4, queue.getMaxSize());
+        assertSame(queue.peek(), queue.peek());
+        for (Runnable task = queue.poll(); task != null; task = queue.poll()) {
+            task.run();
+        }
+        assertNull(queue.poll());
+        return order;
+    }
+
+    @Test
+    public void ordersTasksByStrategy() {
+        assertEquals(Arrays.asList("unordered", "a", "b", "c"), drain(WorklistStrategy.FIFO));
+        assertEquals(Arrays.asList("unordered", "c", "b", "a"), drain(WorklistStrategy.LIFO));
+    }
+
+    @Test
+    public void reversePostorderReachesJoinPointsAfterTheirPredecessors() {
+        StubICFG icfg = new StubICFG();
+        SootMethod method = methods().get(0);
+        // entry -> (left | right) -> join -> exit
+        Stmt exit = icfg.stmt(method);
+        Stmt join = icfg.stmt(method, exit);
+        Stmt left = icfg.stmt(method, join);
+        Stmt right = icfg.stmt(method, join);
+        Stmt entry = icfg.stmt(method, left, right);
+        icfg.startPointOf.put(method, entry);
+
+        WorklistQueue queue = new WorklistQueue(WorklistStrategy.REVERSE_POSTORDER, icfg);
+        List<Stmt> order = new ArrayList<>();
+        // The left branch reaches the join point before the right branch has even been scheduled.
+        schedule(queue, entry, order, () -> {
+            schedule(queue, left, order, () -> schedule(queue, join, order, () -> schedule(queue, exit, order, () -> { })));
+            schedule(queue, right, order, () -> schedule(queue, join, order, () -> { }));
+        });
+        Runnable next = queue.peek();
+        assertSame(next, queue.poll());
+        next.run();
+        runAll(queue);
+
+        assertEquals(entry, order.get(0));
+        assertEquals(new HashSet<>(Arrays.asList(left, right)), new HashSet<>(order.subList(1, 3)));
+        assertEquals(Arrays.asList(join, join, exit), order.subList(3, 6));
+    }
+
+    @Test
+    public void methodBatchedDrainsOneMethodBeforeTheNext() {
+        StubICFG icfg = new StubICFG();
+        SootMethod first = methods().get(0);
+        SootMethod second = methods().get(1);
+        Stmt a1 = icfg.stmt(first);
+        Stmt a2 = icfg.stmt(first);
+        Stmt a3 = icfg.stmt(first);
+        Stmt b1 = icfg.stmt(second);
+        Stmt b2 = icfg.stmt(second);
+
+        WorklistQueue queue = new WorklistQueue(WorklistStrategy.METHOD_BATCHED, icfg);
+        List<Stmt> order = new ArrayList<>();
+        // The last pending task of the first method schedules more of it, and of the second one.
+        schedule(queue, a1, order, () -> { });
+        schedule(queue, b1, order, () -> { });
+        schedule(queue, a2, order, () -> {
+            schedule(queue, b2, order, () -> { });
+            schedule(queue, a3, order, () -> { });
+        });
+        runAll(queue);
+
+        assertEquals(Arrays.asList(a1, a2, a3, b1, b2), order);
+    }
+
+    @Test
+    public void everyStrategyComputesTheSameResult() {
+        VulnerabilityReporter expected = new VulnerabilityReporter();
+        SolverStatistics expectedStatistics = new SolverStatistics();
+        BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, new Exercise3FlowFunctions(expected), 2);
+        analysis.setStatistics(expectedStatistics);
+        analysis.solve();
+
+        for (WorklistStrategy strategy : WorklistStrategy.values()) {
+            VulnerabilityReporter reporter = new VulnerabilityReporter();
+            SolverStatistics statistics = new SolverStatistics();
+            analysis = new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), 2);
+            analysis.setStatistics(statistics);
+            analysis.setWorklistStrategy(strategy);
+            analysis.solve();
+
+            Set<Finding> findings = new HashSet<>(reporter.getFindings());
+            assertEquals(strategy.name(), new HashSet<>(expected.getFindings()), findings);
+            assertEquals(strategy.name(), expectedStatistics.getPathEdges(), statistics.getPathEdges());
+            assertTrue(strategy.name(), statistics.getMaxWorklistSize() > 0);
+            assertTrue(strategy.name(), statistics.getSolveNanos() > 0);
+        }
+        assertEquals(0, expectedStatistics.getMaxWorklistSize());
+    }
+
+    @Test
+    public void strategiesApplyToMethodSummaries() throws IOException {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        Exercise3FlowFunctions flowFunctions = new Exercise3FlowFunctions(reporter);
+        flowFunctions.setSummaries(new MethodSummaries(view, new SummaryStore(folder.newFolder().toPath()), Exercise3FlowFunctions::new));
+        SolverStatistics statistics = new SolverStatistics();
+        BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, flowFunctions, 2);
+        analysis.setStatistics(statistics);
+        analysis.setWorklistStrategy(WorklistStrategy.METHOD_BATCHED);
+        analysis.solve();
+
+        assertTrue(statistics.getMaxWorklistSize() > 0);
+        assertFalse(reporter.getFindings().isEmpty());
+    }
+}
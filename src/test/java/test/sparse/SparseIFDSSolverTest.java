@@ -0,0 +1,99 @@
+package test.sparse;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.IFDSTaintAnalysisProblem;
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.AccessPathFlowFunctions;
+import analysis.exercise.Exercise1FlowFunctions;
+import analysis.exercise.Exercise2FlowFunctions;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.fact.DataFlowFact;
+import analysis.icfg.CallGraphICFG;
+import analysis.sparse.DefUseIndex;
+import analysis.sparse.SparseIFDSSolver;
+import analysis.workload.ServletWorkloadGenerator;
+import analysis.workload.WorkloadConfig;
+import heros.InterproceduralCFG;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.analysis.interprocedural.ifds.JimpleIFDSSolver;
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+import sootup.jimple.parser.JimpleAnalysisInputLocation;
+import sootup.jimple.parser.JimpleView;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SparseIFDSSolverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Set<String> solve(View view, TaintAnalysisFlowFunctions flowFunctions, boolean sparse) {
+        BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, flowFunctions, 2);
+        analysis.setSparse(sparse);
+        analysis.solve();
+        Set<String> sinks = new TreeSet<>();
+        for (Finding finding : flowFunctions.getReporter().getFindings()) {
+            sinks.add(finding.getMethod().getSignature() + " " + finding.getSink().getPositionInfo().getStmtPosition());
+        }
+        return sinks;
+    }
+
+    @Test
+    public void sparseFindingsEqualDenseFindings() {
+        View view = new JavaView(new JavaClassPathAnalysisInputLocation(
+                System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+        List<Function<VulnerabilityReporter, TaintAnalysisFlowFunctions>> analyses = Arrays.asList(
+                Exercise1FlowFunctions::new, Exercise2FlowFunctions::new, Exercise3FlowFunctions::new, AccessPathFlowFunctions::new);
+        for (Function<VulnerabilityReporter, TaintAnalysisFlowFunctions> analysis : analyses) {
+            Set<String> dense = solve(view, analysis.apply(new VulnerabilityReporter()), false);
+            assertEquals(dense, solve(view, analysis.apply(new VulnerabilityReporter()), true));
+        }
+    }
+
+    @Test
+    public void skipsStatementsThatDoNotTouchTheFact() {
+        WorkloadConfig config = new WorkloadConfig().setServlets(1).setCallDepth(2).setFanOut(2).setFillerStatements(40)
+                .setLeakingFraction(1.0);
+        new ServletWorkloadGenerator(config).generate(folder.getRoot().toPath());
+        View view = new JimpleView(new JimpleAnalysisInputLocation(folder.getRoot().toPath()));
+        List<MethodSignature> entryPoints = BatchTaintAnalysis.discoverEntryPoints(view);
+        CallGraphICFG icfg = new CallGraphICFG(view, new ClassHierarchyAnalysisAlgorithm(view).initialize(entryPoints));
+
+        VulnerabilityReporter denseReporter = new VulnerabilityReporter();
+        Exercise3FlowFunctions denseFunctions = new Exercise3FlowFunctions(denseReporter);
+        denseFunctions.setICFG(icfg);
+        JimpleIFDSSolver<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>> dense =
+                new JimpleIFDSSolver<>(new IFDSTaintAnalysisProblem(icfg, denseFunctions, entryPoints, view));
+        dense.solve();
+
+        VulnerabilityReporter sparseReporter = new VulnerabilityReporter();
+        Exercise3FlowFunctions sparseFunctions = new Exercise3FlowFunctions(sparseReporter);
+        sparseFunctions.setICFG(icfg);
+        SparseIFDSSolver sparse = new SparseIFDSSolver(new IFDSTaintAnalysisProblem(icfg, sparseFunctions, entryPoints, view),
+                new DefUseIndex(icfg, sparseFunctions));
+        sparse.solve();
+
+        assertEquals(config.getExpectedFindings(), sparseReporter.getFindings().size());
+        assertEquals(denseReporter.getFindings().size(), sparseReporter.getFindings().size());
+        assertTrue("dense: " + dense.propagationCount + ", sparse: " + sparse.propagationCount,
+                sparse.propagationCount * 4 < dense.propagationCount);
+    }
+}
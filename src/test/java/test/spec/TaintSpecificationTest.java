@@ -0,0 +1,70 @@
+package test.spec;
+
+import analysis.spec.CallRole;
+import analysis.spec.TaintSpecification;
+import org.junit.Test;
+import sootup.java.core.JavaIdentifierFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaintSpecificationTest {
+
+    private final TaintSpecification spec = TaintSpecification.getDefault();
+
+    private CallRole roleOf(String methodSignature) {
+        return spec.roleOf(JavaIdentifierFactory.getInstance().parseMethodSignature(methodSignature));
+    }
+
+    @Test
+    public void classifiesBySignature() {
+        assertEquals(CallRole.SOURCE, roleOf("<target.exercise1.HttpServletRequest: java.lang.String getParameter(java.lang.String)>"));
+        assertEquals(CallRole.SINK, roleOf("<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>"));
+        assertEquals(CallRole.APPEND_PROPAGATOR, roleOf("<java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.String)>"));
+        assertEquals(CallRole.TO_STRING_PROPAGATOR, roleOf("<java.lang.StringBuilder: java.lang.String toString()>"));
+    }
+
+    @Test
+    public void doesNotMatchOnSubstrings() {
+        assertEquals(CallRole.NONE, roleOf("<target.Logger: void logParameter(java.lang.String)>"));
+        assertEquals(CallRole.NONE, roleOf("<target.Dao: java.lang.String getParameterName(java.lang.String)>"));
+        assertEquals(CallRole.NONE, roleOf("<target.Dao: void executeQueryLater(java.lang.String)>"));
+        assertEquals(CallRole.NONE, roleOf("<target.Dao: java.lang.String toString(int)>"));
+    }
+
+    @Test
+    public void loadsSpecificationFiles() throws IOException {
+        Path file = Files.createTempFile("taint", ".spec");
+        try {
+            Files.write(file, Arrays.asList(
+                    "# servlet parameters are user input",
+                    "SOURCE java.lang.String getParameter(java.lang.String)",
+                    "",
+                    "SINK <target.Dao: void store(java.lang.String)>"), StandardCharsets.UTF_8);
+            TaintSpecification loaded = TaintSpecification.load(file);
+            JavaIdentifierFactory identifiers = JavaIdentifierFactory.getInstance();
+
+            assertEquals(CallRole.SOURCE, loaded.roleOf(identifiers.parseMethodSignature("<target.Request: java.lang.String getParameter(java.lang.String)>")));
+            assertEquals(CallRole.SINK, loaded.roleOf(identifiers.parseMethodSignature("<target.Dao: void store(java.lang.String)>")));
+            assertEquals(CallRole.NONE, loaded.roleOf(identifiers.parseMethodSignature("<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownRoles() throws IOException {
+        Path file = Files.createTempFile("taint", ".spec");
+        try {
+            Files.write(file, Arrays.asList("SANITIZER java.lang.String escape(java.lang.String)"), StandardCharsets.UTF_8);
+            TaintSpecification.load(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
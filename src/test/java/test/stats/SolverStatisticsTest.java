@@ -0,0 +1,89 @@
+package test.stats;
+
+import analysis.BatchTaintAnalysis;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.stats.FlowFunctionKind;
+import analysis.stats.SolverStatistics;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SolverStatisticsTest {
+
+    private static final String DIRECT = "<target.exercise1.DirectSQLInjection: void doGet(target.exercise1.HttpServletRequest)>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final JavaView view = new JavaView(new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+
+    private SolverStatistics solve(boolean sparse) {
+        return solve(sparse, new SolverStatistics(3));
+    }
+
+    private SolverStatistics solve(boolean sparse, SolverStatistics statistics) {
+        BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, new Exercise3FlowFunctions(new VulnerabilityReporter()), 2);
+        analysis.setSparse(sparse);
+        analysis.setStatistics(statistics);
+        analysis.solve();
+        return statistics;
+    }
+
+    @Test
+    public void countsEveryKindAndMethod() {
+        SolverStatistics statistics = solve(false);
+
+        assertEquals(BatchTaintAnalysis.discoverEntryPoints(view).size(), statistics.getSolvers());
+        long applications = 0;
+        for (FlowFunctionKind kind : FlowFunctionKind.values()) {
+            assertTrue(kind.toString(), statistics.of(kind).getApplications() > 0);
+            applications += statistics.of(kind).getApplications();
+        }
+        long byMethod = 0;
+        for (SolverStatistics.Counters counters : statistics.getMethods().values()) {
+            byMethod += counters.getApplications();
+        }
+        assertEquals(applications, byMethod);
+        assertTrue(statistics.getMethods().get(view.getIdentifierFactory().parseMethodSignature(DIRECT).toString()).getGeneratedFacts() > 0);
+        assertTrue(statistics.getPathEdges() > 0);
+        assertTrue(statistics.getPropagations() >= statistics.getPathEdges());
+        assertTrue(statistics.getEndSummaries() > 0);
+
+        List<SolverStatistics.FactSetSize> largest = statistics.getLargestFactSets();
+        assertEquals(3, largest.size());
+        assertTrue(largest.get(0).getFacts() >= largest.get(2).getFacts());
+    }
+
+    @Test
+    public void sparsePropagationDoesLessWork() {
+        assertTrue(solve(true).of(FlowFunctionKind.NORMAL).getApplications() < solve(false).of(FlowFunctionKind.NORMAL).getApplications());
+    }
+
+    @Test
+    public void writesJson() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("statistics.json");
+        // Keeps every statement, including those with string constants.
+        solve(false, new SolverStatistics(Integer.MAX_VALUE)).writeJson(file);
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+
+        assertTrue(json.contains("\"CALL_TO_RETURN\": {\"applications\": "));
+        assertTrue(json.contains("{\"method\": \"" + DIRECT + "\""));
+        assertTrue(json.contains("\"largestFactSets\": [\n    {\"method\": "));
+        // String constants in statements are escaped.
+        assertTrue(json.contains("(\\\"userId\\\")"));
+    }
+}
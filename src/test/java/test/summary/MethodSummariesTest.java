@@ -0,0 +1,240 @@
+package test.summary;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.VulnerabilityReporter;
+import analysis.budget.AnalysisBudget;
+import analysis.budget.BudgetKind;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.spec.CallRole;
+import analysis.spec.TaintSpecification;
+import analysis.summary.MethodSummaries;
+import analysis.summary.MethodSummary;
+import analysis.summary.SummaryStore;
+import analysis.workload.ServletWorkloadGenerator;
+import analysis.workload.WorkloadConfig;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+import sootup.jimple.parser.JimpleAnalysisInputLocation;
+import sootup.jimple.parser.JimpleView;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MethodSummariesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<Finding> solve(View view, MethodSummaries summaries) {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        Exercise3FlowFunctions flowFunctions = new Exercise3FlowFunctions(reporter);
+        flowFunctions.setSummaries(summaries);
+        new BatchTaintAnalysis(view, flowFunctions, 2).solve();
+        return reporter.getFindings();
+    }
+
+    private static Set<String> sinks(List<Finding> findings) {
+        Set<String> sinks = new TreeSet<>();
+        for (Finding finding : findings) {
+            sinks.add(finding.getMethod().getSignature() + " " + finding.getSink() + " " + finding.getSource());
+        }
+        return sinks;
+    }
+
+    @Test
+    public void summariesAreReusedAcrossRuns() throws IOException {
+        View view = new JavaView(new JavaClassPathAnalysisInputLocation(
+                System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes"));
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), 2).solve();
+        Set<String> expected = sinks(reporter.getFindings());
+
+        SummaryStore store = new SummaryStore(folder.newFolder("summaries").toPath());
+        MethodSummaries firstRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        assertEquals(expected, sinks(solve(view, firstRun)));
+        assertTrue(firstRun.getComputedEntries() > 0);
+
+        MethodSummaries secondRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        assertEquals(expected, sinks(solve(view, secondRun)));
+        assertEquals(0, secondRun.getComputedEntries());
+        assertTrue(secondRun.getLoadedSummaries() > 0);
+    }
+
+    @Test
+    public void changedBodiesInvalidateSummaries() throws IOException {
+        SummaryStore store = new SummaryStore(folder.newFolder("summaries").toPath());
+        WorkloadConfig config = new WorkloadConfig().setServlets(2).setCallDepth(2).setFanOut(2).setLeakingFraction(1.0);
+        Path workload = new ServletWorkloadGenerator(config).generate(folder.newFolder("workload").toPath());
+        View view = new JimpleView(new JimpleAnalysisInputLocation(workload));
+        MethodSummaries firstRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        assertEquals(config.getExpectedFindings(), solve(view, firstRun).size());
+
+        // One more sink per method changes the bodies of all helpers.
+        config.setSinksPerMethod(2);
+        new ServletWorkloadGenerator(config).generate(workload);
+        view = new JimpleView(new JimpleAnalysisInputLocation(workload));
+        MethodSummaries secondRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        assertEquals(config.getExpectedFindings(), solve(view, secondRun).size());
+        assertEquals(0, secondRun.getLoadedSummaries());
+    }
+
+    @Test
+    public void onlyChangedEntryPointsAreSolvedAgain() throws IOException {
+        SummaryStore store = new SummaryStore(folder.newFolder("summaries").toPath());
+        WorkloadConfig config = new WorkloadConfig().setServlets(4).setCallDepth(2).setFanOut(2).setLeakingFraction(0.5);
+        Path workload = new ServletWorkloadGenerator(config).generate(folder.newFolder("workload").toPath());
+        View view = new JimpleView(new JimpleAnalysisInputLocation(workload));
+        assertEquals(config.getExpectedFindings(), solve(view, new MethodSummaries(view, store, Exercise3FlowFunctions::new)).size());
+
+        // Change a constant in doGet of one servlet; its helpers keep their bodies.
+        Path servlet = workload.resolve(ServletWorkloadGenerator.servletClassName(0).replace('.', '/') + ".jimple");
+        String jimple = new String(Files.readAllBytes(servlet), StandardCharsets.UTF_8);
+        Files.write(servlet, jimple.replace("\"c1\"", "\"changed\"").getBytes(StandardCharsets.UTF_8));
+        view = new JimpleView(new JimpleAnalysisInputLocation(workload));
+        MethodSummaries secondRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        assertEquals(config.getExpectedFindings(), solve(view, secondRun).size());
+        assertEquals(1, secondRun.getComputedEntries());
+    }
+
+    @Test
+    public void summariesOverBudgetAreNotStored() throws IOException {
+        SummaryStore store = new SummaryStore(folder.newFolder("summaries").toPath());
+        WorkloadConfig config = new WorkloadConfig().setServlets(2).setCallDepth(2).setFanOut(2).setLeakingFraction(1.0);
+        Path workload = new ServletWorkloadGenerator(config).generate(folder.newFolder("workload").toPath());
+        View view = new JimpleView(new JimpleAnalysisInputLocation(workload));
+
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        Exercise3FlowFunctions flowFunctions = new Exercise3FlowFunctions(reporter);
+        MethodSummaries firstRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        flowFunctions.setSummaries(firstRun);
+        BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, flowFunctions, 2);
+        analysis.setBudget(new AnalysisBudget().setMaxPathEdges(5));
+        analysis.solve();
+        assertFalse(reporter.isComplete());
+        assertEquals(2, reporter.getIncomplete().size());
+        assertEquals(EnumSet.of(BudgetKind.PATH_EDGES), reporter.getIncomplete().values().iterator().next());
+        assertTrue(firstRun.getComputedEntries() > 0);
+
+        MethodSummaries secondRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        assertEquals(config.getExpectedFindings(), solve(view, secondRun).size());
+        assertEquals(0, secondRun.getLoadedSummaries());
+    }
+
+    @Test
+    public void cancelledSummariesAreNotStored() throws IOException {
+        WorkloadConfig config = new WorkloadConfig().setServlets(1).setCallDepth(2).setFanOut(3).setLeakingFraction(1.0);
+        Path workload = new ServletWorkloadGenerator(config).generate(folder.newFolder("workload").toPath());
+        View view = new JimpleView(new JimpleAnalysisInputLocation(workload));
+        MethodSummaries fullRun = new MethodSummaries(view, new SummaryStore(folder.newFolder("full").toPath()), Exercise3FlowFunctions::new);
+        solve(view, fullRun);
+
+        // The first sink any summary finds cancels the run, which stops the solves of the summaries around it.
+        SummaryStore store = new SummaryStore(folder.newFolder("summaries").toPath());
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        MethodSummaries cancelledRun = new MethodSummaries(view, store, summaryReporter -> {
+            summaryReporter.addListener(finding -> reporter.cancel());
+            return new Exercise3FlowFunctions(summaryReporter);
+        });
+        Exercise3FlowFunctions flowFunctions = new Exercise3FlowFunctions(reporter);
+        flowFunctions.setSummaries(cancelledRun);
+        new BatchTaintAnalysis(view, flowFunctions, 1).solve();
+        assertTrue(reporter.isCancelled());
+        assertTrue(cancelledRun.getComputedEntries() < fullRun.getComputedEntries());
+
+        MethodSummaries secondRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        assertEquals(config.getExpectedFindings(), solve(view, secondRun).size());
+    }
+
+    @Test
+    public void changedSpecificationInvalidatesSummaries() throws IOException {
+        SummaryStore store = new SummaryStore(folder.newFolder("summaries").toPath());
+        WorkloadConfig config = new WorkloadConfig().setServlets(2).setCallDepth(2).setFanOut(2).setLeakingFraction(1.0);
+        Path workload = new ServletWorkloadGenerator(config).generate(folder.newFolder("workload").toPath());
+        View view = new JimpleView(new JimpleAnalysisInputLocation(workload));
+        assertEquals(config.getExpectedFindings(), solve(view, new MethodSummaries(view, store, Exercise3FlowFunctions::new)).size());
+
+        // The same sources, but no sinks: the stored sinks must not be replayed.
+        TaintSpecification noSinks = new TaintSpecification()
+                .add(CallRole.SOURCE, "<target.exercise1.HttpServletRequest: java.lang.String getParameter(java.lang.String)>");
+        MethodSummaries secondRun = new MethodSummaries(view, store, reporter -> new Exercise3FlowFunctions(reporter, noSinks));
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        Exercise3FlowFunctions flowFunctions = new Exercise3FlowFunctions(reporter, noSinks);
+        flowFunctions.setSummaries(secondRun);
+        new BatchTaintAnalysis(view, flowFunctions, 2).solve();
+        assertTrue(reporter.getFindings().isEmpty());
+        assertEquals(0, secondRun.getLoadedSummaries());
+    }
+
+    @Test
+    public void summariesAreStoredOncePerMethodAndRun() throws IOException {
+        WorkloadConfig config = new WorkloadConfig().setServlets(1).setCallDepth(2).setFanOut(1).setLeakingFraction(1.0);
+        Path workload = new ServletWorkloadGenerator(config).generate(folder.newFolder("workload").toPath());
+        // Add a helper with two parameters and taint each in one call, so that it is entered with two facts.
+        Path servlet = workload.resolve(ServletWorkloadGenerator.servletClassName(0).replace('.', '/') + ".jimple");
+        String jimple = new String(Files.readAllBytes(servlet), StandardCharsets.UTF_8);
+        String helper = "specialinvoke $this.<" + ServletWorkloadGenerator.servletClassName(0) + ": void both(java.lang.String,java.lang.String)>";
+        jimple = jimple.replace("        return;\n    }\n\n    private void level0_0",
+                "        " + helper + "($query, \"c\");\n        " + helper + "(\"c\", $query);\n"
+                        + "        return;\n    }\n\n    private void level0_0");
+        jimple = jimple.substring(0, jimple.lastIndexOf('}')) + String.join("\n",
+                "    private void both(java.lang.String, java.lang.String)",
+                "    {",
+                "        " + ServletWorkloadGenerator.servletClassName(0) + " $this;",
+                "        java.lang.String $first, $second;",
+                "        java.sql.Connection $conn;",
+                "        java.sql.Statement $st;",
+                "",
+                "        $this := @this: " + ServletWorkloadGenerator.servletClassName(0) + ";",
+                "        $first := @parameter0: java.lang.String;",
+                "        $second := @parameter1: java.lang.String;",
+                "        $conn = staticinvoke <java.sql.DriverManager: java.sql.Connection getConnection(java.lang.String,java.lang.String,java.lang.String)>(\"url\", \"userName\", \"password\");",
+                "        $st = interfaceinvoke $conn.<java.sql.Connection: java.sql.Statement createStatement()>();",
+                "        interfaceinvoke $st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>($first);",
+                "        interfaceinvoke $st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>($second);",
+                "        return;",
+                "    }",
+                "}",
+                "");
+        Files.write(servlet, jimple.getBytes(StandardCharsets.UTF_8));
+        View view = new JimpleView(new JimpleAnalysisInputLocation(workload));
+
+        Map<String, Integer> stores = new HashMap<>();
+        SummaryStore store = new SummaryStore(folder.newFolder("summaries").toPath()) {
+            @Override
+            public void store(MethodSummary summary) {
+                synchronized (stores) {
+                    stores.merge(summary.getSignature(), 1, Integer::sum);
+                }
+                super.store(summary);
+            }
+        };
+        MethodSummaries firstRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        Set<String> expected = sinks(solve(view, firstRun));
+        assertTrue(firstRun.getComputedEntries() > stores.size());
+        for (int count : stores.values()) {
+            assertEquals(1, count);
+        }
+
+        MethodSummaries secondRun = new MethodSummaries(view, store, Exercise3FlowFunctions::new);
+        assertEquals(expected, sinks(solve(view, secondRun)));
+        assertEquals(0, secondRun.getComputedEntries());
+    }
+}
@@ -0,0 +1,112 @@
+package test.trace;
+
+import analysis.fact.DataFlowFact;
+import analysis.trace.AsyncFileTraceSink;
+import analysis.trace.TraceEvent;
+import analysis.trace.TraceLevel;
+import analysis.trace.Tracer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.types.PrimitiveType;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TraceTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Stmt stmt = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+
+    private static DataFlowFact fact(int i) {
+        return DataFlowFact.of(new Local("v" + i, PrimitiveType.getInt()));
+    }
+
+    private TraceEvent event(int i) {
+        return new TraceEvent(TraceLevel.FLOW, null, stmt, fact(i), null);
+    }
+
+    @Test
+    public void tracerGatesByLevelAndMethod() {
+        List<TraceEvent> events = new ArrayList<>();
+        Tracer flow = new Tracer(TraceLevel.FLOW, events::add);
+        flow.trace(TraceLevel.FLOW, null, stmt, fact(0), null);
+        flow.trace(TraceLevel.DETAIL, null, stmt, fact(1), Collections.singleton(fact(2)));
+        assertEquals(1, events.size());
+        assertEquals(fact(0), events.get(0).getFact());
+
+        Tracer filtered = new Tracer(TraceLevel.DETAIL, method -> method != null, events::add);
+        filtered.trace(TraceLevel.FLOW, null, stmt, fact(3), null);
+        assertEquals(1, events.size());
+
+        Tracer.disabled().trace(TraceLevel.FLOW, null, stmt, fact(4), null);
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void writesEventsInOrderAndFlushesOnClose() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("trace.log");
+        AsyncFileTraceSink sink = new AsyncFileTraceSink(file, 16_384);
+        for (int i = 0; i < 10_000; i++) {
+            sink.accept(event(i));
+        }
+        sink.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(0, sink.getDroppedEvents());
+        assertEquals(10_000, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(event(i).format(), lines.get(i));
+        }
+    }
+
+    @Test
+    public void dropsTheNewestEventsWhenFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter written = new StringWriter() {
+            @Override
+            public void write(String str) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(str);
+            }
+        };
+        AsyncFileTraceSink sink = new AsyncFileTraceSink(written, 2);
+        sink.accept(event(0));
+        // The writer thread has taken the first event and waits, so the queue fills up.
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            sink.accept(event(i));
+        }
+        assertEquals(3, sink.getDroppedEvents());
+        release.countDown();
+        sink.close();
+        sink.accept(event(6));
+
+        assertEquals(4, sink.getDroppedEvents());
+        String separator = System.lineSeparator();
+        assertEquals(event(0).format() + separator + event(1).format() + separator + event(2).format() + separator, written.toString());
+    }
+}
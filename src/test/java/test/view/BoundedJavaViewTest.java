@@ -0,0 +1,123 @@
+package test.view;
+
+import analysis.BatchTaintAnalysis;
+import analysis.Finding;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.view.BoundedJavaView;
+import org.junit.Test;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.views.JavaView;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedJavaViewTest {
+
+    private static final int MAX_CACHED_CLASSES = 3;
+
+    private final AnalysisInputLocation inputLocation = new JavaClassPathAnalysisInputLocation(
+            System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes");
+
+    private static List<String> findings(View view, int batchSize) {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        BatchTaintAnalysis analysis = new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), 2);
+        analysis.setEntryPointBatchSize(batchSize);
+        analysis.solve();
+        List<String> findings = new ArrayList<>();
+        for (Finding finding : reporter.getFindings()) {
+            findings.add(finding.getMethod().getSignature() + " " + finding.getSink() + " " + finding.getFact());
+        }
+        Collections.sort(findings);
+        return findings;
+    }
+
+    private static <T> int live(List<WeakReference<T>> references) {
+        Map<T, Boolean> live = new IdentityHashMap<>();
+        for (WeakReference<T> reference : references) {
+            T referent = reference.get();
+            if (referent != null) {
+                live.put(referent, true);
+            }
+        }
+        return live.size();
+    }
+
+    @Test
+    public void listsAllClassesDespiteTheBound() {
+        BoundedJavaView bounded = new BoundedJavaView(inputLocation, MAX_CACHED_CLASSES);
+        assertEquals(new JavaView(inputLocation).getClasses().size(), bounded.getClasses().size());
+        assertTrue(bounded.getCachedClassesCount() <= MAX_CACHED_CLASSES);
+    }
+
+    @Test
+    public void boundedViewFindsTheSameVulnerabilities() {
+        JavaView full = new JavaView(inputLocation);
+        List<String> expected = findings(full, 0);
+        int classes = full.getClasses().size();
+
+        BoundedJavaView bounded = new BoundedJavaView(inputLocation, MAX_CACHED_CLASSES);
+        assertEquals(expected, findings(bounded, 1));
+        assertTrue(bounded.getCachedClassesCount() <= MAX_CACHED_CLASSES);
+        // Evicted classes were built again from bytecode when the analysis needed them.
+        assertTrue(bounded.getBuiltClasses() > classes);
+    }
+
+    @Test
+    public void bodiesOfAFinishedBatchCanBeCollected() throws InterruptedException {
+        JavaView full = new JavaView(inputLocation);
+        MethodSignature finished = full.getIdentifierFactory().parseMethodSignature(
+                "<target.exercise1.NoSQLInjection: void doGet(target.exercise1.HttpServletRequest)>");
+        MethodSignature next = full.getIdentifierFactory().parseMethodSignature(
+                "<target.exercise1.DirectSQLInjection: void doGet(target.exercise1.HttpServletRequest)>");
+        List<WeakReference<Object>> finishedBatch = new ArrayList<>();
+        List<WeakReference<JavaSootMethod>> methods = new ArrayList<>();
+        BoundedJavaView bounded = new BoundedJavaView(inputLocation, 1) {
+            @Override
+            public Optional<JavaSootMethod> getMethod(MethodSignature signature) {
+                Optional<JavaSootMethod> method = super.getMethod(signature);
+                if (method.isPresent()) {
+                    methods.add(new WeakReference<>(method.get()));
+                    if (signature.equals(finished) && method.get().hasBody()) {
+                        finishedBatch.add(new WeakReference<>(method.get()));
+                        for (Stmt stmt : method.get().getBody().getStmts()) {
+                            finishedBatch.add(new WeakReference<>(stmt));
+                        }
+                    }
+                }
+                return method;
+            }
+        };
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        Exercise3FlowFunctions flowFunctions = new Exercise3FlowFunctions(reporter);
+        BatchTaintAnalysis analysis = new BatchTaintAnalysis(bounded, flowFunctions, 1);
+        analysis.setEntryPointBatchSize(1);
+        analysis.solve(Arrays.asList(finished, next));
+        assertFalse(finishedBatch.isEmpty());
+
+        // The analysis and its flow functions are still referenced, but nothing of them refers to the first batch.
+        for (int i = 0; i < 20 && (live(finishedBatch) > 0 || bounded.getLiveMethods() > live(methods)); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, live(finishedBatch));
+        assertEquals(live(methods), bounded.getLiveMethods());
+        assertEquals(1, flowFunctions.getReporter().getFindings().size());
+    }
+}
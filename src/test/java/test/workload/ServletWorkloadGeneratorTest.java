@@ -0,0 +1,54 @@
+package test.workload;
+
+import analysis.BatchTaintAnalysis;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise1FlowFunctions;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.workload.ServletWorkloadGenerator;
+import analysis.workload.WorkloadConfig;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.views.View;
+import sootup.jimple.parser.JimpleAnalysisInputLocation;
+import sootup.jimple.parser.JimpleView;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ServletWorkloadGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private View generate(WorkloadConfig config) throws IOException {
+        new ServletWorkloadGenerator(config).generate(folder.getRoot().toPath());
+        return new JimpleView(new JimpleAnalysisInputLocation(folder.getRoot().toPath()));
+    }
+
+    @Test
+    public void fieldSensitiveAnalysisFindsExpectedLeaks() throws IOException {
+        WorkloadConfig config = new WorkloadConfig().setServlets(4).setCallDepth(2).setFanOut(3)
+                .setFieldChainLength(1).setConcatChainLength(2).setSinksPerMethod(2).setFillerStatements(3)
+                .setLeakingFraction(0.5);
+        View view = generate(config);
+
+        assertEquals(config.getServlets(), BatchTaintAnalysis.discoverEntryPoints(view).size());
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        new BatchTaintAnalysis(view, new Exercise3FlowFunctions(reporter), 2).solve();
+        assertEquals(12, config.getExpectedFindings());
+        assertEquals(config.getExpectedFindings(), reporter.getFindings().size());
+    }
+
+    @Test
+    public void directSinkWithoutFields() throws IOException {
+        WorkloadConfig config = new WorkloadConfig().setServlets(3).setCallDepth(0).setFieldChainLength(0)
+                .setLeakingFraction(1.0);
+        View view = generate(config);
+
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        new BatchTaintAnalysis(view, new Exercise1FlowFunctions(reporter)).solve();
+        assertEquals(3, reporter.getFindings().size());
+    }
+}